@@ -0,0 +1,44 @@
+package com.ossant.benchmarks;
+
+import guru.sfg.brewery.beer_service.web.mappers.DateMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/*
+    DateMapper of the brewery beer service (the inventory and order services carry the same implementation),
+    called by every generated mapper for each createdDate/lastModifiedDate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DateMapperBenchmark {
+
+    private final DateMapper dateMapper = new DateMapper();
+
+    private Timestamp timestamp;
+
+    private OffsetDateTime offsetDateTime;
+
+    @Setup
+    public void setUp() {
+        timestamp = Timestamp.valueOf("2019-05-25 13:45:12.123456789");
+        offsetDateTime = dateMapper.asOffsetDateTime(timestamp);
+    }
+
+    @Benchmark
+    public OffsetDateTime asOffsetDateTime() {
+        return dateMapper.asOffsetDateTime(timestamp);
+    }
+
+    @Benchmark
+    public Timestamp asTimestamp() {
+        return dateMapper.asTimestamp(offsetDateTime);
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.ossant.benchmarks;
+
+import com.ossant.entities.Beer;
+import com.ossant.mappers.BeerMapperImpl;
+import com.ossant.model.BeerDTO;
+import com.ossant.model.BeerStyle;
+import com.ossant.repositories.BeerRepository;
+import com.ossant.services.BeerNameIndex;
+import com.ossant.services.BeerService;
+import com.ossant.services.BeerServiceJPAImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+    BeerServiceJPAImpl.listBeers against an embedded H2 database (MySQL mode) seeded with a catalog about the size
+    of the csv bootstrap data. One run per filter shape, with and without the inventory column.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListBeersBenchmark {
+
+    private static final int CATALOG_SIZE = 2500;
+
+    private static final String[] NAME_WORDS = {"Galaxy", "Cat", "Crank", "Sunshine", "City", "Hop", "Imperial",
+            "Mango", "Bobby", "Pinball", "Twisted", "Nectar", "Haze", "River", "Porter", "Stout", "Lager", "Wit"};
+
+    public enum Filter {
+        NONE, NAME, STYLE, NAME_AND_STYLE
+    }
+
+    @Param
+    public Filter filter;
+
+    @Param({"true", "false"})
+    public boolean showInventory;
+
+    @Param({"25"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+
+    private BeerService beerService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ListBeersConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=warn",
+                        "spring.datasource.url=jdbc:h2:mem:benchmarks;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                        "spring.jpa.properties.hibernate.order_inserts=true")
+                .run();
+
+        BeerRepository beerRepository = context.getBean(BeerRepository.class);
+        beerRepository.saveAll(catalog());
+
+        // The index is built on ApplicationReadyEvent, before the catalog above was inserted
+        context.getBean(BeerNameIndex.class).rebuild();
+        beerService = context.getBean(BeerService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<BeerDTO> listBeers() {
+        return switch (filter) {
+            case NONE -> beerService.listBeers(null, null, showInventory, 1, pageSize);
+            case NAME -> beerService.listBeers("Hop", null, showInventory, 1, pageSize);
+            case STYLE -> beerService.listBeers(null, BeerStyle.IPA, showInventory, 1, pageSize);
+            case NAME_AND_STYLE -> beerService.listBeers("Hop", BeerStyle.IPA, showInventory, 1, pageSize);
+        };
+    }
+
+    static List<Beer> catalog() {
+        BeerStyle[] styles = BeerStyle.values();
+        List<Beer> beers = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            String beerName = NAME_WORDS[i % NAME_WORDS.length] + " " + NAME_WORDS[(i / NAME_WORDS.length) % NAME_WORDS.length]
+                    + " " + i;
+            beers.add(Beer.builder()
+                    .beerName(beerName)
+                    .beerStyle(styles[i % styles.length])
+                    .upc(String.valueOf(100000 + i))
+                    .quantityOnHand(i % 500)
+                    .price(new BigDecimal("9.99").add(BigDecimal.valueOf(i % 10)))
+                    .build());
+        }
+        return beers;
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Beer.class)
+    @EnableJpaRepositories(basePackageClasses = BeerRepository.class)
+    @Import({BeerServiceJPAImpl.class, BeerNameIndex.class, BeerMapperImpl.class})
+    static class ListBeersConfig {
+    }
+
+}
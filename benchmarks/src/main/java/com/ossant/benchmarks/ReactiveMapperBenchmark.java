@@ -0,0 +1,85 @@
+package com.ossant.benchmarks;
+
+import guru.springframework.spring6reactive.domain.Beer;
+import guru.springframework.spring6reactive.domain.Customer;
+import guru.springframework.spring6reactive.mappers.BeerMapper;
+import guru.springframework.spring6reactive.mappers.BeerMapperImpl;
+import guru.springframework.spring6reactive.mappers.CustomerMapper;
+import guru.springframework.spring6reactive.mappers.CustomerMapperImpl;
+import guru.springframework.spring6reactive.model.BeerDTO;
+import guru.springframework.spring6reactive.model.CustomerDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/*
+    MapStruct mappers of spring-6-reactive-main, one fully populated object per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReactiveMapperBenchmark {
+
+    private final BeerMapper beerMapper = new BeerMapperImpl();
+
+    private final CustomerMapper customerMapper = new CustomerMapperImpl();
+
+    private Beer beer;
+
+    private BeerDTO beerDTO;
+
+    private Customer customer;
+
+    private CustomerDTO customerDTO;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+
+        beer = Beer.builder()
+                .id(1)
+                .beerName("Galaxy Cat")
+                .beerStyle("Pale Ale")
+                .upc("12356")
+                .quantityOnHand(122)
+                .price(new BigDecimal("12.99"))
+                .createdDate(now)
+                .lastModifiedDate(now)
+                .build();
+        beerDTO = beerMapper.beerToBeerDto(beer);
+
+        customer = Customer.builder()
+                .id(1)
+                .customerName("Customer 1")
+                .createdDate(now)
+                .lastModifiedDate(now)
+                .build();
+        customerDTO = customerMapper.customerToCustomerDto(customer);
+    }
+
+    @Benchmark
+    public BeerDTO beerToBeerDto() {
+        return beerMapper.beerToBeerDto(beer);
+    }
+
+    @Benchmark
+    public Beer beerDtoToBeer() {
+        return beerMapper.beerDtoToBeer(beerDTO);
+    }
+
+    @Benchmark
+    public CustomerDTO customerToCustomerDto() {
+        return customerMapper.customerToCustomerDto(customer);
+    }
+
+    @Benchmark
+    public Customer customerDtoToCustomer() {
+        return customerMapper.customerDtoToCustomer(customerDTO);
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.ossant.benchmarks;
+
+import com.ossant.entities.Beer;
+import com.ossant.entities.Customer;
+import com.ossant.mappers.BeerMapper;
+import com.ossant.mappers.BeerMapperImpl;
+import com.ossant.mappers.CustomerMapper;
+import com.ossant.mappers.CustomerMapperImpl;
+import com.ossant.model.BeerDTO;
+import com.ossant.model.BeerStyle;
+import com.ossant.model.CustomerDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/*
+    MapStruct mappers of spring-6-rest-mvc, one fully populated object per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RestMvcMapperBenchmark {
+
+    private final BeerMapper beerMapper = new BeerMapperImpl();
+
+    private final CustomerMapper customerMapper = new CustomerMapperImpl();
+
+    private Beer beer;
+
+    private BeerDTO beerDTO;
+
+    private Customer customer;
+
+    private CustomerDTO customerDTO;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+
+        beer = Beer.builder()
+                .id(UUID.randomUUID())
+                .version(3)
+                .beerName("Galaxy Cat")
+                .beerStyle(BeerStyle.PALE_ALE)
+                .upc("12356")
+                .quantityOnHand(122)
+                .price(new BigDecimal("12.99"))
+                .createdDate(now)
+                .updateDate(now)
+                .build();
+        beerDTO = beerMapper.beerToBeerDto(beer);
+
+        customer = Customer.builder()
+                .id(UUID.randomUUID())
+                .version(1)
+                .name("Customer 1")
+                .email("customer1@example.com")
+                .createdDate(now)
+                .updateDate(now)
+                .build();
+        customerDTO = customerMapper.customerToCustomerDto(customer);
+    }
+
+    @Benchmark
+    public BeerDTO beerToBeerDto() {
+        return beerMapper.beerToBeerDto(beer);
+    }
+
+    @Benchmark
+    public Beer beerDtoToBeer() {
+        return beerMapper.beerDtoToBeer(beerDTO);
+    }
+
+    @Benchmark
+    public CustomerDTO customerToCustomerDto() {
+        return customerMapper.customerToCustomerDto(customer);
+    }
+
+    @Benchmark
+    public Customer customerDtoToCustomer() {
+        return customerMapper.customerDtoToCustomer(customerDTO);
+    }
+
+}
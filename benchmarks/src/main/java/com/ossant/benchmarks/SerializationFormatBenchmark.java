@@ -0,0 +1,99 @@
+package com.ossant.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.ossant.model.BeerDTO;
+import com.ossant.model.BeerStyle;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/*
+    A page of spring-6-rest-mvc beers written and read back as JSON, CBOR and Smile, with mappers configured the way
+    Boot configures the converters of the application. The payload size of each format is printed during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationFormatBenchmark {
+
+    public enum Format {
+        JSON, CBOR, SMILE
+    }
+
+    // The fields of a serialized PageImpl that a client reads back
+    public record BeerPage(List<BeerDTO> content, int number, int size, long totalElements) {
+    }
+
+    @Param
+    public Format format;
+
+    @Param({"25", "1000"})
+    public int pageSize;
+
+    private ObjectMapper mapper;
+
+    private PageImpl<BeerDTO> page;
+
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Boot adds the parameter names module, BeerDTO is only readable through its all-args constructor
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new ParameterNamesModule())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper = switch (format) {
+            case JSON -> builder.build();
+            case CBOR -> builder.factory(new CBORFactory()).build();
+            case SMILE -> builder.factory(new SmileFactory()).build();
+        };
+
+        BeerStyle[] styles = BeerStyle.values();
+        LocalDateTime now = LocalDateTime.now();
+        List<BeerDTO> beers = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            beers.add(BeerDTO.builder()
+                    .id(UUID.randomUUID())
+                    .version(1)
+                    .beerName("Galaxy Cat " + i)
+                    .beerStyle(styles[i % styles.length])
+                    .upc(String.valueOf(100000 + i))
+                    .quantityOnHand(i % 500)
+                    .price(new BigDecimal("12.99").add(BigDecimal.valueOf(i, 2)))
+                    .createdDate(now.minusDays(i))
+                    .updateDate(now)
+                    .build());
+        }
+        page = new PageImpl<>(beers, PageRequest.of(0, pageSize), 2500);
+        payload = serialize();
+
+        System.out.println(format + " page of " + pageSize + ": " + payload.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public BeerPage deserialize() throws IOException {
+        return mapper.readValue(payload, BeerPage.class);
+    }
+
+}
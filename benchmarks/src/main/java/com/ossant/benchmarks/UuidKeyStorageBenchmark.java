@@ -0,0 +1,190 @@
+package com.ossant.benchmarks;
+
+import com.ossant.entities.TimeOrderedUuidGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+    Insert and lookup rates of the rest-mvc key layouts over plain JDBC: varchar(36) keys with random UUIDs (the
+    V1-V5 schema) against BINARY(16) keys (the binary-uuid profile), with random or time-ordered values.
+    The tables mirror beer and beer_order_line, one insert is a whole order's lines in one batch.
+
+    Runs against an embedded H2 database by default. For MySQL pass the connection, e.g.
+    -p jdbcUrl='jdbc:mysql://localhost:3306/restdb?rewriteBatchedStatements=true' -p username=restadmin
+    The effect of time-ordered keys on inserts grows with the table, raise preloadedLines to see it once the
+    indexes outgrow the buffer pool.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UuidKeyStorageBenchmark {
+
+    private static final int BEERS = 2500;
+
+    public enum KeyStorage {
+        VARCHAR_RANDOM("varchar(36)", UUID::randomUUID),
+        VARCHAR_TIME_ORDERED("varchar(36)", TimeOrderedUuidGenerator::next),
+        BINARY_RANDOM("binary(16)", UUID::randomUUID),
+        BINARY_TIME_ORDERED("binary(16)", TimeOrderedUuidGenerator::next);
+
+        private final String columnType;
+
+        private final Supplier<UUID> ids;
+
+        KeyStorage(String columnType, Supplier<UUID> ids) {
+            this.columnType = columnType;
+            this.ids = ids;
+        }
+
+        void bind(PreparedStatement statement, int index, UUID id) throws SQLException {
+            if (columnType.startsWith("binary")) {
+                statement.setBytes(index, ByteBuffer.allocate(16)
+                        .putLong(id.getMostSignificantBits())
+                        .putLong(id.getLeastSignificantBits())
+                        .array());
+            } else {
+                statement.setString(index, id.toString());
+            }
+        }
+    }
+
+    @Param
+    public KeyStorage keyStorage;
+
+    @Param({"jdbc:h2:mem:uuids;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"})
+    public String jdbcUrl;
+
+    @Param({"sa"})
+    public String username;
+
+    @Param({"password"})
+    public String password;
+
+    @Param({"100000"})
+    public int preloadedLines;
+
+    @Param({"20"})
+    public int linesPerOrder;
+
+    private Connection connection;
+
+    private PreparedStatement insertLine;
+
+    private PreparedStatement findBeer;
+
+    private PreparedStatement findOrderLines;
+
+    private UUID[] beerIds;
+
+    private UUID[] orderIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(jdbcUrl, username, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists bench_beer_order_line");
+            statement.execute("drop table if exists bench_beer");
+            statement.execute("create table bench_beer (id " + keyStorage.columnType + " not null, "
+                    + "beer_name varchar(50) not null, primary key (id))");
+            statement.execute("create table bench_beer_order_line (id " + keyStorage.columnType + " not null, "
+                    + "beer_order_id " + keyStorage.columnType + ", beer_id " + keyStorage.columnType + ", "
+                    + "order_quantity integer, primary key (id), "
+                    + "constraint bench_line_beer_fk foreign key (beer_id) references bench_beer (id))");
+            statement.execute("create index bench_line_order_idx on bench_beer_order_line (beer_order_id)");
+        }
+        connection.setAutoCommit(false);
+
+        beerIds = new UUID[BEERS];
+        try (PreparedStatement insertBeer = connection.prepareStatement(
+                "insert into bench_beer (id, beer_name) values (?, ?)")) {
+            for (int i = 0; i < BEERS; i++) {
+                beerIds[i] = keyStorage.ids.get();
+                keyStorage.bind(insertBeer, 1, beerIds[i]);
+                insertBeer.setString(2, "Beer " + i);
+                insertBeer.addBatch();
+            }
+            insertBeer.executeBatch();
+        }
+        connection.commit();
+
+        insertLine = connection.prepareStatement("insert into bench_beer_order_line "
+                + "(id, beer_order_id, beer_id, order_quantity) values (?, ?, ?, ?)");
+        List<UUID> orders = new ArrayList<>();
+        for (int loaded = 0; loaded < preloadedLines; loaded += linesPerOrder) {
+            orders.add(insertOrder());
+        }
+        orderIds = orders.toArray(UUID[]::new);
+
+        findBeer = connection.prepareStatement("select id, beer_name from bench_beer where id = ?");
+        findOrderLines = connection.prepareStatement("select l.id, l.order_quantity, b.beer_name "
+                + "from bench_beer_order_line l join bench_beer b on b.id = l.beer_id where l.beer_order_id = ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists bench_beer_order_line");
+            statement.execute("drop table if exists bench_beer");
+        }
+        connection.commit();
+        connection.close();
+    }
+
+    @Benchmark
+    public UUID insertOrderLines() throws SQLException {
+        return insertOrder();
+    }
+
+    @Benchmark
+    public String findBeerById() throws SQLException {
+        keyStorage.bind(findBeer, 1, beerIds[ThreadLocalRandom.current().nextInt(beerIds.length)]);
+        try (ResultSet resultSet = findBeer.executeQuery()) {
+            return resultSet.next() ? resultSet.getString(2) : null;
+        }
+    }
+
+    @Benchmark
+    public int findOrderLinesWithBeers() throws SQLException {
+        keyStorage.bind(findOrderLines, 1, orderIds[ThreadLocalRandom.current().nextInt(orderIds.length)]);
+        int lines = 0;
+        try (ResultSet resultSet = findOrderLines.executeQuery()) {
+            while (resultSet.next()) {
+                lines += resultSet.getInt(2);
+            }
+        }
+        connection.commit();
+        return lines;
+    }
+
+    private UUID insertOrder() throws SQLException {
+        UUID orderId = keyStorage.ids.get();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < linesPerOrder; i++) {
+            keyStorage.bind(insertLine, 1, keyStorage.ids.get());
+            keyStorage.bind(insertLine, 2, orderId);
+            keyStorage.bind(insertLine, 3, beerIds[random.nextInt(beerIds.length)]);
+            insertLine.setInt(4, 1 + random.nextInt(12));
+            insertLine.addBatch();
+        }
+        insertLine.executeBatch();
+        connection.commit();
+        return orderId;
+    }
+
+}
@@ -0,0 +1,64 @@
+package guru.springframework.spring6reactive.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.accept.HeaderContentTypeResolver;
+import org.springframework.web.reactive.accept.RequestedContentTypeResolverBuilder;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    CBOR (application/cbor) and Smile (application/x-jackson-smile) next to JSON, selected by the Accept header.
+    The mappers come from Boot's builder, so dates and numbers are written like in the JSON responses.
+    JSON is still the default when no Accept header is sent.
+ */
+@Configuration
+public class JacksonBinaryFormatsConfig implements WebFluxConfigurer {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    public static final MediaType APPLICATION_STREAM_SMILE = new MediaType("application", "stream+x-jackson-smile");
+
+    // The codecs fall back to the JSON media types when given only a mapper, so they are always passed explicitly
+    @Bean
+    CodecCustomizer jacksonBinaryFormatsCodecCustomizer(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        ObjectMapper cborMapper = builders.getObject().factory(new CBORFactory()).build();
+        ObjectMapper smileMapper = builders.getObject().factory(new SmileFactory()).build();
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(
+                    new Jackson2SmileEncoder(smileMapper, APPLICATION_SMILE, APPLICATION_STREAM_SMILE));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, APPLICATION_SMILE));
+            configurer.customCodecs().register(new CollectingJackson2CborEncoder(cborMapper));
+            configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+        };
+    }
+
+    // Custom codecs are tried before the default ones, so without this */* would be answered with CBOR
+    @Override
+    public void configureContentTypeResolver(RequestedContentTypeResolverBuilder builder) {
+        HeaderContentTypeResolver headerResolver = new HeaderContentTypeResolver();
+        builder.resolver(exchange -> {
+            List<MediaType> mediaTypes = new ArrayList<>();
+            for (MediaType mediaType : headerResolver.resolveMediaTypes(exchange)) {
+                if (mediaType.isWildcardType()) {
+                    mediaTypes.add(new MediaType(MediaType.APPLICATION_JSON, mediaType.getParameters()));
+                }
+                mediaTypes.add(mediaType);
+            }
+            return mediaTypes;
+        });
+    }
+
+}
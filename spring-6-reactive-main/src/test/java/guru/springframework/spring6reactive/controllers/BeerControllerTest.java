@@ -1,5 +1,9 @@
 package guru.springframework.spring6reactive.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import guru.springframework.spring6reactive.domain.Beer;
 import guru.springframework.spring6reactive.model.BeerDTO;
 import org.junit.jupiter.api.MethodOrderer;
@@ -9,12 +13,18 @@ import org.junit.jupiter.api.TestMethodOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 
 import static guru.springframework.spring6reactive.app.ApplicationConstants.BEER_PATH;
+import static guru.springframework.spring6reactive.configuration.JacksonBinaryFormatsConfig.APPLICATION_SMILE;
 import static guru.springframework.spring6reactive.app.ApplicationConstants.BEER_PATH_ID;
 import static guru.springframework.spring6reactive.repositories.BeerRepositoryTest.getTestBeer;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockOAuth2Login;
@@ -28,6 +38,9 @@ public class BeerControllerTest {
     @Autowired
     WebTestClient webTestClient;
 
+    @Autowired
+    Jackson2ObjectMapperBuilder objectMapperBuilder;
+
     @Test
     @Order(1)
     void testListBeers() {
@@ -185,4 +198,52 @@ public class BeerControllerTest {
                 .isNotFound();
     }
 
-}
\ No newline at end of file
+    @Test
+    @Order(13)
+    void testListBeersAsCbor() throws IOException {
+        byte[] body = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get().uri(BEER_PATH)
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        ObjectMapper cborMapper = objectMapperBuilder.factory(new CBORFactory()).build();
+        JsonNode beers = cborMapper.readTree(body);
+        assertThat(beers.isArray()).isTrue();
+        assertThat(beers.size()).isPositive();
+        assertThat(beers.get(0).get("createdDate").isTextual()).isTrue();
+    }
+
+    @Test
+    @Order(14)
+    void testGetByIdAsSmile() throws IOException {
+        byte[] body = webTestClient
+                .mutateWith(mockOAuth2Login())
+                .get().uri(BEER_PATH_ID, 2)
+                .accept(APPLICATION_SMILE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(APPLICATION_SMILE)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        ObjectMapper smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        assertThat(smileMapper.readValue(body, BeerDTO.class).getId()).isEqualTo(2);
+    }
+
+    @Test
+    @Order(15)
+    void testCreateBeerFromCbor() throws IOException {
+        ObjectMapper cborMapper = objectMapperBuilder.factory(new CBORFactory()).build();
+        webTestClient
+                .mutateWith(mockOAuth2Login())
+                .post().uri(BEER_PATH)
+                .contentType(MediaType.APPLICATION_CBOR)
+                .bodyValue(cborMapper.writeValueAsBytes(getTestBeer()))
+                .exchange()
+                .expectStatus().isCreated();
+    }
+
+}
@@ -5,10 +5,10 @@ import com.ossant.entities.Customer;
 import com.ossant.model.BeerStyle;
 import com.ossant.repositories.BeerRepository;
 import com.ossant.repositories.CustomerRepository;
-import com.ossant.services.BeerCsvService;
+import com.ossant.services.BeerCsvImportService;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ResourceUtils;
@@ -20,6 +20,7 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 
 @Component
+@Profile("!in-memory")
 @RequiredArgsConstructor
 public class BootstrapData implements CommandLineRunner {
 
@@ -27,7 +28,7 @@ public class BootstrapData implements CommandLineRunner {
 
     private final CustomerRepository customerRepository;
 
-    private final BeerCsvService beerCsvService;
+    private final BeerCsvImportService beerCsvImportService;
 
     @Transactional
     @Override
@@ -40,28 +41,7 @@ public class BootstrapData implements CommandLineRunner {
     private void loadCsvData() throws FileNotFoundException {
         if (beerRepository.count() < 10) {
             File file = ResourceUtils.getFile("classpath:csvdata/beers.csv");
-            beerCsvService.convertCSV(file).forEach(beerCSVRecord -> {
-                BeerStyle beerStyle =
-                        switch (beerCSVRecord.getStyle()) {
-                            case "American Pale Lager" -> BeerStyle.LAGER;
-                            case "American Pale Ale (APA)", "American Black Ale",
-                                    "Belgian Dark Ale", "American Blonde Ale" -> BeerStyle.ALE;
-                            case "American IPA", "American Double / Imperial IPA", "Belgian IPA" -> BeerStyle.IPA;
-                            case "American Porter" -> BeerStyle.PORTER;
-                            case "Oatmeal Stout", "American Stout" -> BeerStyle.STOUT;
-                            case "Saison / Farmhouse Ale" -> BeerStyle.SAISON;
-                            case "Fruit / Vegetable Beer", "Winter Warmer", "Berliner Weissbier" -> BeerStyle.WHEAT;
-                            case "English Pale Ale" -> BeerStyle.PALE_ALE;
-                            default -> BeerStyle.PILSNER;
-                        };
-                beerRepository.save(Beer.builder()
-                        .beerName(StringUtils.abbreviate(beerCSVRecord.getBeer(), 50))
-                        .beerStyle(beerStyle)
-                        .price(BigDecimal.TEN)
-                        .upc(beerCSVRecord.getRow().toString())
-                        .quantityOnHand(beerCSVRecord.getCount())
-                        .build());
-            });
+            beerCsvImportService.importCsv(file);
         }
     }
 
@@ -0,0 +1,39 @@
+package com.ossant.configuration;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.ossant.model.BeerDTO;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+
+/*
+    BeerDTO is written through the property filter FILTER_ID, which keeps every property unless a response sets
+    its own filter for it (see BeerController.listBeerFields). The filter is added as a mix-in to the mappers Boot
+    builds, so BeerDTO itself and mappers created elsewhere are left alone.
+ */
+@Configuration
+public class BeerFieldsFilterConfig {
+
+    public static final String FILTER_ID = "beerFields";
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer beerFieldsFilterCustomizer() {
+        return builder -> builder
+                .mixIn(BeerDTO.class, BeerFieldsFilterMixIn.class)
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    // Filters for a response that writes only the given BeerDTO properties
+    public static SimpleFilterProvider onlyBeerFields(Set<String> properties) {
+        return new SimpleFilterProvider().addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(properties));
+    }
+
+    @JsonFilter(FILTER_ID)
+    private interface BeerFieldsFilterMixIn {
+    }
+
+}
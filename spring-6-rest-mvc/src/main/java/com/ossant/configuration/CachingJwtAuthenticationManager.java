@@ -0,0 +1,143 @@
+package com.ossant.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Remembers the outcome of verifying a bearer token, so the signature check and the authorities conversion
+    run once per token instead of once per request. Entries are keyed by the SHA-256 of the token and live until
+    the token expires (capped at maxTtl); beyond maxEntries Caffeine evicts the ones least likely to be used
+    again. Reads don't lock, so the cache doesn't serialise concurrent requests. Rejected tokens are never cached.
+
+    Only the verified Jwt, its authorities and name are kept. Every request gets its own JwtAuthenticationToken
+    carrying the details (remote address, session) of its own bearer token.
+ */
+public class CachingJwtAuthenticationManager implements AuthenticationManager {
+
+    private final AuthenticationManager delegate;
+
+    private final Duration maxTtl;
+
+    private final Clock clock;
+
+    private final Cache<String, CachedAuthentication> cache;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    public CachingJwtAuthenticationManager(AuthenticationManager delegate, int maxEntries, Duration maxTtl,
+                                           MeterRegistry meterRegistry, Clock clock) {
+        this.delegate = delegate;
+        this.maxTtl = maxTtl;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new UntilTokenExpiry(clock))
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .build();
+        this.hits = Counter.builder("security.jwt.cache")
+                .description("Bearer token authentications answered from the cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("security.jwt.cache")
+                .description("Bearer token authentications that had to decode and verify the token")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("security.jwt.cache.size", this, CachingJwtAuthenticationManager::size)
+                .description("Bearer token authentications currently cached")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!(authentication instanceof BearerTokenAuthenticationToken bearerToken)) {
+            return delegate.authenticate(authentication);
+        }
+
+        String key = hash(bearerToken.getToken());
+        CachedAuthentication cached = cache.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            JwtAuthenticationToken result = new JwtAuthenticationToken(cached.jwt(), cached.authorities(),
+                    cached.name());
+            result.setDetails(bearerToken.getDetails());
+            return result;
+        }
+
+        misses.increment();
+        Authentication result = delegate.authenticate(authentication);
+        if (result instanceof JwtAuthenticationToken jwtAuthentication
+                && jwtAuthentication.getToken().getExpiresAt() != null) {
+            Instant expiresAt = jwtAuthentication.getToken().getExpiresAt();
+            Instant ttlLimit = clock.instant().plus(maxTtl);
+            cache.put(key, new CachedAuthentication(jwtAuthentication.getToken(),
+                    List.copyOf(jwtAuthentication.getAuthorities()), jwtAuthentication.getName(),
+                    expiresAt.isBefore(ttlLimit) ? expiresAt : ttlLimit));
+        }
+        return result;
+    }
+
+    // Runs pending evictions first, Caffeine applies them asynchronously
+    public int size() {
+        cache.cleanUp();
+        return (int) cache.estimatedSize();
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CachedAuthentication(Jwt jwt, Collection<GrantedAuthority> authorities, String name,
+                                        Instant expiresAt) {
+    }
+
+    private record UntilTokenExpiry(Clock clock) implements Expiry<String, CachedAuthentication> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedAuthentication value, long currentTime) {
+            return Math.max(0, Duration.between(clock.instant(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedAuthentication value, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedAuthentication value, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.ossant.configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.ossant.entities.Beer;
+import com.ossant.entities.Category;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.convert.DurationStyle;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/*
+    JCache region factory backed by Caffeine, set as hibernate.cache.region.factory_class. It sizes the regions of
+    the beer catalog itself, so every session factory (slice tests included) gets the same bounded caches:
+    - Beer and Beer.categories: hibernate.cache.caffeine.beer.max-entries
+    - Category and Category.beers (the other side of beer_category): hibernate.cache.caffeine.category.max-entries
+    - query results: hibernate.cache.caffeine.query.max-entries
+    All of them expire hibernate.cache.caffeine.expire-after-write after being written, which bounds how long a
+    change made behind Hibernate's back stays unnoticed. The update timestamps region is neither bounded nor
+    expired, it has to outlive the query results it validates. A region without settings fails the startup.
+ */
+public class CaffeineRegionFactory extends JCacheRegionFactory {
+
+    private static final String PREFIX = "hibernate.cache.caffeine.";
+
+    private Map<String, Object> properties;
+
+    // The provider hands out one manager per URI, each session factory gets a fresh one and closes it on shutdown
+    @Override
+    protected CacheManager resolveCacheManager(SessionFactoryOptions settings, Map<String, Object> properties) {
+        this.properties = properties;
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("urn:hibernate-cache:" + UUID.randomUUID()),
+                        CaffeineRegionFactory.class.getClassLoader());
+    }
+
+    @Override
+    protected Cache<Object, Object> createCache(String regionName) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        if (!regionName.equals(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME)) {
+            configuration.setMaximumSize(OptionalLong.of(maxEntries(regionName)));
+            configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite().toNanos()));
+        }
+        return getCacheManager().createCache(regionName, configuration);
+    }
+
+    private long maxEntries(String regionName) {
+        String group;
+        if (regionName.equals(Beer.class.getName()) || regionName.equals(Beer.class.getName() + ".categories")) {
+            group = "beer";
+        } else if (regionName.equals(Category.class.getName())
+                || regionName.equals(Category.class.getName() + ".beers")) {
+            group = "category";
+        } else if (regionName.equals(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME)) {
+            group = "query";
+        } else {
+            throw new CacheException("No second-level cache settings for region " + regionName);
+        }
+        return Long.parseLong(property(group + ".max-entries", group.equals("beer") ? "10000" : "1000"));
+    }
+
+    private Duration expireAfterWrite() {
+        return DurationStyle.detectAndParse(property("expire-after-write", "10m"));
+    }
+
+    private String property(String name, String defaultValue) {
+        Object value = properties.get(PREFIX + name);
+        return value == null ? defaultValue : value.toString();
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.ossant.configuration;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/*
+    CBOR (application/cbor) and Smile (application/x-jackson-smile) next to JSON, chosen by the Accept header for
+    responses and by Content-Type for request bodies. Internal consumers pulling beer pages skip the text encoding
+    of the BigDecimal and LocalDateTime fields this way, see SerializationFormatBenchmark.
+
+    Both mappers come from Boot's builder, so they write the same fields and dates as the JSON converter. JSON stays
+    first in the converter list and is still what a request without an Accept header gets.
+ */
+@Configuration
+public class JacksonBinaryFormatsConfig {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    // The builder bean is a prototype, every converter gets its own
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.ossant.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/*
+    Opt-in read replica, enabled with the read-replica profile next to the datasource profile. The primary pool is
+    configured by spring.datasource.*, the replica pool by spring.datasource.replica.url/username/password and
+    inherits the spring.datasource.hikari.* settings unless spring.datasource.replica.hikari.* overrides them.
+    @Transactional(readOnly = true) service methods read from the replica, see ReplicaRoutingDataSource, and don't
+    fill the second-level cache, see ReplicaCacheModeTransactionManager.
+ */
+@Profile("read-replica")
+@Configuration
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties, Environment environment) {
+        Binder binder = Binder.get(environment);
+        DataSourceBuilder<HikariDataSource> builder = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(binder.bind("spring.datasource.replica.url", String.class).get());
+        binder.bind("spring.datasource.replica.username", String.class).ifBound(builder::username);
+        binder.bind("spring.datasource.replica.password", String.class).ifBound(builder::password);
+
+        HikariDataSource replicaDataSource = builder.build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(replicaDataSource));
+        binder.bind("spring.datasource.replica.hikari", Bindable.ofInstance(replicaDataSource));
+        return replicaDataSource;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            @Value("${spring.datasource.replica.lag-query:}") String lagQuery,
+            @Value("${spring.datasource.replica.lag-column:}") String lagColumn,
+            @Value("${spring.datasource.replica.max-lag:5s}") Duration maxLag,
+            @Value("${spring.datasource.replica.lag-check-interval:1s}") Duration checkInterval) {
+        return new ReplicaLagMonitor(replicaDataSource, lagQuery, lagColumn, maxLag, checkInterval);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor));
+    }
+
+    // Replaces Spring Boot's JpaTransactionManager, which backs off when one is defined
+    @Bean
+    public PlatformTransactionManager transactionManager(
+            ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        ReplicaCacheModeTransactionManager transactionManager = new ReplicaCacheModeTransactionManager();
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+}
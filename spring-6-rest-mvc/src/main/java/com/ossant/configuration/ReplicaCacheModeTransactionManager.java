@@ -0,0 +1,30 @@
+package com.ossant.configuration;
+
+import jakarta.persistence.CacheStoreMode;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_CACHE_STORE_MODE;
+
+/*
+    Read-only transactions may read from the replica, which can be behind the primary, and anything they load
+    would otherwise be put into the second-level cache and served from there, to readers of the primary as well,
+    until it expires. Their sessions only read the cache (store mode BYPASS, which find() honours as well as
+    queries); it is filled by read-write transactions.
+    Relies on open-in-view being off, so every transaction gets a session of its own.
+ */
+public class ReplicaCacheModeTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        if (definition.isReadOnly()) {
+            EntityManagerHolder holder =
+                    (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+            holder.getEntityManager().setProperty(HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        }
+    }
+
+}
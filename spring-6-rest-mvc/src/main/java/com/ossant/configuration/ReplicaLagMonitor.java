@@ -0,0 +1,125 @@
+package com.ossant.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Decides whether the replica may serve reads. Every checkInterval it runs lagQuery on the replica, which has
+    to return the replication lag in seconds (lagColumn names the column, otherwise the first one is read).
+    The replica is used while the lag is at most maxLag; a failing query, no row or a null lag (replication
+    stopped) sends the reads back to the primary until a later check succeeds. Without a lag query only the
+    connection is checked.
+
+    The replica starts out unused, reads go to the primary until the first check has passed.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final DataSource replicaDataSource;
+
+    private final String lagQuery;
+
+    private final String lagColumn;
+
+    private final Duration maxLag;
+
+    private final Duration checkInterval;
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, String lagQuery, String lagColumn,
+                             Duration maxLag, Duration checkInterval) {
+        this.replicaDataSource = replicaDataSource;
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public void check() {
+        Double lagSeconds;
+        try {
+            lagSeconds = StringUtils.hasText(lagQuery) ? queryLag() : connectionCheck();
+        } catch (SQLException | RuntimeException e) {
+            update(false, "lag check failed: " + e.getMessage());
+            return;
+        }
+        if (lagSeconds == null) {
+            update(false, "replica reports no lag, replication is not running");
+        } else if (lagSeconds * 1000 > maxLag.toMillis()) {
+            update(false, "replica is " + lagSeconds + "s behind, more than " + maxLag);
+        } else {
+            update(true, "replica is " + lagSeconds + "s behind");
+        }
+    }
+
+    private Double queryLag() throws SQLException {
+        try (Connection connection = replicaDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(timeoutSeconds());
+            try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                double lag = StringUtils.hasText(lagColumn) ? resultSet.getDouble(lagColumn) : resultSet.getDouble(1);
+                return resultSet.wasNull() ? null : lag;
+            }
+        }
+    }
+
+    private Double connectionCheck() throws SQLException {
+        try (Connection connection = replicaDataSource.getConnection()) {
+            if (!connection.isValid(timeoutSeconds())) {
+                throw new SQLException("replica connection is not valid");
+            }
+            return 0.0;
+        }
+    }
+
+    private int timeoutSeconds() {
+        return (int) Math.max(1, checkInterval.toSeconds());
+    }
+
+    private void update(boolean usable, String reason) {
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("Read-only transactions use the replica again: {}", reason);
+            } else {
+                log.warn("Read-only transactions fall back to the primary: {}", reason);
+            }
+        }
+        replicaUsable = usable;
+    }
+
+}
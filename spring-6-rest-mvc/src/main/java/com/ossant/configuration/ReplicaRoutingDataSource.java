@@ -0,0 +1,39 @@
+package com.ossant.configuration;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/*
+    Hands out replica connections to read-only transactions, as long as the ReplicaLagMonitor allows it, and
+    primary connections to everything else. The read-only flag is only known once the transaction has begun,
+    so this has to sit behind a LazyConnectionDataSourceProxy that asks for the connection on the first statement.
+    A read-only method called from a read-write transaction joins it and stays on the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource,
+                                    ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Route.PRIMARY, primaryDataSource, Route.REPLICA, replicaDataSource));
+        setDefaultTargetDataSource(primaryDataSource);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && lagMonitor.isReplicaUsable()
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+
+}
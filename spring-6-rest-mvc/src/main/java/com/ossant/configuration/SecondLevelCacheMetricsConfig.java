@@ -0,0 +1,55 @@
+package com.ossant.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/*
+    Hit ratios of the second-level cache regions (hibernate.second.level.cache.hit.ratio, tagged by region) and of
+    the query cache (hibernate.query.cache.hit.ratio), next to the hibernate.* hit and miss counters that
+    hibernate-micrometer publishes. Both need hibernate.generate_statistics; without lookups the ratio is NaN.
+ */
+@Configuration
+@Profile("!in-memory")
+public class SecondLevelCacheMetricsConfig {
+
+    @Bean
+    public MeterBinder secondLevelCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            for (String region : statistics.getSecondLevelCacheRegionNames()) {
+                if (region.equals(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME)
+                        || region.equals(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME)) {
+                    continue;
+                }
+                Gauge.builder("hibernate.second.level.cache.hit.ratio", statistics,
+                                s -> hitRatio(s.getCacheRegionStatistics(region)))
+                        .tag("region", region)
+                        .description("Share of second-level cache lookups answered from the cache")
+                        .register(registry);
+            }
+            Gauge.builder("hibernate.query.cache.hit.ratio", statistics,
+                            s -> hitRatio(s.getQueryCacheHitCount(), s.getQueryCacheMissCount()))
+                    .description("Share of cacheable query executions answered from the query cache")
+                    .register(registry);
+        };
+    }
+
+    private static double hitRatio(CacheRegionStatistics regionStatistics) {
+        return regionStatistics == null
+                ? Double.NaN
+                : hitRatio(regionStatistics.getHitCount(), regionStatistics.getMissCount());
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        return hits + misses == 0 ? Double.NaN : (double) hits / (hits + misses);
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.ossant.configuration;
+
+import com.ossant.mappers.BeerMapper;
+import com.ossant.model.BeerDTO;
+import com.ossant.model.BeerFilter;
+import com.ossant.services.BeerServiceJPAImpl;
+import com.ossant.services.SingleFlightInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.Page;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/*
+    Coalesces concurrent identical getBeerById, listBeers and listBeerFields calls of the JPA BeerService into one
+    load, see SingleFlightInterceptor. The in-memory BeerService is left alone, it answers from memory and already
+    copies on every read. The proxy is applied before the ServiceMetricsConfig one, so service.calls still times
+    every caller while service.calls.coalesced counts the loads saved. Turned off with service.coalescing.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "service.coalescing.enabled", havingValue = "true", matchIfMissing = true)
+public class ServiceCoalescingConfig {
+
+    @Bean
+    public static BeanPostProcessor serviceCoalescingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                   ObjectProvider<BeerMapper> beerMapper) {
+        return new CoalescingPostProcessor(new SingleFlightInterceptor(
+                SingletonSupplier.of(() -> meterRegistry.getIfAvailable(SimpleMeterRegistry::new)),
+                Set.of("getBeerById", "listBeers", "listBeerFields"),
+                new BeerServiceCopier(SingletonSupplier.of(beerMapper::getObject))));
+    }
+
+    // Being Ordered makes it run before the plain post processors like the metrics one
+    private record CoalescingPostProcessor(SingleFlightInterceptor interceptor) implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+            if (BeerServiceJPAImpl.class.isAssignableFrom(AopUtils.getTargetClass(bean))) {
+                ProxyFactory proxyFactory = new ProxyFactory(bean);
+                proxyFactory.addAdvice(interceptor);
+                return proxyFactory.getProxy();
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+    }
+
+    /*
+        Copies the mutable arguments and results of the coalesced BeerService methods. Everything else they take
+        (ids, names, styles, numbers) is immutable and shared as is.
+     */
+    public record BeerServiceCopier(Supplier<BeerMapper> beerMapper) implements UnaryOperator<Object> {
+
+        @Override
+        public Object apply(Object value) {
+            if (value instanceof BeerDTO beerDTO) {
+                return beerMapper.get().beerDtoToBeerDto(beerDTO);
+            }
+            if (value instanceof Optional<?> optional) {
+                return optional.map(this);
+            }
+            if (value instanceof Page<?> page) {
+                return page.map(this);
+            }
+            if (value instanceof BeerFilter beerFilter) {
+                return beerFilter.toBuilder().build();
+            }
+            if (value instanceof Set<?> set) {
+                return Set.copyOf(set);
+            }
+            return value;
+        }
+
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.ossant.configuration;
+
+import com.ossant.services.BeerService;
+import com.ossant.services.CustomerService;
+import com.ossant.services.ServiceMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.time.Duration;
+
+/*
+    Wraps every BeerService and CustomerService bean in an interface proxy timing its calls, see
+    ServiceMetricsInterceptor. The timers show up on /actuator/metrics/service.calls and, with their histogram
+    buckets, on /actuator/prometheus. Turned off with service.metrics.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "service.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class ServiceMetricsConfig {
+
+    // The registry is resolved on the first recorded call, so this early post processor doesn't initialize it
+    @Bean
+    public static BeanPostProcessor serviceMetricsPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${service.metrics.histogram.minimum-expected:1ms}") Duration minimumExpected,
+            @Value("${service.metrics.histogram.maximum-expected:10s}") Duration maximumExpected) {
+        ServiceMetricsInterceptor interceptor = new ServiceMetricsInterceptor(
+                SingletonSupplier.of(() -> meterRegistry.getIfAvailable(SimpleMeterRegistry::new)),
+                minimumExpected, maximumExpected);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof BeerService || bean instanceof CustomerService) {
+                    ProxyFactory proxyFactory = new ProxyFactory(bean);
+                    proxyFactory.addAdvice(interceptor);
+                    return proxyFactory.getProxy();
+                }
+                return bean;
+            }
+        };
+    }
+
+}
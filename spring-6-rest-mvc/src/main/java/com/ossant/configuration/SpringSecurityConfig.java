@@ -1,14 +1,23 @@
 package com.ossant.configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Clock;
+import java.time.Duration;
+
 @Profile("!test")
 @Configuration
 public class SpringSecurityConfig {
@@ -17,17 +26,36 @@ public class SpringSecurityConfig {
     @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}")
     String issuerUri;
 
+    @Value("${security.jwt-cache.max-entries:10000}")
+    int jwtCacheMaxEntries;
+
+    @Value("${security.jwt-cache.max-ttl:PT10M}")
+    Duration jwtCacheMaxTtl;
+
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           CachingJwtAuthenticationManager jwtAuthenticationManager) throws Exception {
         http
                 .authorizeHttpRequests()
                 .requestMatchers("/v3/api-docs**", "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html")
                 .permitAll()
                 .anyRequest().authenticated()
-                .and().oauth2ResourceServer().jwt();
+                .and().oauth2ResourceServer().jwt().authenticationManager(jwtAuthenticationManager);
         return http.build();
     }
 
+    // Verifies each bearer token once and serves the following requests with it from the cache
+    @Bean
+    public CachingJwtAuthenticationManager jwtAuthenticationManager(JwtDecoder jwtDecoder,
+                                                                    JwtAuthenticationConverter jwtAuthenticationConverter,
+                                                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        JwtAuthenticationProvider jwtAuthenticationProvider = new JwtAuthenticationProvider(jwtDecoder);
+        jwtAuthenticationProvider.setJwtAuthenticationConverter(jwtAuthenticationConverter);
+        return new CachingJwtAuthenticationManager(new ProviderManager(jwtAuthenticationProvider),
+                jwtCacheMaxEntries, jwtCacheMaxTtl, meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+                Clock.systemUTC());
+    }
+
     /*@Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return http
@@ -0,0 +1,82 @@
+package com.ossant.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+    Opt-in request execution mode, enabled with the virtual-threads profile. Tomcat hands every request to its own
+    virtual thread, so a request blocked on JPA/JDBC (and the @Transactional service calls it makes on that thread)
+    no longer ties up one of a few hundred worker threads. The connection pool stays small, so a fair
+    ConnectionLimitingDataSource queues the excess callers in front of it.
+
+    Virtual threads need Java 21. The factory method is looked up at runtime so the project still builds for
+    Java 17, where the profile fails at startup rather than quietly serving requests on another thread model.
+    virtual-threads.platform-fallback.enabled=true lets it start anyway on a fixed pool of platform threads (the
+    same model as Tomcat's own pool, so only the connection queue differs), with a warning.
+ */
+@Slf4j
+@Profile("virtual-threads")
+@Configuration
+public class VirtualThreadConfig {
+
+    @Value("${virtual-threads.platform-fallback.enabled:false}")
+    private boolean platformFallback;
+
+    @Value("${virtual-threads.fallback-max-threads:200}")
+    private int fallbackMaxThreads;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService requestExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            log.info("Handling requests on virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            if (!platformFallback) {
+                throw new IllegalStateException("The virtual-threads profile needs Java 21+, running "
+                        + Runtime.version() + ". Set virtual-threads.platform-fallback.enabled=true to run it on "
+                        + "platform threads instead", e);
+            }
+            log.warn("Virtual threads need Java 21+ (running {}), handling requests on {} platform threads instead",
+                    Runtime.version(), fallbackMaxThreads);
+            // Queued requests are bounded by Tomcat's max-connections, as with its own pool
+            return Executors.newFixedThreadPool(fallbackMaxThreads);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> requestExecutorCustomizer(ExecutorService requestExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(requestExecutor);
+    }
+
+    // Only the pools are limited, not proxies in front of them (the read-replica routing, an already limited pool)
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            @Value("${virtual-threads.connection-limit.permits:${spring.datasource.hikari.maximum-pool-size:10}}")
+            int permits,
+            @Value("${virtual-threads.connection-limit.acquire-timeout-ms:60000}") long acquireTimeoutMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+                    return new ConnectionLimitingDataSource(dataSource, permits, acquireTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+}
@@ -1,18 +1,43 @@
 package com.ossant.controller;
 
+import com.ossant.configuration.BeerFieldsFilterConfig;
+import com.ossant.model.BeerBatchItemResult;
+import com.ossant.model.BeerBatchItemStatus;
+import com.ossant.model.BeerBatchResult;
+import com.ossant.model.BeerBulkUpdateResult;
+import com.ossant.model.BeerCsvImportJobDTO;
 import com.ossant.model.BeerDTO;
-import com.ossant.model.BeerStyle;
+import com.ossant.model.BeerField;
+import com.ossant.model.BeerFilter;
+import com.ossant.model.BeerRepriceDTO;
+import com.ossant.model.BeerRestockDTO;
+import com.ossant.model.CursorPage;
+import com.ossant.services.BeerBatchService;
+import com.ossant.services.BeerCsvImportJobService;
+import com.ossant.services.BeerExportService;
 import com.ossant.services.BeerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -24,21 +49,150 @@ public class BeerController {
 
     public static final String BEER_PATH_ID = BEER_PATH + "/{beerId}";
 
+    public static final String BEER_BATCH_PATH = BEER_PATH + "/batch";
+
+    public static final String BEER_REPRICE_PATH = BEER_PATH + "/reprice";
+
+    public static final String BEER_RESTOCK_PATH = BEER_PATH + "/restock";
+
+    public static final String BEER_EXPORT_PATH = BEER_PATH + "/export";
+
+    public static final String BEER_IMPORT_PATH = BEER_PATH + "/import";
+
+    public static final String BEER_IMPORT_PATH_ID = BEER_IMPORT_PATH + "/{jobId}";
+
     private final BeerService beerService;
 
+    // Batch, export and import work on the database directly, the in-memory profile has none of them
+    private final ObjectProvider<BeerBatchService> beerBatchService;
+
+    private final ObjectProvider<BeerExportService> beerExportService;
+
+    private final ObjectProvider<BeerCsvImportJobService> beerCsvImportJobService;
+
+    // Filtered by any of beerName, beerStyle, categoryId, minPrice, maxPrice and inStock, see BeerFilter
     @GetMapping(BEER_PATH)
-    public Page<BeerDTO> listBeers(@RequestParam(required = false) String beerName,
-                                   @RequestParam(required = false) BeerStyle beerStyle,
+    public Page<BeerDTO> listBeers(@ModelAttribute BeerFilter beerFilter,
                                    @RequestParam(required = false) Boolean showInventory,
                                    @RequestParam(required = false) Integer pageNumber,
-                                   @RequestParam(required = false) Integer pageSize) {
-        return beerService.listBeers(beerName, beerStyle, showInventory, pageNumber, pageSize);
+                                   @RequestParam(required = false) Integer pageSize,
+                                   WebRequest webRequest) {
+        Page<BeerDTO> beerPage = beerService.listBeers(beerFilter, showInventory, pageNumber, pageSize);
+        // Returning null after a matching tag lets Spring answer 304 without serializing the page
+        if (ETags.checkNotModified(webRequest, ETags.forContent(beerPage.getContent(), BeerDTO::getId,
+                BeerDTO::getVersion, beerPage.getTotalElements(), beerPage.getNumber(), beerPage.getSize()))) {
+            return null;
+        }
+        return beerPage;
+    }
+
+    /*
+        Sparse listing, selected by the fields parameter: fields=id,beerName,price reads only those columns and
+        writes only those properties. showInventory=false still leaves quantityOnHand out. Unknown names give a 400.
+        With a cursor as well the keyset listing is sparse, see listBeerFieldsAfter.
+     */
+    @GetMapping(value = BEER_PATH, params = {"fields", "!cursor"})
+    public MappingJacksonValue listBeerFields(@ModelAttribute BeerFilter beerFilter,
+                                              @RequestParam(required = false) Boolean showInventory,
+                                              @RequestParam String fields,
+                                              @RequestParam(required = false) Integer pageNumber,
+                                              @RequestParam(required = false) Integer pageSize,
+                                              WebRequest webRequest) {
+        Set<BeerField> beerFields = parseFields(fields, showInventory);
+        Page<BeerDTO> beerPage = beerService.listBeerFields(beerFilter, beerFields, pageNumber, pageSize);
+        if (ETags.checkNotModified(webRequest, ETags.forContent(beerPage.getContent(), BeerDTO::getId,
+                BeerDTO::getVersion, beerPage.getTotalElements(), beerPage.getNumber(), beerPage.getSize(),
+                beerFields))) {
+            return null;
+        }
+        MappingJacksonValue body = new MappingJacksonValue(beerPage);
+        body.setFilters(BeerFieldsFilterConfig.onlyBeerFields(
+                beerFields.stream().map(BeerField::getProperty).collect(Collectors.toSet())));
+        return body;
+    }
+
+    /*
+        Keyset listing, selected by the presence of the cursor parameter. Send an empty cursor for the first
+        page and the returned nextCursor for the following ones. Deep pages cost the same as the first one.
+        Takes the same filters as listBeers; keep sending them with every cursor.
+     */
+    @GetMapping(value = BEER_PATH, params = "cursor")
+    public CursorPage<BeerDTO> listBeersAfter(@ModelAttribute BeerFilter beerFilter,
+                                              @RequestParam(required = false) Boolean showInventory,
+                                              @RequestParam String cursor,
+                                              @RequestParam(required = false) Integer pageSize,
+                                              WebRequest webRequest) {
+        CursorPage<BeerDTO> beerPage = beerService.listBeersAfter(beerFilter, showInventory, cursor, pageSize);
+        if (ETags.checkNotModified(webRequest, ETags.forContent(beerPage.getContent(), BeerDTO::getId,
+                BeerDTO::getVersion, beerPage.getNextCursor()))) {
+            return null;
+        }
+        return beerPage;
+    }
+
+    // Keyset listing writing only the requested fields, see listBeerFields and listBeersAfter
+    @GetMapping(value = BEER_PATH, params = {"fields", "cursor"})
+    public MappingJacksonValue listBeerFieldsAfter(@ModelAttribute BeerFilter beerFilter,
+                                                   @RequestParam(required = false) Boolean showInventory,
+                                                   @RequestParam String fields,
+                                                   @RequestParam String cursor,
+                                                   @RequestParam(required = false) Integer pageSize,
+                                                   WebRequest webRequest) {
+        Set<BeerField> beerFields = parseFields(fields, showInventory);
+        CursorPage<BeerDTO> beerPage = beerService.listBeerFieldsAfter(beerFilter, beerFields, cursor, pageSize);
+        if (ETags.checkNotModified(webRequest, ETags.forContent(beerPage.getContent(), BeerDTO::getId,
+                BeerDTO::getVersion, beerPage.getNextCursor(), beerFields))) {
+            return null;
+        }
+        MappingJacksonValue body = new MappingJacksonValue(beerPage);
+        body.setFilters(BeerFieldsFilterConfig.onlyBeerFields(
+                beerFields.stream().map(BeerField::getProperty).collect(Collectors.toSet())));
+        return body;
+    }
+
+    // The whole catalog as newline delimited JSON, written while the rows are read
+    @GetMapping(value = BEER_EXPORT_PATH, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBeers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(available(beerExportService)::exportBeers);
+    }
+
+    /*
+        Catalog csv upload (multipart part "file", same columns as csvdata/beers.csv). The import runs in the
+        background, poll the returned Location for its progress and DELETE it to cancel the import.
+     */
+    @PostMapping(value = BEER_IMPORT_PATH, consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BeerCsvImportJobDTO> importBeers(@RequestParam("file") MultipartFile file) {
+        BeerCsvImportJobDTO job = available(beerCsvImportJobService).submitImport(file);
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Location", BEER_IMPORT_PATH + "/" + job.getId());
+        return new ResponseEntity<>(job, headers, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping(BEER_IMPORT_PATH_ID)
+    public BeerCsvImportJobDTO getImportJob(@PathVariable("jobId") UUID jobId) {
+        return available(beerCsvImportJobService).getImportJob(jobId).orElseThrow(NotFoundException::new);
+    }
+
+    @DeleteMapping(BEER_IMPORT_PATH_ID)
+    public BeerCsvImportJobDTO cancelImportJob(@PathVariable("jobId") UUID jobId) {
+        return available(beerCsvImportJobService).cancelImportJob(jobId).orElseThrow(NotFoundException::new);
     }
 
     @GetMapping(BEER_PATH_ID)
-    public BeerDTO getBeerById(@PathVariable("beerId") UUID beerId){
+    public BeerDTO getBeerById(@PathVariable("beerId") UUID beerId, WebRequest webRequest){
         log.debug("Get Beer by Id - in controller");
-        return beerService.getBeerById(beerId).orElseThrow(NotFoundException::new);
+        // Revalidating only needs the version, so a matching tag is answered before the beer is loaded or mapped
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Integer> version = beerService.getBeerVersion(beerId);
+            if (version.isPresent() && ETags.checkNotModified(webRequest, ETags.forVersion(version.get()))) {
+                return null;
+            }
+        }
+        BeerDTO beerDTO = beerService.getBeerById(beerId).orElseThrow(NotFoundException::new);
+        ETags.checkNotModified(webRequest, ETags.forVersion(beerDTO.getVersion()));
+        return beerDTO;
     }
 
     @PostMapping(BEER_PATH)
@@ -52,7 +206,7 @@ public class BeerController {
 
     @PutMapping(BEER_PATH_ID)
     public ResponseEntity<?> updateById(@PathVariable("beerId")UUID beerId, @Validated @RequestBody BeerDTO beerDTO) {
-        if (beerService.updateBeerById(beerId, beerDTO).isEmpty()) {
+        if (!beerService.updateBeerById(beerId, beerDTO)) {
             throw new NotFoundException();
         }
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
@@ -68,8 +222,79 @@ public class BeerController {
 
     @PatchMapping(BEER_PATH_ID)
     public ResponseEntity<?> updateBeerPatchById(@PathVariable("beerId")UUID beerId, @RequestBody BeerDTO beerDTO){
-        beerService.patchBeerById(beerId, beerDTO);
+        if (!beerService.patchBeerById(beerId, beerDTO)) {
+            throw new NotFoundException();
+        }
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    /*
+        Bulk variants of POST and PATCH for callers syncing many beers at once. Every item gets its own result,
+        invalid or unknown ones don't stop the rest of the batch from being written.
+     */
+    @PostMapping(BEER_BATCH_PATH)
+    public BeerBatchResult createBeers(@RequestBody List<BeerDTO> beerDTOs) {
+        return withLocations(available(beerBatchService).createBeers(beerDTOs));
+    }
+
+    @PatchMapping(BEER_BATCH_PATH)
+    public BeerBatchResult patchBeers(@RequestBody List<BeerDTO> beerDTOs) {
+        return withLocations(available(beerBatchService).patchBeers(beerDTOs));
+    }
+
+    /*
+        Set-based bulk updates: "raise all IPA prices 5%" or "add 24 to these upcs" run as one UPDATE instead of a
+        PUT or PATCH per beer. Every changed beer gets a new version. The body holds the number of beers changed.
+     */
+    @PostMapping(BEER_REPRICE_PATH)
+    public BeerBulkUpdateResult repriceBeers(@Validated @RequestBody BeerRepriceDTO beerRepriceDTO) {
+        int updated = available(beerBatchService).repriceBeers(beerRepriceDTO.getBeerStyle(),
+                beerRepriceDTO.getPercent());
+        return BeerBulkUpdateResult.builder().updated(updated).build();
+    }
+
+    @PostMapping(BEER_RESTOCK_PATH)
+    public BeerBulkUpdateResult restockBeers(@Validated @RequestBody BeerRestockDTO beerRestockDTO) {
+        int updated = available(beerBatchService).restockBeers(beerRestockDTO.getUpcs(),
+                beerRestockDTO.getQuantity());
+        return BeerBulkUpdateResult.builder().updated(updated).build();
+    }
+
+    // showInventory=false leaves quantityOnHand out even when it is asked for
+    private static Set<BeerField> parseFields(String fields, Boolean showInventory) {
+        Set<BeerField> beerFields = EnumSet.noneOf(BeerField.class);
+        for (String property : fields.split(",")) {
+            if (!property.isBlank()) {
+                beerFields.add(BeerField.forProperty(property.trim()).orElseThrow(() -> new InvalidFieldsException(fields)));
+            }
+        }
+        if (beerFields.isEmpty()) {
+            throw new InvalidFieldsException(fields);
+        }
+        if (Boolean.FALSE.equals(showInventory)) {
+            beerFields.remove(BeerField.QUANTITY_ON_HAND);
+        }
+        return beerFields;
+    }
+
+    private static BeerBatchResult withLocations(BeerBatchResult beerBatchResult) {
+        List<String> locations = new ArrayList<>();
+        for (BeerBatchItemResult item : beerBatchResult.getItems()) {
+            if (item.getStatus() == BeerBatchItemStatus.CREATED || item.getStatus() == BeerBatchItemStatus.UPDATED) {
+                item.setLocation(BEER_PATH + "/" + item.getId());
+                locations.add(item.getLocation());
+            }
+        }
+        beerBatchResult.setLocations(locations);
+        return beerBatchResult;
+    }
+
+    private static <T> T available(ObjectProvider<T> service) {
+        T available = service.getIfAvailable();
+        if (available == null) {
+            throw new NotAvailableException();
+        }
+        return available;
+    }
+
 }
@@ -1,6 +1,8 @@
 package com.ossant.controller;
 
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.TransactionSystemException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -18,18 +20,23 @@ public class CustomErrorController {
     ResponseEntity<?> handleJPAViolations(TransactionSystemException transactionSystemException) {
         ResponseEntity.BodyBuilder responseEntity = ResponseEntity.badRequest();
         if (transactionSystemException.getCause().getCause() instanceof ConstraintViolationException constraintViolationException) {
-            List<Map<String, String>> errors =
-                    constraintViolationException.getConstraintViolations().stream()
-                            .map(constraintViolation -> {
-                                Map<String, String> errorMap = new HashMap<>();
-                                errorMap.put(constraintViolation.getPropertyPath().toString(), constraintViolation.getMessage());
-                                return errorMap;
-                            }).toList();
-            return responseEntity.body(errors);
+            return responseEntity.body(toErrorList(constraintViolationException));
         }
         return responseEntity.build();
     }
 
+    // A write carrying a version the row no longer has
+    @ExceptionHandler
+    ResponseEntity<?> handleStaleWrites(OptimisticLockingFailureException optimisticLockingFailureException) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    // Thrown directly by the single-statement updates, which validate before bypassing the entity
+    @ExceptionHandler
+    ResponseEntity<?> handleConstraintViolations(ConstraintViolationException constraintViolationException) {
+        return ResponseEntity.badRequest().body(toErrorList(constraintViolationException));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     ResponseEntity<?> handleBindErrors(MethodArgumentNotValidException methodArgumentNotValidException) {
         List<Map<String, String>> errorList = methodArgumentNotValidException.getFieldErrors().stream()
@@ -40,4 +47,13 @@ public class CustomErrorController {
                 }).toList();
         return ResponseEntity.badRequest().body(errorList);
     }
+
+    private static List<Map<String, String>> toErrorList(ConstraintViolationException constraintViolationException) {
+        return constraintViolationException.getConstraintViolations().stream()
+                .map(constraintViolation -> {
+                    Map<String, String> errorMap = new HashMap<>();
+                    errorMap.put(constraintViolation.getPropertyPath().toString(), constraintViolation.getMessage());
+                    return errorMap;
+                }).toList();
+    }
 }
@@ -1,14 +1,21 @@
 package com.ossant.controller;
 
+import com.ossant.model.CursorPage;
 import com.ossant.model.CustomerDTO;
+import com.ossant.services.CustomerExportService;
 import com.ossant.services.CustomerService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RequiredArgsConstructor
@@ -19,16 +26,63 @@ public class CustomerController {
 
     public static final String CUSTOMER_PATH_ID = CUSTOMER_PATH + "/{customerId}";
 
+    public static final String CUSTOMER_EXPORT_PATH = CUSTOMER_PATH + "/export";
+
     private final CustomerService customerService;
 
+    // Reads the database directly, the in-memory profile has none
+    private final ObjectProvider<CustomerExportService> customerExportService;
+
+    // name and email match substrings, ignoring case
     @GetMapping(CUSTOMER_PATH)
-    public List<CustomerDTO> listAllCustomers(){
-        return customerService.getAllCustomers();
+    public Page<CustomerDTO> listCustomers(@RequestParam(required = false) String name,
+                                           @RequestParam(required = false) String email,
+                                           @RequestParam(required = false) Integer pageNumber,
+                                           @RequestParam(required = false) Integer pageSize,
+                                           WebRequest webRequest) {
+        Page<CustomerDTO> customerPage = customerService.listCustomers(name, email, pageNumber, pageSize);
+        if (ETags.checkNotModified(webRequest, ETags.forContent(customerPage.getContent(), CustomerDTO::getId,
+                CustomerDTO::getVersion, customerPage.getTotalElements(), customerPage.getNumber(),
+                customerPage.getSize()))) {
+            return null;
+        }
+        return customerPage;
+    }
+
+    // Keyset listing selected by the cursor parameter, see BeerController.listBeersAfter
+    @GetMapping(value = CUSTOMER_PATH, params = "cursor")
+    public CursorPage<CustomerDTO> listCustomersAfter(@RequestParam(required = false) String name,
+                                                      @RequestParam(required = false) String email,
+                                                      @RequestParam String cursor,
+                                                      @RequestParam(required = false) Integer pageSize,
+                                                      WebRequest webRequest) {
+        CursorPage<CustomerDTO> customerPage = customerService.listCustomersAfter(name, email, cursor, pageSize);
+        if (ETags.checkNotModified(webRequest, ETags.forContent(customerPage.getContent(), CustomerDTO::getId,
+                CustomerDTO::getVersion, customerPage.getNextCursor()))) {
+            return null;
+        }
+        return customerPage;
+    }
+
+    // Every customer as newline delimited JSON, written while the rows are read
+    @GetMapping(value = CUSTOMER_EXPORT_PATH, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCustomers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(available(customerExportService)::exportCustomers);
     }
 
     @GetMapping(CUSTOMER_PATH_ID)
-    public CustomerDTO getCustomerById(@PathVariable("customerId") UUID id){
-        return customerService.getCustomerById(id).orElseThrow(NotFoundException::new);
+    public CustomerDTO getCustomerById(@PathVariable("customerId") UUID id, WebRequest webRequest){
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Integer> version = customerService.getCustomerVersion(id);
+            if (version.isPresent() && ETags.checkNotModified(webRequest, ETags.forVersion(version.get()))) {
+                return null;
+            }
+        }
+        CustomerDTO customerDTO = customerService.getCustomerById(id).orElseThrow(NotFoundException::new);
+        ETags.checkNotModified(webRequest, ETags.forVersion(customerDTO.getVersion()));
+        return customerDTO;
     }
 
     @PostMapping(CUSTOMER_PATH)
@@ -41,7 +95,7 @@ public class CustomerController {
 
     @PutMapping(CUSTOMER_PATH_ID)
     public ResponseEntity<?> updateCustomerByID(@PathVariable("customerId") UUID customerId, @RequestBody CustomerDTO customerDTO){
-        if (customerService.updateCustomerById(customerId, customerDTO).isEmpty()) throw new NotFoundException();
+        if (!customerService.updateCustomerById(customerId, customerDTO)) throw new NotFoundException();
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
@@ -53,8 +107,16 @@ public class CustomerController {
 
     @PatchMapping(CUSTOMER_PATH_ID)
     public ResponseEntity<?> patchCustomerById(@PathVariable("customerId") UUID customerId, @RequestBody CustomerDTO customerDTO) {
-        customerService.patchCustomerById(customerId, customerDTO);
+        if (!customerService.patchCustomerById(customerId, customerDTO)) throw new NotFoundException();
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    private static <T> T available(ObjectProvider<T> service) {
+        T available = service.getIfAvailable();
+        if (available == null) {
+            throw new NotAvailableException();
+        }
+        return available;
+    }
+
 }
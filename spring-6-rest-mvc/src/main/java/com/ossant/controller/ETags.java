@@ -0,0 +1,52 @@
+package com.ossant.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Function;
+
+/*
+    ETag values for WebRequest.checkNotModified. A single resource uses its JPA @Version as the tag, a listing
+    gets one derived from the ids and versions it holds plus its paging state.
+
+    The same content is written as JSON, CBOR or Smile depending on the Accept header, so the tags are weak (equal
+    content, not equal bytes) and checkNotModified adds Vary: Accept for caches to keep the formats apart.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String forVersion(Integer version) {
+        return version == null ? null : "W/\"" + version + "\"";
+    }
+
+    static boolean checkNotModified(WebRequest webRequest, String eTag) {
+        if (webRequest instanceof NativeWebRequest nativeWebRequest) {
+            HttpServletResponse response = nativeWebRequest.getNativeResponse(HttpServletResponse.class);
+            if (response != null && !response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+        }
+        return webRequest.checkNotModified(eTag);
+    }
+
+    static <T> String forContent(Collection<T> content, Function<T, UUID> id, Function<T, Integer> version,
+                                 Object... pageState) {
+        StringBuilder builder = new StringBuilder();
+        for (Object state : pageState) {
+            builder.append(state).append('|');
+        }
+        for (T item : content) {
+            builder.append(id.apply(item)).append(':').append(version.apply(item)).append(',');
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+}
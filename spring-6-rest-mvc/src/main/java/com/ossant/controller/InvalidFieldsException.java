@@ -0,0 +1,13 @@
+package com.ossant.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid Fields")
+public class InvalidFieldsException extends RuntimeException {
+
+    public InvalidFieldsException(String fields) {
+        super("Invalid fields: " + fields);
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.ossant.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// An endpoint whose service isn't part of the active profiles, like the database-only ones under in-memory
+@ResponseStatus(value = HttpStatus.NOT_IMPLEMENTED, reason = "Not Available In This Profile")
+public class NotAvailableException extends RuntimeException {
+
+    public NotAvailableException() {
+        super();
+    }
+
+}
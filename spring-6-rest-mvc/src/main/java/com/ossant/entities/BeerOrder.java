@@ -5,11 +5,10 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.GenericGenerator;
-import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
-import org.hibernate.type.SqlTypes;
 
 import java.sql.Timestamp;
 import java.util.Set;
@@ -18,6 +17,7 @@ import java.util.UUID;
 @Getter
 @Setter
 @Entity
+@Table(indexes = @Index(name = "beer_order_created_idx", columnList = "createdDate desc, id"))
 @NoArgsConstructor
 @Builder
 public class BeerOrder {
@@ -48,12 +48,8 @@ public class BeerOrder {
 
     @Id
     @GeneratedValue(generator = "UUID")
-    @GenericGenerator(
-            name = "UUID",
-            strategy = "org.hibernate.id.UUIDGenerator"
-    )
-    @JdbcTypeCode(SqlTypes.CHAR)
-    @Column(length = 36, columnDefinition = "varchar(36)", updatable = false, nullable = false )
+    @GenericGenerator(name = "UUID", strategy = "com.ossant.entities.TimeOrderedUuidGenerator")
+    @Column(updatable = false, nullable = false)
     private UUID id;
 
     @Version
@@ -86,11 +82,14 @@ public class BeerOrder {
 
         BeerOrder is the owner of the relation between customer that's
         why it is responsible for updating the association.
-        Customer is the "inverse end".
+        Customer is the "inverse end". Its orders are only kept in sync once loaded, adding to the
+        lazy set would read all of the customer's orders just to check the new one isn't there.
      */
     public void setCustomer(Customer customer) {
         this.customer = customer;
-        customer.getBeerOrders().add(this);
+        if (customer != null && Hibernate.isInitialized(customer.getBeerOrders())) {
+            customer.getBeerOrders().add(this);
+        }
     }
 
     /*
@@ -98,6 +97,8 @@ public class BeerOrder {
      */
     public void setBeerOrderShipment(BeerOrderShipment beerOrderShipment) {
         this.beerOrderShipment = beerOrderShipment;
-        beerOrderShipment.setBeerOrder(this);
+        if (beerOrderShipment != null) {
+            beerOrderShipment.setBeerOrder(this);
+        }
     }
 }
@@ -0,0 +1,35 @@
+package com.ossant.entities;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/*
+    Time-ordered UUIDs in the version 7 layout: the first 48 bits are the unix time in milliseconds, the remaining
+    74 bits (besides version and variant) are random. Keys created later sort after earlier ones, as text as well
+    as BINARY(16), so inserts append to the right edge of the primary key and foreign key indexes instead of
+    splitting pages at random positions, and rows created together are stored together.
+ */
+public class TimeOrderedUuidGenerator implements IdentifierGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return next();
+    }
+
+    public static UUID next() {
+        return next(System.currentTimeMillis());
+    }
+
+    static UUID next(long epochMillis) {
+        long random = RANDOM.nextLong();
+        long mostSigBits = epochMillis << 16 | 0x7000L | (random & 0xfffL);
+        long leastSigBits = RANDOM.nextLong() & 0x3fffffffffffffffL | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+}
@@ -11,4 +11,6 @@ public interface BeerMapper {
 
     BeerDTO beerToBeerDto(Beer beer);
 
+    BeerDTO beerDtoToBeerDto(BeerDTO beerDTO);
+
 }
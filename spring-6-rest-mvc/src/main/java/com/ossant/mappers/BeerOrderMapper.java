@@ -0,0 +1,24 @@
+package com.ossant.mappers;
+
+import com.ossant.entities.BeerOrder;
+import com.ossant.entities.BeerOrderLine;
+import com.ossant.entities.BeerOrderShipment;
+import com.ossant.model.BeerOrderDTO;
+import com.ossant.model.BeerOrderLineDTO;
+import com.ossant.model.BeerOrderShipmentDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper
+public interface BeerOrderMapper {
+
+    @Mapping(target = "customerId", source = "customer.id")
+    BeerOrderDTO beerOrderToBeerOrderDto(BeerOrder beerOrder);
+
+    @Mapping(target = "beerId", source = "beer.id")
+    @Mapping(target = "beerName", source = "beer.beerName")
+    BeerOrderLineDTO beerOrderLineToBeerOrderLineDto(BeerOrderLine beerOrderLine);
+
+    BeerOrderShipmentDTO beerOrderShipmentToBeerOrderShipmentDto(BeerOrderShipment beerOrderShipment);
+
+}
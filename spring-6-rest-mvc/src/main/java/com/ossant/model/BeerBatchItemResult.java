@@ -0,0 +1,26 @@
+package com.ossant.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+public class BeerBatchItemResult {
+
+    // Position of the item in the request body
+    private int index;
+
+    private UUID id;
+
+    private BeerBatchItemStatus status;
+
+    private String location;
+
+    // Same shape as the validation errors of the single-item endpoints
+    private List<Map<String, String>> errors;
+
+}
@@ -0,0 +1,10 @@
+package com.ossant.model;
+
+public enum BeerBatchItemStatus {
+
+    CREATED,
+    UPDATED,
+    INVALID,
+    NOT_FOUND
+
+}
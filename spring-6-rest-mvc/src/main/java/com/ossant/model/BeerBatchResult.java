@@ -0,0 +1,17 @@
+package com.ossant.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BeerBatchResult {
+
+    private List<BeerBatchItemResult> items;
+
+    // Locations of every created or updated beer, in request order
+    private List<String> locations;
+
+}
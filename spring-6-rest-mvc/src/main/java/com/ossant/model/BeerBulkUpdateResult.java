@@ -0,0 +1,13 @@
+package com.ossant.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BeerBulkUpdateResult {
+
+    // Number of beers the update changed
+    private int updated;
+
+}
@@ -0,0 +1,39 @@
+package com.ossant.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+public class BeerCsvImportJobDTO {
+
+    private UUID id;
+
+    // Name of the uploaded file
+    private String fileName;
+
+    private BeerCsvImportJobStatus status;
+
+    // Counters are updated after every committed chunk while the job runs
+    private long rowsParsed;
+
+    private long rowsInserted;
+
+    private long rowsRejected;
+
+    // Inserted rows per second since the job started
+    private double rowsPerSecond;
+
+    private LocalDateTime submittedDate;
+
+    private LocalDateTime startedDate;
+
+    private LocalDateTime finishedDate;
+
+    // Set when the job FAILED
+    private String error;
+
+}
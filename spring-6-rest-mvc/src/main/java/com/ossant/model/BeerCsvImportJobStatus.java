@@ -0,0 +1,11 @@
+package com.ossant.model;
+
+public enum BeerCsvImportJobStatus {
+
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+
+}
@@ -0,0 +1,25 @@
+package com.ossant.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BeerCsvImportResult {
+
+    private long rowsRead;
+
+    private long rowsInserted;
+
+    private long rowsSkipped;
+
+    private long elapsedMillis;
+
+    // Stopped on request before reaching the end of the file
+    private boolean cancelled;
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsInserted : rowsInserted * 1000d / elapsedMillis;
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.ossant.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/*
+    The BeerDTO properties a sparse listing (fields=...) can ask for. The property name is also the Beer
+    attribute read for it, so a requested field maps straight to a column of the select list.
+ */
+public enum BeerField {
+
+    ID("id", BeerDTO::getId, (beer, value) -> beer.setId((UUID) value)),
+    VERSION("version", BeerDTO::getVersion, (beer, value) -> beer.setVersion((Integer) value)),
+    BEER_NAME("beerName", BeerDTO::getBeerName, (beer, value) -> beer.setBeerName((String) value)),
+    BEER_STYLE("beerStyle", BeerDTO::getBeerStyle, (beer, value) -> beer.setBeerStyle((BeerStyle) value)),
+    UPC("upc", BeerDTO::getUpc, (beer, value) -> beer.setUpc((String) value)),
+    QUANTITY_ON_HAND("quantityOnHand", BeerDTO::getQuantityOnHand,
+            (beer, value) -> beer.setQuantityOnHand((Integer) value)),
+    PRICE("price", BeerDTO::getPrice, (beer, value) -> beer.setPrice((BigDecimal) value)),
+    CREATED_DATE("createdDate", BeerDTO::getCreatedDate,
+            (beer, value) -> beer.setCreatedDate((LocalDateTime) value)),
+    UPDATE_DATE("updateDate", BeerDTO::getUpdateDate, (beer, value) -> beer.setUpdateDate((LocalDateTime) value));
+
+    private final String property;
+
+    private final Function<BeerDTO, Object> getter;
+
+    private final BiConsumer<BeerDTO, Object> setter;
+
+    BeerField(String property, Function<BeerDTO, Object> getter, BiConsumer<BeerDTO, Object> setter) {
+        this.property = property;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Object get(BeerDTO beerDTO) {
+        return getter.apply(beerDTO);
+    }
+
+    public void set(BeerDTO beerDTO, Object value) {
+        setter.accept(beerDTO, value);
+    }
+
+    public static Optional<BeerField> forProperty(String property) {
+        return Arrays.stream(values()).filter(field -> field.property.equals(property)).findFirst();
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.ossant.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/*
+    The filters of a beer listing, bound from the query parameters of the same names. Unset filters match every
+    beer; inStock=true keeps the beers with a positive quantityOnHand.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerFilter {
+
+    private String beerName;
+
+    private BeerStyle beerStyle;
+
+    private UUID categoryId;
+
+    private BigDecimal minPrice;
+
+    private BigDecimal maxPrice;
+
+    private Boolean inStock;
+
+}
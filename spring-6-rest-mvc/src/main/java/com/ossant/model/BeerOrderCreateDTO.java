@@ -0,0 +1,26 @@
+package com.ossant.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+public class BeerOrderCreateDTO {
+
+    @NotNull
+    private UUID customerId;
+
+    private String customerRef;
+
+    @Valid
+    @NotNull
+    @NotEmpty
+    private List<BeerOrderLineCreateDTO> beerOrderLines;
+
+}
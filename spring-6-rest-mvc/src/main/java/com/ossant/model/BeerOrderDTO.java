@@ -0,0 +1,30 @@
+package com.ossant.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.sql.Timestamp;
+import java.util.Set;
+import java.util.UUID;
+
+@Data
+@Builder
+public class BeerOrderDTO {
+
+    private UUID id;
+
+    private Long version;
+
+    private String customerRef;
+
+    private UUID customerId;
+
+    private Set<BeerOrderLineDTO> beerOrderLines;
+
+    private BeerOrderShipmentDTO beerOrderShipment;
+
+    private Timestamp createdDate;
+
+    private Timestamp lastModifiedDate;
+
+}
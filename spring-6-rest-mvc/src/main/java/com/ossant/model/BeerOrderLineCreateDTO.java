@@ -0,0 +1,21 @@
+package com.ossant.model;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@Builder
+public class BeerOrderLineCreateDTO {
+
+    @NotNull
+    private UUID beerId;
+
+    @NotNull
+    @Min(1)
+    private Integer orderQuantity;
+
+}
@@ -0,0 +1,29 @@
+package com.ossant.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+@Data
+@Builder
+public class BeerOrderLineDTO {
+
+    private UUID id;
+
+    private Long version;
+
+    private UUID beerId;
+
+    private String beerName;
+
+    private Integer orderQuantity;
+
+    private Integer quantityAllocated;
+
+    private Timestamp createdDate;
+
+    private Timestamp lastModifiedDate;
+
+}
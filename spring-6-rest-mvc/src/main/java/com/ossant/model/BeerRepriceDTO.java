@@ -0,0 +1,22 @@
+package com.ossant.model;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class BeerRepriceDTO {
+
+    @NotNull
+    private BeerStyle beerStyle;
+
+    // Price change in percent, negative for a price cut
+    @NotNull
+    @DecimalMin(value = "-100", inclusive = false)
+    private BigDecimal percent;
+
+}
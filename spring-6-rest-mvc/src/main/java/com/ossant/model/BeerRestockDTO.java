@@ -0,0 +1,24 @@
+package com.ossant.model;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BeerRestockDTO {
+
+    @NotNull
+    @NotEmpty
+    private List<String> upcs;
+
+    // Added to the quantityOnHand of every beer with one of the upcs
+    @NotNull
+    @Min(1)
+    private Integer quantity;
+
+}
@@ -0,0 +1,22 @@
+package com.ossant.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/*
+    One page of a keyset (seek) listing. nextCursor is opaque to clients and is null
+    on the last page. No total count is computed for this kind of page.
+ */
+@Data
+@Builder
+public class CursorPage<T> {
+
+    private List<T> content;
+
+    private int size;
+
+    private String nextCursor;
+
+}
@@ -12,6 +12,7 @@ public class CustomerDTO {
 
     private UUID id;
     private String name;
+    private String email;
     private Integer version;
     private LocalDateTime createdDate;
     private LocalDateTime updateDate;
@@ -0,0 +1,14 @@
+package com.ossant.repositories;
+
+import java.util.UUID;
+
+/*
+    Closed projection used to (re)build the in-memory beer name index without loading whole entities.
+ */
+public interface BeerNameView {
+
+    UUID getId();
+
+    String getBeerName();
+
+}
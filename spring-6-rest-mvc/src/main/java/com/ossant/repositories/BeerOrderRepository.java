@@ -1,12 +1,38 @@
 package com.ossant.repositories;
 
 import com.ossant.entities.BeerOrder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface BeerOrderRepository extends JpaRepository<BeerOrder, UUID> {
 
+    // The whole aggregate of one order (customer, shipment, lines and their beers) in a single select
+    @EntityGraph(attributePaths = {"customer", "beerOrderShipment", "beerOrderLines", "beerOrderLines.beer"})
+    Optional<BeerOrder> findWithLinesById(UUID id);
+
+    /*
+        Order listings are read in two selects instead of one per order. A page of orders is fetched together with
+        its to-one associations, which keeps the limit in SQL; fetching the lines in the same select would make
+        Hibernate page in memory. fetchLines then initializes the lines (and their beers) of the whole page at once,
+        so it has to run in the persistence context that loaded the orders.
+     */
+    @EntityGraph(attributePaths = {"customer", "beerOrderShipment"})
+    @Query(value = "select o from BeerOrder o", countQuery = "select count(o) from BeerOrder o")
+    Page<BeerOrder> findAllWithCustomerAndShipment(Pageable pageable);
+
+    @Query("select distinct o from BeerOrder o left join fetch o.beerOrderLines l left join fetch l.beer "
+            + "where o in :beerOrders")
+    List<BeerOrder> fetchLines(@Param("beerOrders") Collection<BeerOrder> beerOrders);
+
 }
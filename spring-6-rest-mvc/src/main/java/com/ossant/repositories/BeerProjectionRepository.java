@@ -0,0 +1,21 @@
+package com.ossant.repositories;
+
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+
+/*
+    Listings whose filters and select list are only known at runtime. Each tuple element is aliased with its
+    attribute name.
+ */
+public interface BeerProjectionRepository {
+
+    Page<Tuple> findAllProjected(BeerSearch search, Collection<String> attributes, Pageable pageable);
+
+    // For keyset pages (see BeerSearch.after): reads one row more than the page instead of counting
+    Slice<Tuple> findSliceProjected(BeerSearch search, Collection<String> attributes, Pageable pageable);
+
+}
@@ -0,0 +1,71 @@
+package com.ossant.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
+/*
+    The query strings only depend on which filters, attributes and sort orders are used, see BeerSearch. The count
+    query is skipped when the first page isn't full, like the derived Page queries do; slices never count.
+ */
+class BeerProjectionRepositoryImpl implements BeerProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Tuple> findAllProjected(BeerSearch search, Collection<String> attributes, Pageable pageable) {
+        TypedQuery<Tuple> query = createQuery(search, attributes, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(search));
+    }
+
+    @Override
+    public Slice<Tuple> findSliceProjected(BeerSearch search, Collection<String> attributes, Pageable pageable) {
+        TypedQuery<Tuple> query = createQuery(search, attributes, pageable.getSort());
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+        List<Tuple> rows = query.getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    private TypedQuery<Tuple> createQuery(BeerSearch search, Collection<String> attributes, Sort sort) {
+        String selectList = attributes.stream()
+                .map(attribute -> "b." + attribute + " as " + attribute)
+                .collect(Collectors.joining(", "));
+        String jpql = QueryUtils.applySorting("select " + selectList + " from Beer b" + search.whereClause(), sort,
+                "b");
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class);
+        search.bind(query);
+        query.setHint(HINT_CACHEABLE, search.isCacheable());
+        return query;
+    }
+
+    private long count(BeerSearch search) {
+        TypedQuery<Long> query = entityManager.createQuery("select count(b) from Beer b" + search.whereClause(),
+                Long.class);
+        search.bind(query);
+        query.setHint(HINT_CACHEABLE, search.isCacheable());
+        return query.getSingleResult();
+    }
+
+}
@@ -2,20 +2,109 @@ package com.ossant.repositories;
 
 import com.ossant.entities.Beer;
 import com.ossant.model.BeerStyle;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface BeerRepository extends JpaRepository<Beer, UUID> {
+public interface BeerRepository extends JpaRepository<Beer, UUID>, BeerProjectionRepository {
+
+    String VERSION_MATCHES = "and (:version is null or b.version = :version)";
+
+    // Lets conditional GETs be answered without loading the entity
+    @Query("select b.version from Beer b where b.id = :id")
+    Optional<Integer> findVersionById(@Param("id") UUID id);
+
+    /*
+        Single-statement writes: one UPDATE/DELETE instead of a SELECT followed by save/delete. They bump the version
+        exactly like a managed update would, so writers holding an older copy of the entity still fail their
+        optimistic lock check, and a non-null :version only matches the row while it still has that version.
+        No affected row means the beer is gone or, with a version, that it changed since; findVersionById tells
+        which. Bulk statements skip @UpdateTimestamp, hence the explicit updateDate.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.beerName = :beerName, b.beerStyle = :beerStyle, b.upc = :upc, b.price = :price, "
+            + "b.updateDate = :updateDate, b.version = b.version + 1 where b.id = :id " + VERSION_MATCHES)
+    int updateBeer(@Param("id") UUID id,
+                   @Param("version") Integer version,
+                   @Param("beerName") String beerName,
+                   @Param("beerStyle") BeerStyle beerStyle,
+                   @Param("upc") String upc,
+                   @Param("price") BigDecimal price,
+                   @Param("updateDate") LocalDateTime updateDate);
+
+    // Null parameters keep the current column value
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.beerName = coalesce(:beerName, b.beerName), "
+            + "b.beerStyle = coalesce(:beerStyle, b.beerStyle), b.price = coalesce(:price, b.price), "
+            + "b.quantityOnHand = coalesce(:quantityOnHand, b.quantityOnHand), b.upc = coalesce(:upc, b.upc), "
+            + "b.updateDate = :updateDate, b.version = b.version + 1 where b.id = :id " + VERSION_MATCHES)
+    int patchBeer(@Param("id") UUID id,
+                  @Param("version") Integer version,
+                  @Param("beerName") String beerName,
+                  @Param("beerStyle") BeerStyle beerStyle,
+                  @Param("price") BigDecimal price,
+                  @Param("quantityOnHand") Integer quantityOnHand,
+                  @Param("upc") String upc,
+                  @Param("updateDate") LocalDateTime updateDate);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Beer b where b.id = :id")
+    int deleteBeerById(@Param("id") UUID id);
+
+    /*
+        Set-based bulk writes, one statement for every matching beer. Same version and updateDate handling as the
+        single-beer writes above. Prices are rounded to the cents the column keeps.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.price = round(b.price * :factor, 2), b.updateDate = :updateDate, "
+            + "b.version = b.version + 1 where b.beerStyle = :beerStyle")
+    int repriceBeers(@Param("beerStyle") BeerStyle beerStyle,
+                     @Param("factor") BigDecimal factor,
+                     @Param("updateDate") LocalDateTime updateDate);
 
-    Page<Beer> findAllByBeerNameIsLikeIgnoreCase(String beerName, Pageable pageable);
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Beer b set b.quantityOnHand = coalesce(b.quantityOnHand, 0) + :quantity, "
+            + "b.updateDate = :updateDate, b.version = b.version + 1 where b.upc in :upcs")
+    int restockBeers(@Param("upcs") Collection<String> upcs,
+                     @Param("quantity") int quantity,
+                     @Param("updateDate") LocalDateTime updateDate);
 
-    Page<Beer> findAllByBeerStyle(BeerStyle beerStyle, Pageable pageable);
+    /*
+        Whole catalog in listing order for the NDJSON export. Read-only entities skip the dirty-checking snapshot,
+        and the export neither reads nor fills the second-level cache, which it would flush otherwise.
+        Has to be consumed inside a transaction and closed afterwards; on MySQL the fetch size only streams with
+        useCursorFetch=true.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("select b from Beer b order by b.beerName, b.id")
+    Stream<Beer> streamAllOrderedByBeerName();
 
-    Page<Beer> findAllByBeerNameIsLikeIgnoreCaseAndBeerStyle(String beerName, BeerStyle beerStyle, Pageable pageable);
+    // Has to be consumed inside a transaction and closed afterwards
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select b.id as id, b.beerName as beerName from Beer b")
+    Stream<BeerNameView> streamAllBeerNames();
 
 }
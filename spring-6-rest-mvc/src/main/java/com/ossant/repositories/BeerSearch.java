@@ -0,0 +1,117 @@
+package com.ossant.repositories;
+
+import com.ossant.model.BeerStyle;
+import jakarta.persistence.Query;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/*
+    Listing filters composed into the where clause of a JPQL query on Beer b. Every filter has a fixed place in
+    the clause and binds its value as a parameter, so all searches combining the same filters share one query
+    string: Hibernate reuses its parsed and translated plan and the driver its prepared statement. A criteria
+    query wouldn't, Hibernate 6.1 never caches the plan of those.
+
+    The category filter is an EXISTS on the join table rather than a join, so a beer in the category is
+    listed once and pages stay the same size.
+ */
+public final class BeerSearch {
+
+    private enum Filter {
+
+        ID_IN("b.id in :ids", "ids"),
+        BEER_NAME_LIKE("upper(b.beerName) like upper(:beerName)", "beerName"),
+        BEER_STYLE("b.beerStyle = :beerStyle", "beerStyle"),
+        CATEGORY("exists (select 1 from b.categories c where c.id = :categoryId)", "categoryId"),
+        MIN_PRICE("b.price >= :minPrice", "minPrice"),
+        MAX_PRICE("b.price <= :maxPrice", "maxPrice"),
+        IN_STOCK("b.quantityOnHand > 0"),
+        AFTER("(b.beerName > :lastBeerName or (b.beerName = :lastBeerName and b.id > :lastId))",
+                "lastBeerName", "lastId");
+
+        private final String clause;
+
+        private final List<String> parameters;
+
+        Filter(String clause, String... parameters) {
+            this.clause = clause;
+            this.parameters = List.of(parameters);
+        }
+
+    }
+
+    // Iterates in declaration order, whatever order the filters were added in
+    private final Map<Filter, List<Object>> filters = new EnumMap<>(Filter.class);
+
+    public BeerSearch idIn(Collection<UUID> ids) {
+        return with(Filter.ID_IN, ids);
+    }
+
+    public BeerSearch beerNameLike(String pattern) {
+        return with(Filter.BEER_NAME_LIKE, pattern);
+    }
+
+    public BeerSearch beerStyle(BeerStyle beerStyle) {
+        return with(Filter.BEER_STYLE, beerStyle);
+    }
+
+    public BeerSearch category(UUID categoryId) {
+        return with(Filter.CATEGORY, categoryId);
+    }
+
+    public BeerSearch minPrice(BigDecimal minPrice) {
+        return with(Filter.MIN_PRICE, minPrice);
+    }
+
+    public BeerSearch maxPrice(BigDecimal maxPrice) {
+        return with(Filter.MAX_PRICE, maxPrice);
+    }
+
+    public BeerSearch inStock() {
+        return with(Filter.IN_STOCK);
+    }
+
+    // Keyset position: only rows sorting after (lastBeerName, lastId) in beerName, id order
+    public BeerSearch after(String lastBeerName, UUID lastId) {
+        return with(Filter.AFTER, lastBeerName, lastId);
+    }
+
+    /*
+        Searches without a name filter have few distinct parameter values (styles, categories, price steps), so
+        their rows and counts are worth keeping in the query cache. Name searches mostly aren't repeated. Any
+        write to the beer table, the bulk updates of BeerRepository included, invalidates the cached results.
+        Keyset pages each start from another row, so they aren't cached either.
+     */
+    boolean isCacheable() {
+        return !filters.containsKey(Filter.ID_IN) && !filters.containsKey(Filter.BEER_NAME_LIKE)
+                && !filters.containsKey(Filter.AFTER);
+    }
+
+    String whereClause() {
+        if (filters.isEmpty()) {
+            return "";
+        }
+        return filters.keySet().stream()
+                .map(filter -> filter.clause)
+                .collect(Collectors.joining(" and ", " where ", ""));
+    }
+
+    void bind(Query query) {
+        filters.forEach((filter, values) -> {
+            for (int i = 0; i < values.size(); i++) {
+                query.setParameter(filter.parameters.get(i), values.get(i));
+            }
+        });
+    }
+
+    private BeerSearch with(Filter filter, Object... values) {
+        filters.put(filter, List.of(values));
+        return this;
+    }
+
+}
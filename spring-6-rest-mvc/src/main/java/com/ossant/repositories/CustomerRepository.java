@@ -1,11 +1,98 @@
 package com.ossant.repositories;
 
 import com.ossant.entities.Customer;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, UUID> {
+
+    /*
+        Listings filtered by optional LIKE patterns on name and email; a null pattern doesn't filter.
+        Keyset pages order by the raw (name, id), so they can walk customer_name_idx. Names are optional and both
+        MySQL and H2 sort nulls first, which is also where the offset listing puts a nameless customer: after a
+        named customer only named ones follow, after a nameless one the remaining nameless ones and then everyone
+        with a name. A first page seeks after the nameless customer with the lowest possible id.
+     */
+    String FILTER = "(:name is null or upper(c.name) like upper(:name)) "
+            + "and (:email is null or upper(c.email) like upper(:email))";
+
+    String SEEK_AFTER = "(c.name > :lastName or (c.name = :lastName and c.id > :lastId))";
+
+    String SEEK_AFTER_NAMELESS = "(c.name is not null or c.id > :lastId)";
+
+    @Query(value = "select c from Customer c where " + FILTER,
+            countQuery = "select count(c) from Customer c where " + FILTER)
+    Page<Customer> findAllByFilter(@Param("name") String name, @Param("email") String email, Pageable pageable);
+
+    // The pageable only carries the page size, the order is fixed by the query
+    @Query("select c from Customer c where " + FILTER + " and " + SEEK_AFTER + " order by c.name, c.id")
+    Slice<Customer> findAllByFilterAfter(@Param("name") String name,
+                                         @Param("email") String email,
+                                         @Param("lastName") String lastName,
+                                         @Param("lastId") UUID lastId,
+                                         Pageable pageable);
+
+    @Query("select c from Customer c where " + FILTER + " and " + SEEK_AFTER_NAMELESS + " order by c.name, c.id")
+    Slice<Customer> findAllByFilterAfterNameless(@Param("name") String name,
+                                                 @Param("email") String email,
+                                                 @Param("lastId") UUID lastId,
+                                                 Pageable pageable);
+
+    // Every customer in listing order for the NDJSON export, see BeerRepository.streamAllOrderedByBeerName
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("select c from Customer c order by c.name, c.id")
+    Stream<Customer> streamAllOrderedByName();
+
+    // Lets conditional GETs be answered without loading the entity
+    @Query("select c.version from Customer c where c.id = :id")
+    Optional<Integer> findVersionById(@Param("id") UUID id);
+
+    /*
+        Single-statement writes, see BeerRepository. The version is bumped like a managed update would, a non-null
+        :version has to match the current one and no affected row means the customer is gone or changed since.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Customer c set c.name = :name, c.updateDate = :updateDate, c.version = c.version + 1 "
+            + "where c.id = :id and (:version is null or c.version = :version)")
+    int updateCustomer(@Param("id") UUID id,
+                       @Param("version") Integer version,
+                       @Param("name") String name,
+                       @Param("updateDate") LocalDateTime updateDate);
+
+    // A null name keeps the current one
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Customer c set c.name = coalesce(:name, c.name), c.updateDate = :updateDate, "
+            + "c.version = c.version + 1 where c.id = :id and (:version is null or c.version = :version)")
+    int patchCustomer(@Param("id") UUID id,
+                      @Param("version") Integer version,
+                      @Param("name") String name,
+                      @Param("updateDate") LocalDateTime updateDate);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Customer c where c.id = :id")
+    int deleteCustomerById(@Param("id") UUID id);
+
 }
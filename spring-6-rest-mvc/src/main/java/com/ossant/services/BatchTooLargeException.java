@@ -0,0 +1,13 @@
+package com.ossant.services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.PAYLOAD_TOO_LARGE, reason = "Batch Too Large")
+public class BatchTooLargeException extends RuntimeException {
+
+    public BatchTooLargeException(String message) {
+        super(message);
+    }
+
+}
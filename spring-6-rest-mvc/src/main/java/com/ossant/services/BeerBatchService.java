@@ -0,0 +1,22 @@
+package com.ossant.services;
+
+import com.ossant.model.BeerBatchResult;
+import com.ossant.model.BeerDTO;
+import com.ossant.model.BeerStyle;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface BeerBatchService {
+
+    BeerBatchResult createBeers(List<BeerDTO> beerDTOs);
+
+    BeerBatchResult patchBeers(List<BeerDTO> beerDTOs);
+
+    // Set-based updates, they return the number of beers changed
+    int repriceBeers(BeerStyle beerStyle, BigDecimal percent);
+
+    int restockBeers(Collection<String> upcs, int quantity);
+
+}
@@ -0,0 +1,205 @@
+package com.ossant.services;
+
+import com.ossant.entities.Beer;
+import com.ossant.mappers.BeerMapper;
+import com.ossant.model.BeerBatchItemResult;
+import com.ossant.model.BeerBatchItemStatus;
+import com.ossant.model.BeerBatchResult;
+import com.ossant.model.BeerDTO;
+import com.ossant.model.BeerStyle;
+import com.ossant.repositories.BeerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+    Creates or patches a whole list of beers in one transaction. Items are validated one by one against the Beer
+    constraints, so an invalid item is reported back instead of failing the batch. The valid ones are written in
+    chunks through Hibernate's JDBC batching, flushing and clearing between chunks like the csv import does.
+ */
+@Service
+@Profile("!in-memory")
+@RequiredArgsConstructor
+public class BeerBatchServiceImpl implements BeerBatchService {
+
+    private final BeerRepository beerRepository;
+
+    private final BeerMapper beerMapper;
+
+    private final BeerNameIndex beerNameIndex;
+
+    private final EntityManager entityManager;
+
+    private final Validator validator;
+
+    @Value("${beer.batch.max-items:1000}")
+    private int maxItems = 1000;
+
+    // Keep it a multiple of spring.jpa.properties.hibernate.jdbc.batch_size
+    @Value("${beer.batch.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Override
+    @Transactional
+    public BeerBatchResult createBeers(List<BeerDTO> beerDTOs) {
+        checkSize(beerDTOs);
+        List<BeerBatchItemResult> items = new ArrayList<>(beerDTOs.size());
+        int pending = 0;
+
+        for (int index = 0; index < beerDTOs.size(); index++) {
+            Beer beer = beerMapper.beerDtoToBeer(beerDTOs.get(index));
+            beer.setId(null);
+            beer.setVersion(null);
+
+            List<Map<String, String>> errors = toErrors(validator.validate(beer));
+            if (!errors.isEmpty()) {
+                items.add(invalid(index, null, errors));
+                continue;
+            }
+
+            entityManager.persist(beer);
+            beerNameIndex.indexAfterCommit(beer.getId(), beer.getBeerName());
+            items.add(BeerBatchItemResult.builder()
+                    .index(index)
+                    .id(beer.getId())
+                    .status(BeerBatchItemStatus.CREATED)
+                    .build());
+
+            if (++pending == chunkSize) {
+                flushChunk();
+                pending = 0;
+            }
+        }
+        flushChunk();
+
+        return BeerBatchResult.builder().items(items).build();
+    }
+
+    @Override
+    @Transactional
+    public BeerBatchResult patchBeers(List<BeerDTO> beerDTOs) {
+        checkSize(beerDTOs);
+        List<BeerBatchItemResult> items = new ArrayList<>(beerDTOs.size());
+
+        for (int chunkStart = 0; chunkStart < beerDTOs.size(); chunkStart += chunkSize) {
+            List<BeerDTO> chunk = beerDTOs.subList(chunkStart, Math.min(chunkStart + chunkSize, beerDTOs.size()));
+
+            // One select for the whole chunk, the dirty checked updates are then flushed as a JDBC batch
+            Set<UUID> ids = chunk.stream().map(BeerDTO::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+            Map<UUID, Beer> beers = beerRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Beer::getId, Function.identity()));
+
+            for (int offset = 0; offset < chunk.size(); offset++) {
+                items.add(patchBeer(chunkStart + offset, chunk.get(offset), beers));
+            }
+            flushChunk();
+        }
+
+        return BeerBatchResult.builder().items(items).build();
+    }
+
+    /*
+        One UPDATE for all beers of the style instead of loading and saving each of them. Hibernate only drops the
+        Beer cache region when the transaction completes, so it is evicted right away like the single-beer writes
+        of BeerServiceJPAImpl do. The name index is left alone, names don't change.
+     */
+    @Override
+    @Transactional
+    public int repriceBeers(BeerStyle beerStyle, BigDecimal percent) {
+        BigDecimal factor = BigDecimal.ONE.add(percent.movePointLeft(2));
+        int updated = beerRepository.repriceBeers(beerStyle, factor, LocalDateTime.now());
+        evictCachedBeers();
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int restockBeers(Collection<String> upcs, int quantity) {
+        checkSize(upcs);
+        int updated = beerRepository.restockBeers(Set.copyOf(upcs), quantity, LocalDateTime.now());
+        evictCachedBeers();
+        return updated;
+    }
+
+    private BeerBatchItemResult patchBeer(int index, BeerDTO beerDTO, Map<UUID, Beer> beers) {
+        if (beerDTO.getId() == null) {
+            return invalid(index, null, List.of(Map.of("id", "must not be null")));
+        }
+        Beer beer = beers.get(beerDTO.getId());
+        if (beer == null) {
+            return BeerBatchItemResult.builder()
+                    .index(index)
+                    .id(beerDTO.getId())
+                    .status(BeerBatchItemStatus.NOT_FOUND)
+                    .build();
+        }
+
+        // Validated before touching the managed entity, otherwise the flush would write the invalid values
+        Set<ConstraintViolation<Beer>> violations = new HashSet<>();
+        if (StringUtils.hasText(beerDTO.getBeerName())) {
+            violations.addAll(validator.validateValue(Beer.class, "beerName", beerDTO.getBeerName()));
+        }
+        if (StringUtils.hasText(beerDTO.getUpc())) {
+            violations.addAll(validator.validateValue(Beer.class, "upc", beerDTO.getUpc()));
+        }
+        if (!violations.isEmpty()) {
+            return invalid(index, beer.getId(), toErrors(violations));
+        }
+
+        if (StringUtils.hasText(beerDTO.getBeerName())) beer.setBeerName(beerDTO.getBeerName());
+        if (beerDTO.getBeerStyle() != null) beer.setBeerStyle(beerDTO.getBeerStyle());
+        if (beerDTO.getPrice() != null) beer.setPrice(beerDTO.getPrice());
+        if (beerDTO.getQuantityOnHand() != null) beer.setQuantityOnHand(beerDTO.getQuantityOnHand());
+        if (StringUtils.hasText(beerDTO.getUpc())) beer.setUpc(beerDTO.getUpc());
+        beerNameIndex.indexAfterCommit(beer.getId(), beer.getBeerName());
+
+        return BeerBatchItemResult.builder()
+                .index(index)
+                .id(beer.getId())
+                .status(BeerBatchItemStatus.UPDATED)
+                .build();
+    }
+
+    private void checkSize(Collection<?> items) {
+        if (items.size() > maxItems) {
+            throw new BatchTooLargeException(items.size() + " beers sent, at most " + maxItems + " are accepted");
+        }
+    }
+
+    private void evictCachedBeers() {
+        entityManager.getEntityManagerFactory().getCache().evict(Beer.class);
+    }
+
+    private void flushChunk() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static BeerBatchItemResult invalid(int index, UUID id, List<Map<String, String>> errors) {
+        return BeerBatchItemResult.builder()
+                .index(index)
+                .id(id)
+                .status(BeerBatchItemStatus.INVALID)
+                .errors(errors)
+                .build();
+    }
+
+    private static List<Map<String, String>> toErrors(Set<ConstraintViolation<Beer>> violations) {
+        return violations.stream()
+                .map(violation -> Map.of(violation.getPropertyPath().toString(), violation.getMessage()))
+                .toList();
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.ossant.services;
+
+import com.ossant.model.BeerCsvImportJobDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BeerCsvImportJobService {
+
+    // Spools the file to disk and queues its import, throws ImportQueueFullException when no slot is left
+    BeerCsvImportJobDTO submitImport(MultipartFile csvFile);
+
+    Optional<BeerCsvImportJobDTO> getImportJob(UUID jobId);
+
+    /*
+        A queued job is cancelled right away, a running one stops at the next row and reports CANCELLED once it
+        did. Finished jobs are returned as they are.
+     */
+    Optional<BeerCsvImportJobDTO> cancelImportJob(UUID jobId);
+
+}
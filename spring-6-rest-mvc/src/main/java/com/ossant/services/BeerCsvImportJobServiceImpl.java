@@ -0,0 +1,228 @@
+package com.ossant.services;
+
+import com.ossant.model.BeerCsvImportJobDTO;
+import com.ossant.model.BeerCsvImportJobStatus;
+import com.ossant.model.BeerCsvImportResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+    Runs uploaded csv files through BeerCsvImportService in the background. The upload is spooled to
+    beer.csv.upload.spool-dir and the request returns as soon as the job is queued; beer.csv.upload.threads
+    imports run at a time, each committing chunk by chunk, and at most beer.csv.upload.queue-capacity more wait.
+
+    The executor is private on purpose: exposed as a bean it would replace the application task executor that
+    serves the async requests. Jobs live in memory and are forgotten beer.csv.upload.job-retention after they end.
+ */
+@Slf4j
+@Service
+@Profile("!in-memory")
+@RequiredArgsConstructor
+public class BeerCsvImportJobServiceImpl implements BeerCsvImportJobService {
+
+    private final BeerCsvImportService beerCsvImportService;
+
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolTaskExecutor executor;
+
+    @Value("${beer.csv.upload.threads:2}")
+    private int threads = 2;
+
+    @Value("${beer.csv.upload.queue-capacity:10}")
+    private int queueCapacity = 10;
+
+    @Value("${beer.csv.upload.spool-dir:${java.io.tmpdir}}")
+    private String spoolDir = System.getProperty("java.io.tmpdir");
+
+    @Value("${beer.csv.upload.job-retention:1h}")
+    private Duration jobRetention = Duration.ofHours(1);
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("beer-csv-import-");
+        // Lets a cancelled import commit the chunk it is writing before the connection pool closes
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+    }
+
+    // Queued imports are dropped and running ones asked to stop, their committed chunks stay
+    @PreDestroy
+    public void stop() {
+        jobs.keySet().forEach(this::cancelImportJob);
+        executor.shutdown();
+    }
+
+    @Override
+    public BeerCsvImportJobDTO submitImport(MultipartFile csvFile) {
+        removeExpiredJobs();
+
+        Path spoolFile;
+        try {
+            Files.createDirectories(Path.of(spoolDir));
+            spoolFile = Files.createTempFile(Path.of(spoolDir), "beer-import-", ".csv");
+            csvFile.transferTo(spoolFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID(), csvFile.getOriginalFilename(), spoolFile);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            deleteSpoolFile(job);
+            throw new ImportQueueFullException(threads + " imports running and " + queueCapacity + " queued");
+        }
+        log.info("Queued import {} of {}", job.id, job.fileName);
+        return job.toDto();
+    }
+
+    @Override
+    public Optional<BeerCsvImportJobDTO> getImportJob(UUID jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(ImportJob::toDto);
+    }
+
+    @Override
+    public Optional<BeerCsvImportJobDTO> cancelImportJob(UUID jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.progress.cancel();
+        // Never started, so nobody else finishes it
+        if (job.status.compareAndSet(BeerCsvImportJobStatus.QUEUED, BeerCsvImportJobStatus.CANCELLED)) {
+            job.finishedDate = LocalDateTime.now();
+            deleteSpoolFile(job);
+            log.info("Cancelled queued import {}", job.id);
+        }
+        return Optional.of(job.toDto());
+    }
+
+    private void run(ImportJob job) {
+        if (!job.status.compareAndSet(BeerCsvImportJobStatus.QUEUED, BeerCsvImportJobStatus.RUNNING)) {
+            return;
+        }
+        job.startNanos = System.nanoTime();
+        job.startedDate = LocalDateTime.now();
+        try {
+            BeerCsvImportResult result = beerCsvImportService.importCsv(job.spoolFile.toFile(), job.progress);
+            job.finish(result.isCancelled() ? BeerCsvImportJobStatus.CANCELLED : BeerCsvImportJobStatus.COMPLETED);
+        } catch (RuntimeException e) {
+            log.warn("Import {} of {} failed", job.id, job.fileName, e);
+            job.error = e.getMessage();
+            job.finish(BeerCsvImportJobStatus.FAILED);
+        } finally {
+            deleteSpoolFile(job);
+        }
+    }
+
+    private void removeExpiredJobs() {
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(jobRetention);
+        jobs.values().removeIf(job -> job.finishedDate != null && job.finishedDate.isBefore(expiredBefore));
+    }
+
+    private static void deleteSpoolFile(ImportJob job) {
+        try {
+            Files.deleteIfExists(job.spoolFile);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled upload {}", job.spoolFile, e);
+        }
+    }
+
+    private static class ImportJob {
+
+        private final UUID id;
+
+        private final String fileName;
+
+        private final Path spoolFile;
+
+        private final BeerCsvImportProgress progress = new BeerCsvImportProgress();
+
+        private final AtomicReference<BeerCsvImportJobStatus> status =
+                new AtomicReference<>(BeerCsvImportJobStatus.QUEUED);
+
+        private final LocalDateTime submittedDate = LocalDateTime.now();
+
+        private volatile LocalDateTime startedDate;
+
+        private volatile LocalDateTime finishedDate;
+
+        private volatile long startNanos;
+
+        private volatile long finishNanos;
+
+        private volatile String error;
+
+        private ImportJob(UUID id, String fileName, Path spoolFile) {
+            this.id = id;
+            this.fileName = fileName;
+            this.spoolFile = spoolFile;
+        }
+
+        // The end time is taken first, so a reader that sees the final status also sees the final throughput
+        private void finish(BeerCsvImportJobStatus finalStatus) {
+            finishNanos = System.nanoTime();
+            finishedDate = LocalDateTime.now();
+            status.set(finalStatus);
+        }
+
+        // finishedDate is written before the final status, so it is only shown once the status is final too
+        private BeerCsvImportJobDTO toDto() {
+            BeerCsvImportJobStatus currentStatus = status.get();
+            boolean ended = currentStatus != BeerCsvImportJobStatus.QUEUED
+                    && currentStatus != BeerCsvImportJobStatus.RUNNING;
+            double rowsPerSecond = 0;
+            if (startedDate != null) {
+                long endNanos = currentStatus == BeerCsvImportJobStatus.RUNNING ? System.nanoTime() : finishNanos;
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos);
+                rowsPerSecond = elapsedMillis == 0
+                        ? progress.getRowsInserted()
+                        : progress.getRowsInserted() * 1000d / elapsedMillis;
+            }
+            return BeerCsvImportJobDTO.builder()
+                    .id(id)
+                    .fileName(fileName)
+                    .status(currentStatus)
+                    .rowsParsed(progress.getRowsRead())
+                    .rowsInserted(progress.getRowsInserted())
+                    .rowsRejected(progress.getRowsSkipped())
+                    .rowsPerSecond(rowsPerSecond)
+                    .submittedDate(submittedDate)
+                    .startedDate(startedDate)
+                    .finishedDate(ended ? finishedDate : null)
+                    .error(error)
+                    .build();
+        }
+
+    }
+
+}
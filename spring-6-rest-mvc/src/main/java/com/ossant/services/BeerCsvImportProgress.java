@@ -0,0 +1,30 @@
+package com.ossant.services;
+
+import lombok.Getter;
+
+/*
+    Live counters of a running csv import, written by the importing thread at every chunk and read by whoever
+    polls it. cancel() asks the import to stop at the next row; chunks committed before that stay in the table.
+ */
+@Getter
+public class BeerCsvImportProgress {
+
+    private volatile long rowsRead;
+
+    private volatile long rowsInserted;
+
+    private volatile long rowsSkipped;
+
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    void update(long rowsRead, long rowsInserted, long rowsSkipped) {
+        this.rowsRead = rowsRead;
+        this.rowsInserted = rowsInserted;
+        this.rowsSkipped = rowsSkipped;
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.ossant.services;
+
+import com.ossant.model.BeerCsvImportResult;
+
+import java.io.File;
+
+public interface BeerCsvImportService {
+
+    BeerCsvImportResult importCsv(File csvFile);
+
+    // Reports the counters to progress as the import goes and stops early once progress is cancelled
+    BeerCsvImportResult importCsv(File csvFile, BeerCsvImportProgress progress);
+
+}
@@ -0,0 +1,157 @@
+package com.ossant.services;
+
+import com.ossant.entities.Beer;
+import com.ossant.model.BeerCSVRecord;
+import com.ossant.model.BeerCsvImportResult;
+import com.ossant.model.BeerStyle;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@Profile("!in-memory")
+@RequiredArgsConstructor
+public class BeerCsvImportServiceImpl implements BeerCsvImportService {
+
+    /*
+        Resolved once instead of running the string switch for every row.
+        Anything not listed here falls back to PILSNER.
+     */
+    private static final Map<String, BeerStyle> CSV_STYLES = Map.ofEntries(
+            Map.entry("American Pale Lager", BeerStyle.LAGER),
+            Map.entry("American Pale Ale (APA)", BeerStyle.ALE),
+            Map.entry("American Black Ale", BeerStyle.ALE),
+            Map.entry("Belgian Dark Ale", BeerStyle.ALE),
+            Map.entry("American Blonde Ale", BeerStyle.ALE),
+            Map.entry("American IPA", BeerStyle.IPA),
+            Map.entry("American Double / Imperial IPA", BeerStyle.IPA),
+            Map.entry("Belgian IPA", BeerStyle.IPA),
+            Map.entry("American Porter", BeerStyle.PORTER),
+            Map.entry("Oatmeal Stout", BeerStyle.STOUT),
+            Map.entry("American Stout", BeerStyle.STOUT),
+            Map.entry("Saison / Farmhouse Ale", BeerStyle.SAISON),
+            Map.entry("Fruit / Vegetable Beer", BeerStyle.WHEAT),
+            Map.entry("Winter Warmer", BeerStyle.WHEAT),
+            Map.entry("Berliner Weissbier", BeerStyle.WHEAT),
+            Map.entry("English Pale Ale", BeerStyle.PALE_ALE));
+
+    private final BeerCsvService beerCsvService;
+
+    private final BeerNameIndex beerNameIndex;
+
+    private final EntityManager entityManager;
+
+    private final PlatformTransactionManager transactionManager;
+
+    // Keep it a multiple of spring.jpa.properties.hibernate.jdbc.batch_size
+    @Value("${beer.csv.import.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Override
+    public BeerCsvImportResult importCsv(File csvFile) {
+        return importCsv(csvFile, new BeerCsvImportProgress());
+    }
+
+    @Override
+    public BeerCsvImportResult importCsv(File csvFile, BeerCsvImportProgress progress) {
+        long start = System.nanoTime();
+        long rowsRead = 0;
+        long rowsInserted = 0;
+        long rowsInvalid = 0;
+        AtomicLong linesMalformed = new AtomicLong();
+
+        // Joins the caller's transaction if there is one, otherwise every chunk commits on its own
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Beer> chunk = new ArrayList<>(chunkSize);
+
+        try (Stream<BeerCSVRecord> records = beerCsvService.streamCSV(csvFile, csvException -> {
+            log.debug("Skipping malformed csv line {}: {}", csvException.getLineNumber(), csvException.getMessage());
+            linesMalformed.incrementAndGet();
+        })) {
+            Iterator<BeerCSVRecord> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                // A cancelled import drops the pending chunk, everything written so far stays
+                if (progress.isCancelled()) {
+                    chunk.clear();
+                    break;
+                }
+                BeerCSVRecord beerCSVRecord = iterator.next();
+                rowsRead++;
+                if (StringUtils.isBlank(beerCSVRecord.getBeer()) || beerCSVRecord.getRow() == null) {
+                    rowsInvalid++;
+                    continue;
+                }
+                chunk.add(toBeer(beerCSVRecord));
+                if (chunk.size() == chunkSize) {
+                    rowsInserted += writeChunk(transactionTemplate, chunk);
+                    progress.update(rowsRead + linesMalformed.get(), rowsInserted, rowsInvalid + linesMalformed.get());
+                }
+            }
+            if (!chunk.isEmpty()) {
+                rowsInserted += writeChunk(transactionTemplate, chunk);
+            }
+        }
+        progress.update(rowsRead + linesMalformed.get(), rowsInserted, rowsInvalid + linesMalformed.get());
+
+        BeerCsvImportResult result = BeerCsvImportResult.builder()
+                .rowsRead(rowsRead + linesMalformed.get())
+                .rowsInserted(rowsInserted)
+                .rowsSkipped(rowsInvalid + linesMalformed.get())
+                .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .cancelled(progress.isCancelled())
+                .build();
+        log.info("Imported {}{}: {} rows inserted, {} skipped, {} rows/sec", csvFile.getName(),
+                result.isCancelled() ? " (cancelled)" : "", result.getRowsInserted(), result.getRowsSkipped(),
+                String.format("%.1f", result.getRowsPerSecond()));
+        return result;
+    }
+
+    /*
+        Persists the chunk through Hibernate's JDBC batching, then flushes and clears
+        so the persistence context never holds more than one chunk of beers.
+        The imported beers stay out of the second-level cache instead of evicting the ones being read.
+        The name index only takes the beers once it is built, so the startup import leaves it to the rebuild.
+     */
+    private int writeChunk(TransactionTemplate transactionTemplate, List<Beer> chunk) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+            chunk.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+        });
+        chunk.forEach(beer -> beerNameIndex.index(beer.getId(), beer.getBeerName()));
+        int written = chunk.size();
+        chunk.clear();
+        return written;
+    }
+
+    private Beer toBeer(BeerCSVRecord beerCSVRecord) {
+        return Beer.builder()
+                .beerName(StringUtils.abbreviate(beerCSVRecord.getBeer(), 50))
+                .beerStyle(CSV_STYLES.getOrDefault(beerCSVRecord.getStyle(), BeerStyle.PILSNER))
+                .price(BigDecimal.TEN)
+                .upc(beerCSVRecord.getRow().toString())
+                .quantityOnHand(beerCSVRecord.getCount())
+                .build();
+    }
+
+}
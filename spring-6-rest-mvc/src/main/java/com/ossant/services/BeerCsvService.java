@@ -1,12 +1,22 @@
 package com.ossant.services;
 
+import com.opencsv.exceptions.CsvException;
 import com.ossant.model.BeerCSVRecord;
 
 import java.io.File;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface BeerCsvService {
 
     List<BeerCSVRecord> convertCSV(File csvFile);
 
+    /*
+        Lazily parses the file one line at a time. Lines that can't be bound to a BeerCSVRecord are
+        handed to rejectedLineHandler and dropped instead of aborting the whole stream.
+        The returned stream holds the file open, so it has to be closed by the caller.
+     */
+    Stream<BeerCSVRecord> streamCSV(File csvFile, Consumer<CsvException> rejectedLineHandler);
+
 }
@@ -1,13 +1,18 @@
 package com.ossant.services;
 
+import com.opencsv.bean.CsvToBean;
 import com.opencsv.bean.CsvToBeanBuilder;
+import com.opencsv.exceptions.CsvException;
 import com.ossant.model.BeerCSVRecord;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.*;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 public class BeerCsvServiceImpl implements BeerCsvService {
@@ -23,4 +28,31 @@ public class BeerCsvServiceImpl implements BeerCsvService {
         }
     }
 
+    @Override
+    public Stream<BeerCSVRecord> streamCSV(File csvFile, Consumer<CsvException> rejectedLineHandler) {
+        try {
+            Reader reader = new BufferedReader(new FileReader(csvFile));
+            CsvToBean<BeerCSVRecord> csvToBean = new CsvToBeanBuilder<BeerCSVRecord>(reader)
+                    .withType(BeerCSVRecord.class)
+                    // Returning null tells opencsv to drop the line and keep iterating
+                    .withExceptionHandler(csvException -> {
+                        rejectedLineHandler.accept(csvException);
+                        return null;
+                    })
+                    .build();
+            return StreamSupport.stream(
+                            Spliterators.spliteratorUnknownSize(csvToBean.iterator(), Spliterator.ORDERED | Spliterator.NONNULL),
+                            false)
+                    .onClose(() -> {
+                        try {
+                            reader.close();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
 }
@@ -0,0 +1,10 @@
+package com.ossant.services;
+
+import java.io.OutputStream;
+
+public interface BeerExportService {
+
+    // Writes every beer as one JSON line and returns how many were written
+    long exportBeers(OutputStream outputStream);
+
+}
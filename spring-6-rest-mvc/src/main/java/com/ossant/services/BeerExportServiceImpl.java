@@ -0,0 +1,82 @@
+package com.ossant.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ossant.entities.Beer;
+import com.ossant.mappers.BeerMapper;
+import com.ossant.model.BeerDTO;
+import com.ossant.repositories.BeerRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/*
+    Streams the catalog row by row: each beer is mapped, written and detached before the next one is fetched,
+    so memory stays flat whatever the size of the table.
+ */
+@Slf4j
+@Service
+@Profile("!in-memory")
+@RequiredArgsConstructor
+public class BeerExportServiceImpl implements BeerExportService {
+
+    // Rows written between two flushes of the response
+    private static final int FLUSH_EVERY = 500;
+
+    private final BeerRepository beerRepository;
+
+    private final BeerMapper beerMapper;
+
+    private final EntityManager entityManager;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public long exportBeers(OutputStream outputStream) {
+        long start = System.currentTimeMillis();
+        ObjectWriter writer = objectMapper.writerFor(BeerDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        Long rows = transactionTemplate.execute(status -> {
+            long written = 0;
+            try (Stream<Beer> beers = beerRepository.streamAllOrderedByBeerName();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                // The servlet container owns the response stream
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                Iterator<Beer> iterator = beers.iterator();
+                while (iterator.hasNext()) {
+                    Beer beer = iterator.next();
+                    writer.writeValue(generator, beerMapper.beerToBeerDto(beer));
+                    generator.writeRaw('\n');
+                    entityManager.detach(beer);
+                    if (++written % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return written;
+        });
+
+        log.debug("Exported {} beers in {} ms", rows, System.currentTimeMillis() - start);
+        return rows == null ? 0 : rows;
+    }
+
+}
@@ -0,0 +1,274 @@
+package com.ossant.services;
+
+import com.ossant.repositories.BeerNameView;
+import com.ossant.repositories.BeerRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/*
+    Trigram index over beer names, so substring searches resolve to ids without a leading-wildcard LIKE scan.
+
+    search() answers Optional.empty() whenever the index can't help (not built yet, over its memory cap,
+    fragment shorter than a trigram or containing LIKE wildcards, or too many matches to be worth an IN list)
+    and callers fall back to the regular LIKE query.
+
+    The index lives in this JVM. It follows the writes of this instance but not those of other instances or of
+    SQL run outside the application, so it is rebuilt every rebuild-interval and a beer written elsewhere can be
+    missing from name searches until then. Names are folded to lower case without accents, close to MySQL's
+    default _ai_ci collation; callers keep the LIKE on the matched ids so the database decides the final match.
+ */
+@Slf4j
+@Component
+@Profile("!in-memory")
+@RequiredArgsConstructor
+public class BeerNameIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    // Rough heap cost of the structures, only used to enforce max-memory-mb
+    private static final long NAME_ENTRY_BYTES = 128;
+    private static final long GRAM_ENTRY_BYTES = 160;
+    private static final long POSTING_BYTES = 48;
+
+    private final BeerRepository beerRepository;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<String, Set<UUID>> postings = new ConcurrentHashMap<>();
+
+    private final Map<UUID, String> names = new ConcurrentHashMap<>();
+
+    private final AtomicLong estimatedBytes = new AtomicLong();
+
+    private volatile boolean ready;
+
+    @Value("${beer.name-index.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${beer.name-index.max-memory-mb:64}")
+    private long maxMemoryMb = 64;
+
+    @Value("${beer.name-index.max-candidates:1000}")
+    private int maxCandidates = 1000;
+
+    // Zero turns the periodic rebuild off
+    @Value("${beer.name-index.rebuild-interval:10m}")
+    private Duration rebuildInterval = Duration.ofMinutes(10);
+
+    private ScheduledExecutorService scheduler;
+
+    // Runs after the CommandLineRunners, so the bootstrap data is already in the table
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        rebuild();
+        if (!rebuildInterval.isZero()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "beer-name-index");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::scheduledRebuild, rebuildInterval.toMillis(),
+                    rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Beer name index rebuild failed, keeping the current index", e);
+        }
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try (Stream<BeerNameView> beerNames = beerRepository.streamAllBeerNames()) {
+                load(beerNames);
+            }
+        });
+        log.info("Beer name index rebuilt: {} names, ~{} KB, ready={}, {} ms",
+                names.size(), estimatedBytes.get() / 1024, ready, System.currentTimeMillis() - start);
+    }
+
+    synchronized void load(Stream<BeerNameView> beerNames) {
+        ready = false;
+        clear();
+        Iterator<BeerNameView> iterator = beerNames.iterator();
+        while (iterator.hasNext()) {
+            BeerNameView beerName = iterator.next();
+            if (!add(beerName.getId(), beerName.getBeerName())) {
+                return;
+            }
+        }
+        ready = true;
+    }
+
+    public synchronized void index(UUID id, String beerName) {
+        if (ready) {
+            remove(id);
+            ready = add(id, beerName);
+        }
+    }
+
+    /*
+        Inside a transaction the change is only applied once it commits, so name searches never see a write
+        that is rolled back or that other transactions can't read yet. Outside of one it's applied right away.
+     */
+    public void indexAfterCommit(UUID id, String beerName) {
+        afterCommit(() -> index(id, beerName));
+    }
+
+    public void removeAfterCommit(UUID id) {
+        afterCommit(() -> remove(id));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    public synchronized void remove(UUID id) {
+        if (!ready) {
+            return;
+        }
+        String previous = names.remove(id);
+        if (previous != null) {
+            estimatedBytes.addAndGet(-(NAME_ENTRY_BYTES + 2L * previous.length()));
+            for (String gram : grams(normalize(previous))) {
+                Set<UUID> ids = postings.get(gram);
+                if (ids != null && ids.remove(id)) {
+                    estimatedBytes.addAndGet(-POSTING_BYTES);
+                    if (ids.isEmpty()) {
+                        postings.remove(gram);
+                        estimatedBytes.addAndGet(-GRAM_ENTRY_BYTES);
+                    }
+                }
+            }
+        }
+    }
+
+    public Optional<Set<UUID>> search(String fragment) {
+        if (!ready || fragment == null || fragment.length() < GRAM_LENGTH
+                || fragment.indexOf('%') >= 0 || fragment.indexOf('_') >= 0) {
+            return Optional.empty();
+        }
+        String needle = normalize(fragment);
+
+        // Intersect starting from the rarest trigram to keep the candidate set small
+        List<Set<UUID>> candidateSets = new ArrayList<>();
+        for (String gram : grams(needle)) {
+            Set<UUID> ids = postings.get(gram);
+            if (ids == null) {
+                return Optional.of(Set.of());
+            }
+            candidateSets.add(ids);
+        }
+        candidateSets.sort(Comparator.comparingInt(Set::size));
+
+        Set<UUID> matches = new HashSet<>();
+        for (UUID id : candidateSets.get(0)) {
+            String name = names.get(id);
+            // Sharing every trigram doesn't guarantee a substring match, so confirm against the name
+            if (name != null && normalize(name).contains(needle)) {
+                matches.add(id);
+                if (matches.size() > maxCandidates) {
+                    return Optional.empty();
+                }
+            }
+        }
+        return Optional.of(matches);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes.get();
+    }
+
+    private boolean add(UUID id, String beerName) {
+        if (beerName == null) {
+            return true;
+        }
+        names.put(id, beerName);
+        estimatedBytes.addAndGet(NAME_ENTRY_BYTES + 2L * beerName.length());
+        for (String gram : grams(normalize(beerName))) {
+            Set<UUID> ids = postings.computeIfAbsent(gram, key -> {
+                estimatedBytes.addAndGet(GRAM_ENTRY_BYTES);
+                return ConcurrentHashMap.newKeySet();
+            });
+            if (ids.add(id)) {
+                estimatedBytes.addAndGet(POSTING_BYTES);
+            }
+        }
+        if (estimatedBytes.get() > maxMemoryMb * 1024 * 1024) {
+            log.warn("Beer name index exceeded {} MB, disabling it until the next rebuild", maxMemoryMb);
+            clear();
+            return false;
+        }
+        return true;
+    }
+
+    private void clear() {
+        postings.clear();
+        names.clear();
+        estimatedBytes.set(0);
+    }
+
+    private static String normalize(String value) {
+        return DIACRITICS.matcher(Normalizer.normalize(value.toLowerCase(Locale.ROOT), Normalizer.Form.NFD))
+                .replaceAll("");
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+}
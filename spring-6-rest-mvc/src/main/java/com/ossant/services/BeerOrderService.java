@@ -0,0 +1,18 @@
+package com.ossant.services;
+
+import com.ossant.model.BeerOrderCreateDTO;
+import com.ossant.model.BeerOrderDTO;
+import org.springframework.data.domain.Page;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BeerOrderService {
+
+    Page<BeerOrderDTO> listBeerOrders(Integer pageNumber, Integer pageSize);
+
+    Optional<BeerOrderDTO> getBeerOrderById(UUID beerOrderId);
+
+    BeerOrderDTO createBeerOrder(BeerOrderCreateDTO beerOrderCreateDTO);
+
+}
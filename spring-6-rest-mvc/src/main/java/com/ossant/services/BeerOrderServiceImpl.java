@@ -0,0 +1,121 @@
+package com.ossant.services;
+
+import com.ossant.entities.Beer;
+import com.ossant.entities.BeerOrder;
+import com.ossant.entities.BeerOrderLine;
+import com.ossant.entities.Customer;
+import com.ossant.mappers.BeerOrderMapper;
+import com.ossant.model.BeerOrderCreateDTO;
+import com.ossant.model.BeerOrderDTO;
+import com.ossant.model.BeerOrderLineCreateDTO;
+import com.ossant.repositories.BeerOrderRepository;
+import com.ossant.repositories.BeerRepository;
+import com.ossant.repositories.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+    Reads and places beer orders with a fixed number of statements, whatever the number of orders or lines:
+    a page of orders is two selects plus the count (see BeerOrderRepository), a single order is one select.
+    Placing an order reads the customer and all ordered beers in two selects, then inserts the order and its
+    lines; the line inserts go out as one JDBC batch (hibernate.jdbc.batch_size per batch).
+ */
+@Service
+@Profile("!in-memory")
+@RequiredArgsConstructor
+public class BeerOrderServiceImpl implements BeerOrderService {
+
+    private final BeerOrderRepository beerOrderRepository;
+
+    private final CustomerRepository customerRepository;
+
+    private final BeerRepository beerRepository;
+
+    private final BeerOrderMapper beerOrderMapper;
+
+    private final EntityManager entityManager;
+
+    private final static int DEFAULT_PAGE = 0;
+
+    private final static int DEFAULT_PAGE_SIZE = 25;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<BeerOrderDTO> listBeerOrders(Integer pageNumber, Integer pageSize) {
+        Page<BeerOrder> beerOrderPage = beerOrderRepository.findAllWithCustomerAndShipment(
+                buildPageRequest(pageNumber, pageSize));
+        if (beerOrderPage.hasContent()) {
+            beerOrderRepository.fetchLines(beerOrderPage.getContent());
+        }
+        return beerOrderPage.map(beerOrderMapper::beerOrderToBeerOrderDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BeerOrderDTO> getBeerOrderById(UUID beerOrderId) {
+        return beerOrderRepository.findWithLinesById(beerOrderId).map(beerOrderMapper::beerOrderToBeerOrderDto);
+    }
+
+    @Override
+    @Transactional
+    public BeerOrderDTO createBeerOrder(BeerOrderCreateDTO beerOrderCreateDTO) {
+        Customer customer = customerRepository.findById(beerOrderCreateDTO.getCustomerId())
+                .orElseThrow(() -> new InvalidBeerOrderException(
+                        "Unknown customer: " + beerOrderCreateDTO.getCustomerId()));
+
+        Set<UUID> beerIds = beerOrderCreateDTO.getBeerOrderLines().stream()
+                .map(BeerOrderLineCreateDTO::getBeerId)
+                .collect(Collectors.toSet());
+        Map<UUID, Beer> beers = beerRepository.findAllById(beerIds).stream()
+                .collect(Collectors.toMap(Beer::getId, Function.identity()));
+        beerIds.removeAll(beers.keySet());
+        if (!beerIds.isEmpty()) {
+            throw new InvalidBeerOrderException("Unknown beers: " + beerIds);
+        }
+
+        BeerOrder beerOrder = BeerOrder.builder()
+                .customerRef(beerOrderCreateDTO.getCustomerRef())
+                .customer(customer)
+                .beerOrderLines(new HashSet<>())
+                .build();
+        entityManager.persist(beerOrder);
+
+        for (BeerOrderLineCreateDTO lineDTO : beerOrderCreateDTO.getBeerOrderLines()) {
+            BeerOrderLine beerOrderLine = BeerOrderLine.builder()
+                    .beerOrder(beerOrder)
+                    .beer(beers.get(lineDTO.getBeerId()))
+                    .orderQuantity(lineDTO.getOrderQuantity())
+                    .quantityAllocated(0)
+                    .build();
+            entityManager.persist(beerOrderLine);
+            beerOrder.getBeerOrderLines().add(beerOrderLine);
+        }
+        // order_inserts groups the line inserts behind the order's, so they share one batch
+        entityManager.flush();
+
+        return beerOrderMapper.beerOrderToBeerOrderDto(beerOrder);
+    }
+
+    // Newest orders first, id keeps orders placed in the same instant in a stable order
+    private PageRequest buildPageRequest(Integer pageNumber, Integer pageSize) {
+        int queryPageNumber = pageNumber != null && pageNumber > 0 ? pageNumber - 1 : DEFAULT_PAGE;
+        int queryPageSize = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
+        Sort sort = Sort.by(Sort.Order.desc("createdDate"), Sort.Order.asc("id"));
+        return PageRequest.of(queryPageNumber, queryPageSize, sort);
+    }
+
+}
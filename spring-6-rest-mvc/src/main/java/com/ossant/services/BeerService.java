@@ -1,24 +1,40 @@
 package com.ossant.services;
 
 import com.ossant.model.BeerDTO;
+import com.ossant.model.BeerField;
+import com.ossant.model.BeerFilter;
+import com.ossant.model.CursorPage;
 import com.ossant.model.BeerStyle;
 import org.springframework.data.domain.Page;
 
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public interface BeerService {
 
     Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory, Integer pageNumber, Integer pageSize);
 
+    Page<BeerDTO> listBeers(BeerFilter beerFilter, Boolean showInventory, Integer pageNumber, Integer pageSize);
+
+    // Beers with only the given fields read and set, besides id and version
+    Page<BeerDTO> listBeerFields(BeerFilter beerFilter, Set<BeerField> fields, Integer pageNumber, Integer pageSize);
+
+    CursorPage<BeerDTO> listBeersAfter(BeerFilter beerFilter, Boolean showInventory, String cursor, Integer pageSize);
+
+    CursorPage<BeerDTO> listBeerFieldsAfter(BeerFilter beerFilter, Set<BeerField> fields, String cursor,
+                                            Integer pageSize);
+
     Optional<BeerDTO> getBeerById(UUID id);
 
+    Optional<Integer> getBeerVersion(UUID id);
+
     BeerDTO saveNewBeer(BeerDTO beer);
 
-    Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer);
+    Boolean updateBeerById(UUID beerId, BeerDTO beer);
 
     Boolean deleteById(UUID beerId);
 
-    Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beer);
+    Boolean patchBeerById(UUID beerId, BeerDTO beer);
 
 }
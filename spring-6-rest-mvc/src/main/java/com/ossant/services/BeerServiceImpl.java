@@ -1,26 +1,64 @@
 package com.ossant.services;
 
 import com.ossant.model.BeerDTO;
+import com.ossant.model.BeerField;
+import com.ossant.model.BeerFilter;
 import com.ossant.model.BeerStyle;
+import com.ossant.model.CursorPage;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
+/*
+    In-memory BeerService, the BeerService of the in-memory profile. Beers live in a ConcurrentHashMap and two
+    secondary indexes keep them in listing order (beerName, id): one over every beer and one per style, so a
+    style filter only walks that style and keyset pages seek straight to the cursor.
+
+    Writes go through compute() on the beer's id, which serializes them per beer and updates the indexes
+    inside the same critical section. Stored DTOs are never handed out or modified in place: writes store a new
+    copy and reads return copies, so callers can't change the store behind its back. Readers don't lock; an
+    index entry whose beer has since been renamed, restyled or deleted is skipped.
+ */
 @Slf4j
 @Service
+@Primary
+@Profile("in-memory")
 public class BeerServiceImpl implements BeerService {
 
-    private final Map<UUID, BeerDTO> beerMap;
+    private static final int DEFAULT_PAGE = 0;
 
-    public BeerServiceImpl() {
+    private static final int DEFAULT_PAGE_SIZE = 25;
+
+    private static final Comparator<ListingKey> LISTING_ORDER = Comparator
+            .comparing(ListingKey::beerName)
+            .thenComparing(ListingKey::id);
+
+    private final ConcurrentMap<UUID, BeerDTO> beerMap = new ConcurrentHashMap<>();
+
+    private final ConcurrentNavigableMap<ListingKey, UUID> byName = new ConcurrentSkipListMap<>(LISTING_ORDER);
 
-        this.beerMap = new HashMap<>();
+    private final ConcurrentMap<BeerStyle, ConcurrentNavigableMap<ListingKey, UUID>> byStyle =
+            new ConcurrentHashMap<>();
+
+    public BeerServiceImpl() {
 
         BeerDTO beer1 = BeerDTO.builder()
                 .id(UUID.randomUUID())
@@ -58,21 +96,100 @@ public class BeerServiceImpl implements BeerService {
                 .updateDate(LocalDateTime.now())
                 .build();
 
-        beerMap.put(beer1.getId(), beer1);
-        beerMap.put(beer2.getId(), beer2);
-        beerMap.put(beer3.getId(), beer3);
+        store(beer1);
+        store(beer2);
+        store(beer3);
     }
 
     @Override
     public Page<BeerDTO> listBeers(String beerName, BeerStyle beerStyle, Boolean showInventory,
                                    Integer pageNumber, Integer pageSize) {
-        return new PageImpl<>(new ArrayList<>(beerMap.values()));
+        return listBeers(BeerFilter.builder().beerName(beerName).beerStyle(beerStyle).build(), showInventory,
+                pageNumber, pageSize);
+    }
+
+    @Override
+    public Page<BeerDTO> listBeers(BeerFilter beerFilter, Boolean showInventory, Integer pageNumber,
+                                   Integer pageSize) {
+        int queryPageNumber = pageNumber != null && pageNumber > 0 ? pageNumber - 1 : DEFAULT_PAGE;
+        int queryPageSize = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
+        long offset = (long) queryPageNumber * queryPageSize;
+
+        Predicate<BeerDTO> unindexedFilters = unindexedFilters(beerFilter);
+        List<BeerDTO> content = new ArrayList<>(Math.min(queryPageSize, DEFAULT_PAGE_SIZE));
+        long total = 0;
+        for (BeerDTO beer : matching(index(beerFilter.getBeerStyle()), beerFilter.getBeerStyle(),
+                beerFilter.getBeerName())) {
+            if (!unindexedFilters.test(beer)) {
+                continue;
+            }
+            if (total >= offset && content.size() < queryPageSize) {
+                content.add(copy(beer, showInventory));
+            }
+            total++;
+        }
+
+        PageRequest pageRequest = PageRequest.of(queryPageNumber, queryPageSize,
+                Sort.by(Sort.Order.asc("beerName"), Sort.Order.asc("id")));
+        return new PageImpl<>(content, pageRequest, total);
+    }
+
+    @Override
+    public Page<BeerDTO> listBeerFields(BeerFilter beerFilter, Set<BeerField> fields, Integer pageNumber,
+                                        Integer pageSize) {
+        return listBeers(beerFilter, true, pageNumber, pageSize).map(beer -> sparse(beer, fields));
+    }
+
+    @Override
+    public CursorPage<BeerDTO> listBeersAfter(BeerFilter beerFilter, Boolean showInventory, String cursor,
+                                              Integer pageSize) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int size = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
+        ConcurrentNavigableMap<ListingKey, UUID> seek = index(beerFilter.getBeerStyle())
+                .tailMap(new ListingKey(after.getSortKey(), after.getId()), false);
+
+        Predicate<BeerDTO> unindexedFilters = unindexedFilters(beerFilter);
+        List<BeerDTO> content = new ArrayList<>(Math.min(size, DEFAULT_PAGE_SIZE));
+        boolean hasNext = false;
+        for (BeerDTO beer : matching(seek, beerFilter.getBeerStyle(), beerFilter.getBeerName())) {
+            if (!unindexedFilters.test(beer)) {
+                continue;
+            }
+            if (content.size() == size) {
+                hasNext = true;
+                break;
+            }
+            content.add(copy(beer, showInventory));
+        }
+
+        BeerDTO last = content.isEmpty() ? null : content.get(content.size() - 1);
+        return CursorPage.<BeerDTO>builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(hasNext ? new KeysetCursor(last.getBeerName(), last.getId()).encode() : null)
+                .build();
+    }
+
+    @Override
+    public CursorPage<BeerDTO> listBeerFieldsAfter(BeerFilter beerFilter, Set<BeerField> fields, String cursor,
+                                                   Integer pageSize) {
+        CursorPage<BeerDTO> beerPage = listBeersAfter(beerFilter, true, cursor, pageSize);
+        return CursorPage.<BeerDTO>builder()
+                .content(beerPage.getContent().stream().map(beer -> sparse(beer, fields)).toList())
+                .size(beerPage.getSize())
+                .nextCursor(beerPage.getNextCursor())
+                .build();
     }
 
     @Override
     public Optional<BeerDTO> getBeerById(UUID id) {
         log.debug("Get Beer by Id - in service. Id: " + id.toString());
-        return Optional.of(beerMap.get(id));
+        return Optional.ofNullable(beerMap.get(id)).map(beer -> copy(beer, true));
+    }
+
+    @Override
+    public Optional<Integer> getBeerVersion(UUID id) {
+        return Optional.ofNullable(beerMap.get(id)).map(BeerDTO::getVersion);
     }
 
     @Override
@@ -90,39 +207,176 @@ public class BeerServiceImpl implements BeerService {
                 .price(beer.getPrice())
                 .build();
 
-        beerMap.put(savedBeer.getId(), savedBeer);
+        store(savedBeer);
 
-        return savedBeer;
+        return copy(savedBeer, true);
     }
 
+    // Same columns as BeerServiceJPAImpl.updateBeerById, the quantity on hand is left alone
     @Override
-    public Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beer) {
-        BeerDTO existing = beerMap.get(beerId);
-        existing.setBeerName(beer.getBeerName());
-        existing.setPrice(beer.getPrice());
-        existing.setUpc(beer.getUpc());
-        existing.setQuantityOnHand(beer.getQuantityOnHand());
-        return Optional.of(existing);
+    public Boolean updateBeerById(UUID beerId, BeerDTO beer) {
+        return replace(beerId, beer.getVersion(), existing -> {
+            existing.setBeerName(beer.getBeerName());
+            existing.setBeerStyle(beer.getBeerStyle());
+            existing.setUpc(beer.getUpc());
+            existing.setPrice(beer.getPrice());
+        });
     }
 
     @Override
     public Boolean deleteById(UUID beerId) {
-        if (beerMap.containsKey(beerId)) {
-            beerMap.remove(beerId);
-            return true;
-        }
-        return false;
+        AtomicBoolean deleted = new AtomicBoolean();
+        beerMap.computeIfPresent(beerId, (id, existing) -> {
+            unindex(existing);
+            deleted.set(true);
+            return null;
+        });
+        return deleted.get();
     }
 
     @Override
-    public Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beer) {
-        BeerDTO existing = beerMap.get(beerId);
-        if (StringUtils.hasText(beer.getBeerName())) existing.setBeerName(beer.getBeerName());
-        if (beer.getBeerStyle() != null) existing.setBeerStyle(beer.getBeerStyle());
-        if (beer.getPrice() != null) existing.setPrice(beer.getPrice());
-        if (beer.getQuantityOnHand() != null) existing.setQuantityOnHand(beer.getQuantityOnHand());
-        if (StringUtils.hasText(beer.getUpc())) existing.setUpc(beer.getUpc());
-        return Optional.of(existing);
+    public Boolean patchBeerById(UUID beerId, BeerDTO beer) {
+        return replace(beerId, beer.getVersion(), existing -> {
+            if (StringUtils.hasText(beer.getBeerName())) existing.setBeerName(beer.getBeerName());
+            if (beer.getBeerStyle() != null) existing.setBeerStyle(beer.getBeerStyle());
+            if (beer.getPrice() != null) existing.setPrice(beer.getPrice());
+            if (beer.getQuantityOnHand() != null) existing.setQuantityOnHand(beer.getQuantityOnHand());
+            if (StringUtils.hasText(beer.getUpc())) existing.setUpc(beer.getUpc());
+        });
+    }
+
+    private void store(BeerDTO beer) {
+        BeerDTO stored = copy(beer, true);
+        beerMap.compute(stored.getId(), (id, existing) -> {
+            if (existing != null) {
+                unindex(existing);
+            }
+            index(stored);
+            return stored;
+        });
+    }
+
+    /*
+        Applies the changes to a copy of the stored beer and swaps it in, bumping the version like an UPDATE does.
+        A non-null version has to match the stored one, as in BeerServiceJPAImpl.
+     */
+    private boolean replace(UUID beerId, Integer version, Consumer<BeerDTO> changes) {
+        return beerMap.computeIfPresent(beerId, (id, existing) -> {
+            if (version != null && !version.equals(existing.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(BeerDTO.class, beerId);
+            }
+            BeerDTO updated = copy(existing, true);
+            changes.accept(updated);
+            updated.setVersion(existing.getVersion() == null ? 1 : existing.getVersion() + 1);
+            updated.setUpdateDate(LocalDateTime.now());
+            unindex(existing);
+            index(updated);
+            return updated;
+        }) != null;
+    }
+
+    private void index(BeerDTO beer) {
+        ListingKey key = ListingKey.of(beer);
+        byName.put(key, beer.getId());
+        if (beer.getBeerStyle() != null) {
+            byStyle.computeIfAbsent(beer.getBeerStyle(), style -> new ConcurrentSkipListMap<>(LISTING_ORDER))
+                    .put(key, beer.getId());
+        }
+    }
+
+    private void unindex(BeerDTO beer) {
+        ListingKey key = ListingKey.of(beer);
+        byName.remove(key);
+        if (beer.getBeerStyle() != null) {
+            ConcurrentNavigableMap<ListingKey, UUID> styleIndex = byStyle.get(beer.getBeerStyle());
+            if (styleIndex != null) {
+                styleIndex.remove(key);
+            }
+        }
+    }
+
+    private ConcurrentNavigableMap<ListingKey, UUID> index(BeerStyle beerStyle) {
+        if (beerStyle == null) {
+            return byName;
+        }
+        ConcurrentNavigableMap<ListingKey, UUID> styleIndex = byStyle.get(beerStyle);
+        return styleIndex == null ? new ConcurrentSkipListMap<>(LISTING_ORDER) : styleIndex;
+    }
+
+    /*
+        Beers of an index in its order, resolved against the map and restricted to the filters. Entries that no
+        longer describe the stored beer belong to a concurrent write and are skipped, its current entry is
+        listed instead.
+     */
+    private Iterable<BeerDTO> matching(ConcurrentNavigableMap<ListingKey, UUID> index, BeerStyle beerStyle,
+                                       String beerName) {
+        Predicate<BeerDTO> nameFilter = nameFilter(beerName);
+        return () -> index.entrySet().stream()
+                .map(entry -> {
+                    BeerDTO beer = beerMap.get(entry.getValue());
+                    return beer != null && ListingKey.of(beer).equals(entry.getKey()) ? beer : null;
+                })
+                .filter(Objects::nonNull)
+                .filter(beer -> beerStyle == null || beerStyle == beer.getBeerStyle())
+                .filter(nameFilter)
+                .iterator();
+    }
+
+    // The filters no index covers. Beers carry no categories here, so a category filter matches none of them
+    private static Predicate<BeerDTO> unindexedFilters(BeerFilter beerFilter) {
+        if (beerFilter.getCategoryId() != null) {
+            return beer -> false;
+        }
+        Predicate<BeerDTO> filter = beer -> true;
+        if (beerFilter.getMinPrice() != null) {
+            filter = filter.and(beer -> beer.getPrice().compareTo(beerFilter.getMinPrice()) >= 0);
+        }
+        if (beerFilter.getMaxPrice() != null) {
+            filter = filter.and(beer -> beer.getPrice().compareTo(beerFilter.getMaxPrice()) <= 0);
+        }
+        if (Boolean.TRUE.equals(beerFilter.getInStock())) {
+            filter = filter.and(beer -> beer.getQuantityOnHand() != null && beer.getQuantityOnHand() > 0);
+        }
+        return filter;
+    }
+
+    private static Predicate<BeerDTO> nameFilter(String beerName) {
+        if (!StringUtils.hasText(beerName)) {
+            return beer -> true;
+        }
+        String fragment = beerName.toLowerCase(Locale.ROOT);
+        return beer -> beer.getBeerName() != null && beer.getBeerName().toLowerCase(Locale.ROOT).contains(fragment);
+    }
+
+    // Like the JPA listing, the quantity is left out unless inventory is asked for (null shows it)
+    private static BeerDTO copy(BeerDTO beer, Boolean showInventory) {
+        return BeerDTO.builder()
+                .id(beer.getId())
+                .version(beer.getVersion())
+                .beerName(beer.getBeerName())
+                .beerStyle(beer.getBeerStyle())
+                .upc(beer.getUpc())
+                .quantityOnHand(showInventory != null && !showInventory ? null : beer.getQuantityOnHand())
+                .price(beer.getPrice())
+                .createdDate(beer.getCreatedDate())
+                .updateDate(beer.getUpdateDate())
+                .build();
+    }
+
+    // Only id, version and the given fields, like the JPA sparse listings
+    private static BeerDTO sparse(BeerDTO beer, Set<BeerField> fields) {
+        BeerDTO sparse = BeerDTO.builder().id(beer.getId()).version(beer.getVersion()).build();
+        fields.forEach(field -> field.set(sparse, field.get(beer)));
+        return sparse;
+    }
+
+    // Position of a beer in the listing order; a missing name sorts first like the empty cursor key
+    private record ListingKey(String beerName, UUID id) {
+
+        static ListingKey of(BeerDTO beer) {
+            return new ListingKey(beer.getBeerName() == null ? "" : beer.getBeerName(), beer.getId());
+        }
+
     }
 
 }
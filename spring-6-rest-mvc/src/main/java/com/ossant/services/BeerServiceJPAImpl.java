@@ -3,23 +3,40 @@ package com.ossant.services;
 import com.ossant.entities.Beer;
 import com.ossant.mappers.BeerMapper;
 import com.ossant.model.BeerDTO;
+import com.ossant.model.BeerField;
+import com.ossant.model.BeerFilter;
 import com.ossant.model.BeerStyle;
+import com.ossant.model.CursorPage;
 import com.ossant.repositories.BeerRepository;
+import com.ossant.repositories.BeerSearch;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @Primary
+@Profile("!in-memory")
 @RequiredArgsConstructor
 public class BeerServiceJPAImpl implements BeerService {
 
@@ -27,100 +44,263 @@ public class BeerServiceJPAImpl implements BeerService {
 
     private final BeerMapper beerMapper;
 
+    private final BeerNameIndex beerNameIndex;
+
+    private final Validator validator;
+
+    private final EntityManagerFactory entityManagerFactory;
+
     private final static int DEFAULT_PAGE = 0;
 
     private final static int DEFAULT_PAGE_SIZE = 25;
 
     @Override
+    @Transactional(readOnly = true)
     public Page<BeerDTO> listBeers(String beerName,
                                    BeerStyle beerStyle,
                                    Boolean showInventory,
                                    Integer pageNumber,
                                    Integer pageSize) {
-        Page<Beer> beerPage;
+        return listBeers(BeerFilter.builder().beerName(beerName).beerStyle(beerStyle).build(), showInventory,
+                pageNumber, pageSize);
+    }
+
+    // Listings read only the columns they return, leaving quantityOnHand out unless inventory is shown
+    @Override
+    @Transactional(readOnly = true)
+    public Page<BeerDTO> listBeers(BeerFilter beerFilter,
+                                   Boolean showInventory,
+                                   Integer pageNumber,
+                                   Integer pageSize) {
+        return listBeerFields(beerFilter, listedFields(showInventory), pageNumber, pageSize);
+    }
 
+    /*
+        Same filters and order as listBeers, but the select list holds only the requested columns. id and version
+        are always read, they make up the listing's ETag.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<BeerDTO> listBeerFields(BeerFilter beerFilter,
+                                        Set<BeerField> fields,
+                                        Integer pageNumber,
+                                        Integer pageSize) {
         PageRequest pageRequest = buildPageRequest(pageNumber, pageSize);
+        Optional<BeerSearch> search = buildSearch(beerFilter);
+        if (search.isEmpty()) {
+            return Page.empty(pageRequest);
+        }
 
-        if (StringUtils.hasText(beerName) && beerStyle == null) {
-            // beerList = beerRepository.findAll().stream().filter(beer -> beer.getBeerName().contains(beerName)).toList();
-            beerPage = beerRepository.findAllByBeerNameIsLikeIgnoreCase("%" + beerName + "%", pageRequest);
-        } else if (!StringUtils.hasText(beerName) && beerStyle != null) {
-            //beerList = beerRepository.findAll().stream().filter(beer -> beer.getBeerStyle().equals(beerStyle)).toList();
-            beerPage = beerRepository.findAllByBeerStyle(beerStyle, pageRequest);
-        } else if (StringUtils.hasText(beerName) && beerStyle != null) {
-            /*beerList = beerRepository.findAll().stream()
-                    .filter(beer -> beer.getBeerName().contains(beerName) && beer.getBeerStyle().equals(beerStyle))
-                    .collect(Collectors.toList());*/
-            beerPage = beerRepository.findAllByBeerNameIsLikeIgnoreCaseAndBeerStyle(
-                    "%" + beerName + "%", beerStyle, pageRequest);
-        } else {
-            beerPage = beerRepository.findAll(pageRequest);
+        Set<BeerField> selected = withIdAndVersion(fields);
+        return beerRepository.findAllProjected(search.get(), attributes(selected), pageRequest)
+                .map(tuple -> tupleToBeerDto(tuple, selected));
+    }
+
+    // Same filters as listBeers, continuing after the cursor's row
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BeerDTO> listBeersAfter(BeerFilter beerFilter,
+                                              Boolean showInventory,
+                                              String cursor,
+                                              Integer pageSize) {
+        return listBeerFieldsAfter(beerFilter, listedFields(showInventory), cursor, pageSize);
+    }
+
+    // The keyset counterpart of listBeerFields; beerName is read as well, the next cursor is made of it
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BeerDTO> listBeerFieldsAfter(BeerFilter beerFilter,
+                                                   Set<BeerField> fields,
+                                                   String cursor,
+                                                   Integer pageSize) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Optional<BeerSearch> search = buildSearch(beerFilter);
+        if (search.isEmpty()) {
+            return CursorPage.<BeerDTO>builder().content(List.of()).build();
         }
 
-        if (showInventory != null && !showInventory) {
-            beerPage.forEach(beer -> beer.setQuantityOnHand(null));
+        Set<BeerField> selected = withIdAndVersion(fields);
+        selected.add(BeerField.BEER_NAME);
+        Slice<Tuple> beerSlice = beerRepository.findSliceProjected(
+                search.get().after(after.getSortKey(), after.getId()), attributes(selected), buildSeekRequest(pageSize));
+        List<BeerDTO> content = beerSlice.map(tuple -> tupleToBeerDto(tuple, selected)).getContent();
+
+        String nextCursor = null;
+        if (beerSlice.hasNext() && !content.isEmpty()) {
+            BeerDTO last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getBeerName(), last.getId()).encode();
         }
-        //return beerPage.stream().map(beerMapper::beerToBeerDto).collect(Collectors.toList());
-        return beerPage.map(beerMapper::beerToBeerDto);
+
+        return CursorPage.<BeerDTO>builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<BeerDTO> getBeerById(UUID id) {
         return Optional.ofNullable(beerMapper.beerToBeerDto(beerRepository.findById(id).orElse(null)));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Integer> getBeerVersion(UUID id) {
+        return beerRepository.findVersionById(id);
+    }
+
     @Override
     public BeerDTO saveNewBeer(BeerDTO beerDTO) {
-        return beerMapper.beerToBeerDto(beerRepository.save(beerMapper.beerDtoToBeer(beerDTO)));
+        Beer savedBeer = beerRepository.save(beerMapper.beerDtoToBeer(beerDTO));
+        beerNameIndex.indexAfterCommit(savedBeer.getId(), savedBeer.getBeerName());
+        return beerMapper.beerToBeerDto(savedBeer);
     }
 
     @Override
-    public Optional<BeerDTO> updateBeerById(UUID beerId, BeerDTO beerDTO) {
-        // We can't do any updates outside the lambda function that's why we use AtomicReference
-        AtomicReference<Optional<BeerDTO>> atomicReference = new AtomicReference<>();
-        beerRepository.findById(beerId).ifPresentOrElse(foundBeer -> {
-            foundBeer.setBeerName(beerDTO.getBeerName());
-            foundBeer.setBeerStyle(beerDTO.getBeerStyle());
-            foundBeer.setUpc(beerDTO.getUpc());
-            foundBeer.setPrice(beerDTO.getPrice());
-            foundBeer.setUpdateDate(LocalDateTime.now());
-            atomicReference.set(Optional.of(beerMapper.beerToBeerDto(foundBeer)));
-            beerRepository.save(foundBeer);
-        }, () -> {
-            atomicReference.set(Optional.empty());
-        });
-        return atomicReference.get();
+    public Boolean updateBeerById(UUID beerId, BeerDTO beerDTO) {
+        validateColumns(beerDTO.getBeerName(), beerDTO.getUpc());
+        int updated = beerRepository.updateBeer(beerId, beerDTO.getVersion(), beerDTO.getBeerName(),
+                beerDTO.getBeerStyle(), beerDTO.getUpc(), beerDTO.getPrice(), LocalDateTime.now());
+        if (updated == 0) {
+            return checkStale(beerId);
+        }
+        evictCachedBeer(beerId);
+        beerNameIndex.indexAfterCommit(beerId, beerDTO.getBeerName());
+        return true;
     }
 
     @Override
     public Boolean deleteById(UUID beerId) {
-        if (beerRepository.existsById(beerId)) {
-            beerRepository.deleteById(beerId);
-            return true;
+        if (beerRepository.deleteBeerById(beerId) == 0) {
+            return false;
         }
-        return false;
+        evictCachedBeer(beerId);
+        beerNameIndex.removeAfterCommit(beerId);
+        return true;
     }
 
     @Override
-    public Optional<BeerDTO> patchBeerById(UUID beerId, BeerDTO beerDTO) {
-        AtomicReference<Optional<BeerDTO>> atomicReference = new AtomicReference<>();
-        beerRepository.findById(beerId).ifPresentOrElse(foundBeer -> {
-            if (StringUtils.hasText(beerDTO.getBeerName())) foundBeer.setBeerName(beerDTO.getBeerName());
-            if (beerDTO.getBeerStyle() != null) foundBeer.setBeerStyle(beerDTO.getBeerStyle());
-            if (beerDTO.getPrice() != null) foundBeer.setPrice(beerDTO.getPrice());
-            if (beerDTO.getQuantityOnHand() != null) foundBeer.setQuantityOnHand(beerDTO.getQuantityOnHand());
-            if (StringUtils.hasText(beerDTO.getUpc())) foundBeer.setUpc(beerDTO.getUpc());
-            atomicReference.set(Optional.of(beerMapper.beerToBeerDto(beerRepository.save(foundBeer))));
-        }, () -> {
-            atomicReference.set(Optional.empty());
-        });
-        return atomicReference.get();
+    public Boolean patchBeerById(UUID beerId, BeerDTO beerDTO) {
+        String beerName = StringUtils.hasText(beerDTO.getBeerName()) ? beerDTO.getBeerName() : null;
+        String upc = StringUtils.hasText(beerDTO.getUpc()) ? beerDTO.getUpc() : null;
+        validateColumns(beerName, upc);
+        int updated = beerRepository.patchBeer(beerId, beerDTO.getVersion(), beerName, beerDTO.getBeerStyle(),
+                beerDTO.getPrice(), beerDTO.getQuantityOnHand(), upc, LocalDateTime.now());
+        if (updated == 0) {
+            return checkStale(beerId);
+        }
+        evictCachedBeer(beerId);
+        if (beerName != null) {
+            beerNameIndex.indexAfterCommit(beerId, beerName);
+        }
+        return true;
+    }
+
+    // Nothing was written: a beer that still exists was changed since the version the client sent
+    private Boolean checkStale(UUID beerId) {
+        if (beerRepository.findVersionById(beerId).isPresent()) {
+            throw new ObjectOptimisticLockingFailureException(Beer.class, beerId);
+        }
+        return false;
+    }
+
+    /*
+        Hibernate drops the second-level cache entries of a bulk statement's entity only once the transaction
+        completes. Evicting the beer right away keeps later reads in the same transaction from seeing the old state.
+     */
+    private void evictCachedBeer(UUID beerId) {
+        entityManagerFactory.getCache().evict(Beer.class, beerId);
+    }
+
+    // The update statements bypass the entity's bean validation, so check the written values against Beer directly
+    private void validateColumns(String beerName, String upc) {
+        Set<ConstraintViolation<Beer>> violations = new HashSet<>();
+        if (beerName != null) {
+            violations.addAll(validator.validateValue(Beer.class, "beerName", beerName));
+        }
+        if (upc != null) {
+            violations.addAll(validator.validateValue(Beer.class, "upc", upc));
+        }
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+
+    private static Set<BeerField> listedFields(Boolean showInventory) {
+        Set<BeerField> fields = EnumSet.allOf(BeerField.class);
+        if (showInventory != null && !showInventory) {
+            fields.remove(BeerField.QUANTITY_ON_HAND);
+        }
+        return fields;
+    }
+
+    // An EnumSet keeps the columns in declaration order, so equal field sets give the same query
+    private static Set<BeerField> withIdAndVersion(Set<BeerField> fields) {
+        Set<BeerField> selected = EnumSet.of(BeerField.ID, BeerField.VERSION);
+        selected.addAll(fields);
+        return selected;
+    }
+
+    private static List<String> attributes(Set<BeerField> fields) {
+        return fields.stream().map(BeerField::getProperty).toList();
+    }
+
+    private static BeerDTO tupleToBeerDto(Tuple tuple, Set<BeerField> fields) {
+        BeerDTO beerDTO = BeerDTO.builder().build();
+        for (BeerField field : fields) {
+            field.set(beerDTO, tuple.get(field.getProperty()));
+        }
+        return beerDTO;
+    }
+
+    /*
+        A name the BeerNameIndex can resolve becomes a primary key lookup instead of a leading-wildcard LIKE scan.
+        The LIKE still runs on the looked-up rows, so the database and its collation have the final say over a
+        stale or differently folded index entry. Empty when the index already knows that no beer matches.
+     */
+    private Optional<BeerSearch> buildSearch(BeerFilter beerFilter) {
+        BeerSearch search = new BeerSearch();
+        if (StringUtils.hasText(beerFilter.getBeerName())) {
+            Optional<Set<UUID>> indexedIds = beerNameIndex.search(beerFilter.getBeerName());
+            if (indexedIds.isPresent()) {
+                if (indexedIds.get().isEmpty()) {
+                    return Optional.empty();
+                }
+                search.idIn(indexedIds.get());
+            }
+            search.beerNameLike("%" + beerFilter.getBeerName() + "%");
+        }
+        if (beerFilter.getBeerStyle() != null) {
+            search.beerStyle(beerFilter.getBeerStyle());
+        }
+        if (beerFilter.getCategoryId() != null) {
+            search.category(beerFilter.getCategoryId());
+        }
+        if (beerFilter.getMinPrice() != null) {
+            search.minPrice(beerFilter.getMinPrice());
+        }
+        if (beerFilter.getMaxPrice() != null) {
+            search.maxPrice(beerFilter.getMaxPrice());
+        }
+        if (Boolean.TRUE.equals(beerFilter.getInStock())) {
+            search.inStock();
+        }
+        return Optional.of(search);
     }
 
     private PageRequest buildPageRequest(Integer pageNumber, Integer pageSize) {
         int queryPageNumber = pageNumber != null && pageNumber > 0 ? pageNumber - 1 : DEFAULT_PAGE;
         int queryPageSize = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
-        Sort sort = Sort.by(Sort.Order.asc("beerName"));
+        // id breaks ties between equal names so offset and keyset pages list beers in the same order
+        Sort sort = Sort.by(Sort.Order.asc("beerName"), Sort.Order.asc("id"));
         return PageRequest.of(queryPageNumber, queryPageSize, sort);
     }
+
+    // The seek predicate already skips the previous rows, so every keyset query reads "page 0"
+    private PageRequest buildSeekRequest(Integer pageSize) {
+        int queryPageSize = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
+        Sort sort = Sort.by(Sort.Order.asc("beerName"), Sort.Order.asc("id"));
+        return PageRequest.of(DEFAULT_PAGE, queryPageSize, sort);
+    }
 }
@@ -0,0 +1,10 @@
+package com.ossant.services;
+
+// Thrown to a call that joined a failed one when the failure's own type can't be copied, see SingleFlightInterceptor
+public class CoalescedCallException extends RuntimeException {
+
+    public CoalescedCallException(Throwable cause) {
+        super("Coalesced call failed: " + cause.getMessage(), cause);
+    }
+
+}
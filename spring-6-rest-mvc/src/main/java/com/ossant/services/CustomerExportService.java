@@ -0,0 +1,10 @@
+package com.ossant.services;
+
+import java.io.OutputStream;
+
+public interface CustomerExportService {
+
+    // Writes every customer as one JSON line and returns how many were written
+    long exportCustomers(OutputStream outputStream);
+
+}
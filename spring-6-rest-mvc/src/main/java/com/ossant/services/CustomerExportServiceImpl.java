@@ -0,0 +1,81 @@
+package com.ossant.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ossant.entities.Customer;
+import com.ossant.mappers.CustomerMapper;
+import com.ossant.model.CustomerDTO;
+import com.ossant.repositories.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/*
+    Streams every customer row by row, same approach as BeerExportServiceImpl.
+ */
+@Slf4j
+@Service
+@Profile("!in-memory")
+@RequiredArgsConstructor
+public class CustomerExportServiceImpl implements CustomerExportService {
+
+    // Rows written between two flushes of the response
+    private static final int FLUSH_EVERY = 500;
+
+    private final CustomerRepository customerRepository;
+
+    private final CustomerMapper customerMapper;
+
+    private final EntityManager entityManager;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public long exportCustomers(OutputStream outputStream) {
+        long start = System.currentTimeMillis();
+        ObjectWriter writer = objectMapper.writerFor(CustomerDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        Long rows = transactionTemplate.execute(status -> {
+            long written = 0;
+            try (Stream<Customer> customers = customerRepository.streamAllOrderedByName();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                // The servlet container owns the response stream
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                Iterator<Customer> iterator = customers.iterator();
+                while (iterator.hasNext()) {
+                    Customer customer = iterator.next();
+                    writer.writeValue(generator, customerMapper.customerToCustomerDto(customer));
+                    generator.writeRaw('\n');
+                    entityManager.detach(customer);
+                    if (++written % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return written;
+        });
+
+        log.debug("Exported {} customers in {} ms", rows, System.currentTimeMillis() - start);
+        return rows == null ? 0 : rows;
+    }
+
+}
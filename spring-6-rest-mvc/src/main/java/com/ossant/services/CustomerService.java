@@ -1,23 +1,28 @@
 package com.ossant.services;
 
+import com.ossant.model.CursorPage;
 import com.ossant.model.CustomerDTO;
+import org.springframework.data.domain.Page;
 
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface CustomerService {
 
-    List<CustomerDTO> getAllCustomers();
+    Page<CustomerDTO> listCustomers(String name, String email, Integer pageNumber, Integer pageSize);
+
+    CursorPage<CustomerDTO> listCustomersAfter(String name, String email, String cursor, Integer pageSize);
 
     Optional<CustomerDTO> getCustomerById(UUID uuid);
 
+    Optional<Integer> getCustomerVersion(UUID uuid);
+
     CustomerDTO saveNewCustomer(CustomerDTO customerDTO);
 
-    Optional<CustomerDTO> updateCustomerById(UUID customerId, CustomerDTO customerDTO);
+    Boolean updateCustomerById(UUID customerId, CustomerDTO customerDTO);
 
     Boolean deleteCustomerById(UUID customerId);
 
-    Optional<CustomerDTO> patchCustomerById(UUID customerId, CustomerDTO customerDTO);
+    Boolean patchCustomerById(UUID customerId, CustomerDTO customerDTO);
 
 }
@@ -1,15 +1,28 @@
 package com.ossant.services;
 
+import com.ossant.model.CursorPage;
 import com.ossant.model.CustomerDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @Service
 public class CustomerServiceImpl implements CustomerService {
 
+    // Same order as the JPA listing: name with missing names first, then id
+    private static final Comparator<CustomerDTO> LISTING_ORDER = Comparator
+            .comparing(CustomerDTO::getName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(CustomerDTO::getId);
+
     private final Map<UUID, CustomerDTO> customerMap;
 
     public CustomerServiceImpl() {
@@ -44,8 +57,52 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
-    public List<CustomerDTO> getAllCustomers() {
-        return new ArrayList<>(customerMap.values());
+    public Page<CustomerDTO> listCustomers(String name, String email, Integer pageNumber, Integer pageSize) {
+        List<CustomerDTO> customers = filtered(name, email).toList();
+        int page = pageNumber != null && pageNumber > 0 ? pageNumber - 1 : 0;
+        int size = pageSize == null ? 25 : pageSize;
+        int from = Math.min(page * size, customers.size());
+        return new PageImpl<>(customers.subList(from, Math.min(from + size, customers.size())),
+                PageRequest.of(page, size), customers.size());
+    }
+
+    @Override
+    public CursorPage<CustomerDTO> listCustomersAfter(String name, String email, String cursor, Integer pageSize) {
+        KeysetCursor after = KeysetCursor.decode(cursor, KeysetCursor.START_NULLS_FIRST);
+        int size = pageSize == null ? 25 : pageSize;
+        List<CustomerDTO> customers = filtered(name, email)
+                .filter(customer -> LISTING_ORDER.compare(customer,
+                        CustomerDTO.builder().name(after.getSortKey()).id(after.getId()).build()) > 0)
+                .limit(size + 1L)
+                .toList();
+
+        List<CustomerDTO> content = customers.subList(0, Math.min(size, customers.size()));
+        String nextCursor = null;
+        if (customers.size() > size) {
+            CustomerDTO last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getName(), last.getId()).encode();
+        }
+        return CursorPage.<CustomerDTO>builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private Stream<CustomerDTO> filtered(String name, String email) {
+        return customerMap.values().stream()
+                .filter(contains(CustomerDTO::getName, name))
+                .filter(contains(CustomerDTO::getEmail, email))
+                .sorted(LISTING_ORDER);
+    }
+
+    private static Predicate<CustomerDTO> contains(Function<CustomerDTO, String> field, String fragment) {
+        if (!StringUtils.hasText(fragment)) {
+            return customer -> true;
+        }
+        String lowerCaseFragment = fragment.toLowerCase();
+        return customer -> field.apply(customer) != null
+                && field.apply(customer).toLowerCase().contains(lowerCaseFragment);
     }
 
     @Override
@@ -53,6 +110,11 @@ public class CustomerServiceImpl implements CustomerService {
         return Optional.of(customerMap.get(uuid));
     }
 
+    @Override
+    public Optional<Integer> getCustomerVersion(UUID uuid) {
+        return Optional.ofNullable(customerMap.get(uuid)).map(CustomerDTO::getVersion);
+    }
+
     @Override
     public CustomerDTO saveNewCustomer(CustomerDTO customerDTO) {
 
@@ -70,11 +132,15 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
-    public Optional<CustomerDTO> updateCustomerById(UUID customerId, CustomerDTO customerDTO) {
+    public Boolean updateCustomerById(UUID customerId, CustomerDTO customerDTO) {
         CustomerDTO existing = customerMap.get(customerId);
+        if (existing == null) {
+            return false;
+        }
+        checkVersion(existing, customerDTO.getVersion());
         existing.setName(customerDTO.getName());
         existing.setUpdateDate(LocalDateTime.now());
-        return Optional.of(existing);
+        return true;
     }
 
     @Override
@@ -87,10 +153,21 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
-    public Optional<CustomerDTO> patchCustomerById(UUID customerId, CustomerDTO customer) {
+    public Boolean patchCustomerById(UUID customerId, CustomerDTO customer) {
         CustomerDTO existing = customerMap.get(customerId);
+        if (existing == null) {
+            return false;
+        }
+        checkVersion(existing, customer.getVersion());
         if (StringUtils.hasText(customer.getName())) existing.setName(customer.getName());
-        return Optional.of(existing);
+        return true;
+    }
+
+    // A non-null version has to match the stored one, as in CustomerServiceJPAImpl
+    private static void checkVersion(CustomerDTO existing, Integer version) {
+        if (version != null && !version.equals(existing.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(CustomerDTO.class, existing.getId());
+        }
     }
 
 }
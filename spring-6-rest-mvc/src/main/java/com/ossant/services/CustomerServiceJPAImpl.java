@@ -1,22 +1,30 @@
 package com.ossant.services;
 
+import com.ossant.entities.Customer;
 import com.ossant.mappers.CustomerMapper;
+import com.ossant.model.CursorPage;
 import com.ossant.model.CustomerDTO;
 import com.ossant.repositories.CustomerRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
 
 @Service
 @Primary
+@Profile("!in-memory")
 @RequiredArgsConstructor
 public class CustomerServiceJPAImpl implements CustomerService {
 
@@ -24,16 +32,58 @@ public class CustomerServiceJPAImpl implements CustomerService {
 
     private final CustomerMapper customerMapper;
 
+    private final static int DEFAULT_PAGE = 0;
+
+    private final static int DEFAULT_PAGE_SIZE = 25;
+
     @Override
+    @Transactional(readOnly = true)
     public Optional<CustomerDTO> getCustomerById(UUID uuid) {
         return Optional.ofNullable(customerMapper.customerToCustomerDto(customerRepository.findById(uuid).orElse(null)));
     }
 
     @Override
-    public List<CustomerDTO> getAllCustomers() {
-        return customerRepository.findAll().stream()
-                .map(customerMapper::customerToCustomerDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Optional<Integer> getCustomerVersion(UUID uuid) {
+        return customerRepository.findVersionById(uuid);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<CustomerDTO> listCustomers(String name, String email, Integer pageNumber, Integer pageSize) {
+        int queryPageNumber = pageNumber != null && pageNumber > 0 ? pageNumber - 1 : DEFAULT_PAGE;
+        int queryPageSize = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
+        PageRequest pageRequest = PageRequest.of(queryPageNumber, queryPageSize,
+                Sort.by(Sort.Order.asc("name"), Sort.Order.asc("id")));
+
+        return customerRepository.findAllByFilter(likePattern(name), likePattern(email), pageRequest)
+                .map(customerMapper::customerToCustomerDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CustomerDTO> listCustomersAfter(String name, String email, String cursor, Integer pageSize) {
+        KeysetCursor after = KeysetCursor.decode(cursor, KeysetCursor.START_NULLS_FIRST);
+        PageRequest pageRequest = PageRequest.of(DEFAULT_PAGE, pageSize == null ? DEFAULT_PAGE_SIZE : pageSize);
+
+        Slice<Customer> customerSlice = after.getSortKey() == null
+                ? customerRepository.findAllByFilterAfterNameless(likePattern(name), likePattern(email), after.getId(),
+                        pageRequest)
+                : customerRepository.findAllByFilterAfter(likePattern(name), likePattern(email), after.getSortKey(),
+                        after.getId(), pageRequest);
+        List<CustomerDTO> content = customerSlice.map(customerMapper::customerToCustomerDto).getContent();
+
+        String nextCursor = null;
+        if (customerSlice.hasNext() && !content.isEmpty()) {
+            CustomerDTO last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getName(), last.getId()).encode();
+        }
+
+        return CursorPage.<CustomerDTO>builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Override
@@ -42,41 +92,42 @@ public class CustomerServiceJPAImpl implements CustomerService {
     }
 
     @Override
-    public Optional<CustomerDTO> updateCustomerById(UUID customerId, CustomerDTO customerDTO) {
-        AtomicReference<Optional<CustomerDTO>> atomicReference = new AtomicReference<>();
-        customerRepository.findById(customerId).ifPresentOrElse(foundCustomer -> {
-            foundCustomer.setName(customerDTO.getName());
-            foundCustomer.setUpdateDate(LocalDateTime.now());
-            atomicReference.set(Optional.of(customerMapper.customerToCustomerDto(foundCustomer)));
-            customerRepository.save(foundCustomer);
-        }, ()-> {
-            atomicReference.set(Optional.empty());
-        });
-        return atomicReference.get();
+    public Boolean updateCustomerById(UUID customerId, CustomerDTO customerDTO) {
+        int updated = customerRepository.updateCustomer(customerId, customerDTO.getVersion(), customerDTO.getName(),
+                LocalDateTime.now());
+        return updated > 0 || checkStale(customerId);
     }
 
     @Override
     public Boolean deleteCustomerById(UUID customerId) {
-        if (customerRepository.existsById(customerId)) {
-            customerRepository.deleteById(customerId);
-            return true;
-        }
-        return false;
+        return customerRepository.deleteCustomerById(customerId) > 0;
     }
 
     @Override
-    public Optional<CustomerDTO> patchCustomerById(UUID customerId, CustomerDTO customer) {
-        AtomicReference<Optional<CustomerDTO>> atomicReference = new AtomicReference<>();
-        customerRepository.findById(customerId).ifPresentOrElse(foundCustomer -> {
-            if (StringUtils.hasText(customer.getName())) {
-                foundCustomer.setName(customer.getName());
+    public Boolean patchCustomerById(UUID customerId, CustomerDTO customer) {
+        if (!StringUtils.hasText(customer.getName())) {
+            // Nothing to change, so no write and no new version; a stale version is still a conflict
+            Optional<Integer> version = customerRepository.findVersionById(customerId);
+            if (version.isPresent() && customer.getVersion() != null && !customer.getVersion().equals(version.get())) {
+                throw new ObjectOptimisticLockingFailureException(Customer.class, customerId);
             }
-            atomicReference.set(Optional.of(customerMapper
-                    .customerToCustomerDto(customerRepository.save(foundCustomer))));
-        }, () -> {
-            atomicReference.set(Optional.empty());
-        });
-        return atomicReference.get();
+            return version.isPresent();
+        }
+        int updated = customerRepository.patchCustomer(customerId, customer.getVersion(), customer.getName(),
+                LocalDateTime.now());
+        return updated > 0 || checkStale(customerId);
+    }
+
+    // Nothing was written: a customer that still exists was changed since the version the client sent
+    private boolean checkStale(UUID customerId) {
+        if (customerRepository.findVersionById(customerId).isPresent()) {
+            throw new ObjectOptimisticLockingFailureException(Customer.class, customerId);
+        }
+        return false;
+    }
+
+    private static String likePattern(String fragment) {
+        return StringUtils.hasText(fragment) ? "%" + fragment + "%" : null;
     }
 
 }
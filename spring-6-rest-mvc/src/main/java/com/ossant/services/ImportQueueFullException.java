@@ -0,0 +1,13 @@
+package com.ossant.services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Import Queue Full")
+public class ImportQueueFullException extends RuntimeException {
+
+    public ImportQueueFullException(String message) {
+        super(message);
+    }
+
+}
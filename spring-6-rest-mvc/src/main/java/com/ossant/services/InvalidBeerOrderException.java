@@ -0,0 +1,13 @@
+package com.ossant.services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid Beer Order")
+public class InvalidBeerOrderException extends RuntimeException {
+
+    public InvalidBeerOrderException(String message) {
+        super(message);
+    }
+
+}
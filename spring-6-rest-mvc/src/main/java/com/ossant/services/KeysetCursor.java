@@ -0,0 +1,62 @@
+package com.ossant.services;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/*
+    Position of the last row handed out by a keyset listing: its sort key plus its id as tie-breaker.
+    It travels as an url-safe base64 token so clients don't depend on its layout. A null sort key (a customer
+    without a name) is encoded without the separator, so it stays distinct from an empty one.
+ */
+@Getter
+public final class KeysetCursor {
+
+    // Sorts before every real row, used when a listing starts from the beginning
+    public static final KeysetCursor START = new KeysetCursor("", new UUID(0L, 0L));
+
+    // The same for listings with an optional sort key, where rows without one sort first
+    public static final KeysetCursor START_NULLS_FIRST = new KeysetCursor(null, new UUID(0L, 0L));
+
+    private static final int UUID_LENGTH = 36;
+
+    private final String sortKey;
+
+    private final UUID id;
+
+    public KeysetCursor(String sortKey, UUID id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    public String encode() {
+        String position = sortKey == null ? id.toString() : id + ":" + sortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        return decode(token, START);
+    }
+
+    // start is where a listing begins without a token
+    public static KeysetCursor decode(String token, KeysetCursor start) {
+        if (token == null || token.isBlank()) {
+            return start;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (decoded.length() == UUID_LENGTH) {
+                return new KeysetCursor(null, UUID.fromString(decoded));
+            }
+            if (decoded.length() < UUID_LENGTH || decoded.charAt(UUID_LENGTH) != ':') {
+                throw new InvalidCursorException(token);
+            }
+            return new KeysetCursor(decoded.substring(UUID_LENGTH + 1), UUID.fromString(decoded.substring(0, UUID_LENGTH)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(token, e);
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.ossant.services;
+
+import com.ossant.model.BeerFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+    Times every call made through a service interface into the "service.calls" timer, tagged with
+    service, method, filter, outcome (success/error) and exception. The error count of a method is the count of
+    its outcome=error series. The listings are tagged with the shape of their filter (name/style/both/none for
+    beers, name/email/both/none for customers, the filters set like style+price for a BeerFilter), every other
+    method with filter=n/a.
+
+    Timers publish a percentile histogram bounded to [minimumExpected, maximumExpected], so the bucket count stays
+    small. They are built once per tag combination and looked up from a map afterwards, which keeps the per-call
+    cost to two nanoTime reads, a map lookup and the histogram update.
+ */
+public class ServiceMetricsInterceptor implements MethodInterceptor {
+
+    public static final String METRIC_NAME = "service.calls";
+
+    private static final String NO_FILTER = "n/a";
+
+    private static final String NO_EXCEPTION = "none";
+
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    private final Duration minimumExpected;
+
+    private final Duration maximumExpected;
+
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public ServiceMetricsInterceptor(Supplier<MeterRegistry> meterRegistry, Duration minimumExpected,
+                                     Duration maximumExpected) {
+        this.meterRegistry = meterRegistry;
+        this.minimumExpected = minimumExpected;
+        this.maximumExpected = maximumExpected;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            record(invocation, NO_EXCEPTION, start);
+            return result;
+        } catch (Throwable e) {
+            record(invocation, e.getClass().getSimpleName(), start);
+            throw e;
+        }
+    }
+
+    private void record(MethodInvocation invocation, String exception, long start) {
+        long elapsed = System.nanoTime() - start;
+        Method method = invocation.getMethod();
+        TimerKey key = new TimerKey(method, filterShape(method, invocation.getArguments()), exception);
+        timers.computeIfAbsent(key, this::buildTimer).record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer buildTimer(TimerKey key) {
+        return Timer.builder(METRIC_NAME)
+                .description("Calls to the BeerService and CustomerService methods")
+                .tag("service", key.method().getDeclaringClass().getSimpleName())
+                .tag("method", key.method().getName())
+                .tag("filter", key.filter())
+                .tag("outcome", NO_EXCEPTION.equals(key.exception()) ? "success" : "error")
+                .tag("exception", key.exception())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(minimumExpected)
+                .maximumExpectedValue(maximumExpected)
+                .register(meterRegistry.get());
+    }
+
+    // The listings take their two filters as the first two arguments, or a BeerFilter as the first one
+    static String filterShape(Method method, Object[] arguments) {
+        if (!method.getName().startsWith("list")) {
+            return NO_FILTER;
+        }
+        if (arguments[0] instanceof BeerFilter beerFilter) {
+            return beerFilterShape(beerFilter);
+        }
+        boolean first = arguments[0] instanceof String value ? StringUtils.hasText(value) : arguments[0] != null;
+        boolean second = arguments[1] instanceof String value ? StringUtils.hasText(value) : arguments[1] != null;
+        if (first && second) {
+            return "both";
+        }
+        String secondFilter = method.getDeclaringClass() == BeerService.class ? "style" : "email";
+        return first ? "name" : second ? secondFilter : "none";
+    }
+
+    // The filters set, joined by "+" in a fixed order, e.g. style+price
+    private static String beerFilterShape(BeerFilter beerFilter) {
+        StringJoiner shape = new StringJoiner("+");
+        if (StringUtils.hasText(beerFilter.getBeerName())) {
+            shape.add("name");
+        }
+        if (beerFilter.getBeerStyle() != null) {
+            shape.add("style");
+        }
+        if (beerFilter.getCategoryId() != null) {
+            shape.add("category");
+        }
+        if (beerFilter.getMinPrice() != null || beerFilter.getMaxPrice() != null) {
+            shape.add("price");
+        }
+        if (Boolean.TRUE.equals(beerFilter.getInStock())) {
+            shape.add("stock");
+        }
+        return shape.length() == 0 ? "none" : shape.toString();
+    }
+
+    private record TimerKey(Method method, String filter, String exception) {
+    }
+
+}
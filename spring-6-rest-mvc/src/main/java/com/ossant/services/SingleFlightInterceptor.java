@@ -0,0 +1,118 @@
+package com.ossant.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/*
+    Single-flight for read methods of a service: while a call is running, identical calls (same method, equal
+    arguments) don't run again but wait for it and get its result, or its exception. Nothing is kept once the call
+    returns, the next caller loads again, so a caller never sees data older than what a call started after its own
+    arrival could return.
+
+    The loaded result stays with the flight and every caller, the one that loaded included, gets its own copy
+    made by the copier, so callers can modify what they get. The arguments in the flight key are copied the same
+    way, a caller changing its arguments afterwards doesn't change which calls join it. Every call that joined
+    another one instead of loading is counted in "service.calls.coalesced", tagged with service and method.
+
+    A failure is not shared either: the loading caller gets the exception itself, every joined one a new exception
+    of the same type (through its (message, cause) constructor) with the original as cause, so the exception
+    handlers and the service.calls exception tag see what a call of their own would have thrown. Types without
+    such a constructor reach joined callers as CoalescedCallException, errors as they are.
+ */
+public class SingleFlightInterceptor implements MethodInterceptor {
+
+    public static final String METRIC_NAME = "service.calls.coalesced";
+
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    private final Set<String> methodNames;
+
+    private final UnaryOperator<Object> copier;
+
+    private final Map<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<Method, Counter> counters = new ConcurrentHashMap<>();
+
+    public SingleFlightInterceptor(Supplier<MeterRegistry> meterRegistry, Set<String> methodNames,
+                                   UnaryOperator<Object> copier) {
+        this.meterRegistry = meterRegistry;
+        this.methodNames = methodNames;
+        this.copier = copier;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (!methodNames.contains(method.getName())) {
+            return invocation.proceed();
+        }
+
+        FlightKey key = new FlightKey(method, Arrays.stream(invocation.getArguments()).map(copier).toList());
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            counters.computeIfAbsent(method, this::buildCounter).increment();
+            return copier.apply(await(running));
+        }
+
+        try {
+            Object result = invocation.proceed();
+            flight.complete(result);
+            return copier.apply(result);
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> running) throws Throwable {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            throw forJoiner(e.getCause());
+        }
+    }
+
+    private static Throwable forJoiner(Throwable failure) {
+        if (failure instanceof Error) {
+            return failure;
+        }
+        try {
+            return failure.getClass().getConstructor(String.class, Throwable.class)
+                    .newInstance(failure.getMessage(), failure);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return failure instanceof RuntimeException ? new CoalescedCallException(failure) : failure;
+        }
+    }
+
+    private Counter buildCounter(Method method) {
+        return Counter.builder(METRIC_NAME)
+                .description("Service calls answered by an identical call already in flight instead of loading")
+                .tag("service", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .register(meterRegistry.get());
+    }
+
+    private record FlightKey(Method method, List<Object> arguments) {
+    }
+
+}
@@ -0,0 +1,75 @@
+-- Converts the varchar(36) UUID keys to BINARY(16) in place (MySQL 8, UUID_TO_BIN).
+-- No swap flag: Hibernate writes the UUID's bytes in their natural order, which is also what keeps the
+-- time-ordered ids of new rows ascending in the indexes.
+
+ALTER TABLE beer_order DROP FOREIGN KEY beer_order_ibfk_1;
+ALTER TABLE beer_order DROP FOREIGN KEY bos_shipment_fk;
+ALTER TABLE beer_order_line DROP FOREIGN KEY beer_order_line_ibfk_1;
+ALTER TABLE beer_order_line DROP FOREIGN KEY beer_order_line_ibfk_2;
+ALTER TABLE beer_order_shipment DROP FOREIGN KEY bos_pk;
+ALTER TABLE beer_category DROP FOREIGN KEY pc_beer_id_fk;
+ALTER TABLE beer_category DROP FOREIGN KEY pc_category_id_fk;
+
+-- The text goes through varbinary first, so UUID_TO_BIN can write the 16 bytes back into the same column
+
+ALTER TABLE beer MODIFY id VARBINARY(36) NOT NULL;
+UPDATE beer SET id = UUID_TO_BIN(id);
+ALTER TABLE beer MODIFY id BINARY(16) NOT NULL;
+
+ALTER TABLE customer MODIFY id VARBINARY(36) NOT NULL;
+UPDATE customer SET id = UUID_TO_BIN(id);
+ALTER TABLE customer MODIFY id BINARY(16) NOT NULL;
+
+ALTER TABLE category MODIFY id VARBINARY(36) NOT NULL;
+UPDATE category SET id = UUID_TO_BIN(id);
+ALTER TABLE category MODIFY id BINARY(16) NOT NULL;
+
+ALTER TABLE beer_category
+    MODIFY beer_id VARBINARY(36) NOT NULL,
+    MODIFY category_id VARBINARY(36) NOT NULL;
+UPDATE beer_category SET beer_id = UUID_TO_BIN(beer_id), category_id = UUID_TO_BIN(category_id);
+ALTER TABLE beer_category
+    MODIFY beer_id BINARY(16) NOT NULL,
+    MODIFY category_id BINARY(16) NOT NULL;
+
+ALTER TABLE beer_order
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY customer_id VARBINARY(36) DEFAULT NULL,
+    MODIFY beer_order_shipment_id VARBINARY(36) DEFAULT NULL;
+UPDATE beer_order SET id = UUID_TO_BIN(id), customer_id = UUID_TO_BIN(customer_id),
+                      beer_order_shipment_id = UUID_TO_BIN(beer_order_shipment_id);
+ALTER TABLE beer_order
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY customer_id BINARY(16) DEFAULT NULL,
+    MODIFY beer_order_shipment_id BINARY(16) DEFAULT NULL;
+
+ALTER TABLE beer_order_line
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY beer_id VARBINARY(36) DEFAULT NULL,
+    MODIFY beer_order_id VARBINARY(36) DEFAULT NULL;
+UPDATE beer_order_line SET id = UUID_TO_BIN(id), beer_id = UUID_TO_BIN(beer_id),
+                           beer_order_id = UUID_TO_BIN(beer_order_id);
+ALTER TABLE beer_order_line
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY beer_id BINARY(16) DEFAULT NULL,
+    MODIFY beer_order_id BINARY(16) DEFAULT NULL;
+
+ALTER TABLE beer_order_shipment
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY beer_order_id VARBINARY(36) DEFAULT NULL;
+UPDATE beer_order_shipment SET id = UUID_TO_BIN(id), beer_order_id = UUID_TO_BIN(beer_order_id);
+ALTER TABLE beer_order_shipment
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY beer_order_id BINARY(16) DEFAULT NULL;
+
+ALTER TABLE beer_category
+    ADD CONSTRAINT pc_beer_id_fk FOREIGN KEY (beer_id) REFERENCES beer (id),
+    ADD CONSTRAINT pc_category_id_fk FOREIGN KEY (category_id) REFERENCES category (id);
+ALTER TABLE beer_order
+    ADD CONSTRAINT beer_order_ibfk_1 FOREIGN KEY (customer_id) REFERENCES customer (id),
+    ADD CONSTRAINT bos_shipment_fk FOREIGN KEY (beer_order_shipment_id) REFERENCES beer_order_shipment (id);
+ALTER TABLE beer_order_line
+    ADD CONSTRAINT beer_order_line_ibfk_1 FOREIGN KEY (beer_order_id) REFERENCES beer_order (id),
+    ADD CONSTRAINT beer_order_line_ibfk_2 FOREIGN KEY (beer_id) REFERENCES beer (id);
+ALTER TABLE beer_order_shipment
+    ADD CONSTRAINT bos_pk FOREIGN KEY (beer_order_id) REFERENCES beer_order (id);
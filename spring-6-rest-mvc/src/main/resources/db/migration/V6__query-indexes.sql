@@ -0,0 +1,12 @@
+-- Secondary indexes for the repository queries, checked on H2 by QueryPlanTest. Keep them in line with the
+-- @Table(indexes) of the entities, which is what Hibernate generated schemas (and the tests) get.
+--
+-- beer listings: ordered by beer_name, id, optionally restricted to one style, with offset or keyset paging.
+-- beer_order listing: newest first. The foreign key columns (beer_order.customer_id, beer_order_line.beer_id,
+-- beer_order_line.beer_order_id, ...) are already indexed, InnoDB creates an index for every foreign key.
+
+CREATE INDEX beer_name_idx ON beer (beer_name, id);
+
+CREATE INDEX beer_style_name_idx ON beer (beer_style, beer_name, id);
+
+CREATE INDEX beer_order_created_idx ON beer_order (created_date DESC, id);
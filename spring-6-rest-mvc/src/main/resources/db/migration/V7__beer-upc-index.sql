@@ -0,0 +1,4 @@
+-- Bulk restocks select their beers by upc, see BeerRepository.restockBeers. Keep it in line with the
+-- @Table(indexes) of Beer.
+
+CREATE INDEX beer_upc_idx ON beer (upc);
@@ -0,0 +1,4 @@
+-- Customer keyset pages order and seek on the raw (name, id), see CustomerRepository.findAllByFilterAfter.
+-- Keep it in line with the @Table(indexes) of Customer.
+
+CREATE INDEX customer_name_idx ON customer (name, id);
@@ -2,8 +2,10 @@ package com.ossant.bootstrap;
 
 import com.ossant.repositories.BeerRepository;
 import com.ossant.repositories.CustomerRepository;
-import com.ossant.services.BeerCsvService;
+import com.ossant.services.BeerCsvImportService;
+import com.ossant.services.BeerCsvImportServiceImpl;
 import com.ossant.services.BeerCsvServiceImpl;
+import com.ossant.services.BeerNameIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,7 +17,7 @@ import org.springframework.test.context.ActiveProfiles;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
-@Import(BeerCsvServiceImpl.class)
+@Import({BeerCsvServiceImpl.class, BeerCsvImportServiceImpl.class, BeerNameIndex.class})
 @ActiveProfiles("local-mysql")
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 class BootstrapDataTest {
@@ -28,14 +30,14 @@ class BootstrapDataTest {
 
     /* Since we are using @DataJpaTest it is using test splice, it is not performing a full scan */
     @Autowired
-    BeerCsvService beerCsvService;
+    BeerCsvImportService beerCsvImportService;
 
 
     BootstrapData bootstrapData;
 
     @BeforeEach
     void setup() {
-        bootstrapData = new BootstrapData(beerRepository, customerRepository, beerCsvService);
+        bootstrapData = new BootstrapData(beerRepository, customerRepository, beerCsvImportService);
     }
 
     @Test
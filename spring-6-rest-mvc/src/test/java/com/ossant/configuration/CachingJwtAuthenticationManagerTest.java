@@ -0,0 +1,145 @@
+package com.ossant.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CachingJwtAuthenticationManagerTest {
+
+    AuthenticationManager delegate;
+
+    SimpleMeterRegistry meterRegistry;
+
+    MutableClock clock;
+
+    CachingJwtAuthenticationManager cachingJwtAuthenticationManager;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(AuthenticationManager.class);
+        given(delegate.authenticate(any())).will(invocation -> {
+            BearerTokenAuthenticationToken bearerToken = invocation.getArgument(0);
+            return new JwtAuthenticationToken(Jwt.withTokenValue(bearerToken.getToken())
+                    .header("alg", "RS256")
+                    .subject("messaging-client")
+                    .expiresAt(clock.instant().plusSeconds(300))
+                    .build());
+        });
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.parse("2023-01-01T10:00:00Z"));
+        cachingJwtAuthenticationManager = new CachingJwtAuthenticationManager(delegate, 2, Duration.ofMinutes(10),
+                meterRegistry, clock);
+    }
+
+    @Test
+    void testTokenIsVerifiedOncePerToken() {
+        cachingJwtAuthenticationManager.authenticate(new BearerTokenAuthenticationToken("token-a"));
+        cachingJwtAuthenticationManager.authenticate(new BearerTokenAuthenticationToken("token-a"));
+        cachingJwtAuthenticationManager.authenticate(new BearerTokenAuthenticationToken("token-a"));
+
+        verify(delegate, times(1)).authenticate(any());
+        assertThat(meterRegistry.get("security.jwt.cache").tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("security.jwt.cache").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testCacheHitsGetTheirOwnAuthentication() {
+        Authentication first = cachingJwtAuthenticationManager.authenticate(bearerToken("token-a", "10.0.0.1"));
+        Authentication second = cachingJwtAuthenticationManager.authenticate(bearerToken("token-a", "10.0.0.2"));
+        Authentication third = cachingJwtAuthenticationManager.authenticate(bearerToken("token-a", "10.0.0.3"));
+
+        assertThat(third).isNotSameAs(second).isNotSameAs(first);
+        assertThat(second.getDetails()).isEqualTo("10.0.0.2");
+        assertThat(third.getDetails()).isEqualTo("10.0.0.3");
+        assertThat(third.isAuthenticated()).isTrue();
+        assertThat(third.getName()).isEqualTo(first.getName());
+        assertThat(third.getAuthorities()).isEqualTo(first.getAuthorities());
+        assertThat(((JwtAuthenticationToken) third).getToken()).isEqualTo(((JwtAuthenticationToken) first).getToken());
+    }
+
+    @Test
+    void testExpiredTokenIsVerifiedAgain() {
+        cachingJwtAuthenticationManager.authenticate(new BearerTokenAuthenticationToken("token-a"));
+        clock.advance(Duration.ofSeconds(301));
+        cachingJwtAuthenticationManager.authenticate(new BearerTokenAuthenticationToken("token-a"));
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void testRejectedTokenIsNotCached() {
+        willThrow(new BadCredentialsException("bad signature")).given(delegate).authenticate(any());
+
+        assertThrows(BadCredentialsException.class,
+                () -> cachingJwtAuthenticationManager.authenticate(new BearerTokenAuthenticationToken("forged")));
+        assertThrows(BadCredentialsException.class,
+                () -> cachingJwtAuthenticationManager.authenticate(new BearerTokenAuthenticationToken("forged")));
+        assertThat(cachingJwtAuthenticationManager.size()).isZero();
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        cachingJwtAuthenticationManager.authenticate(new BearerTokenAuthenticationToken("token-a"));
+        cachingJwtAuthenticationManager.authenticate(new BearerTokenAuthenticationToken("token-b"));
+        cachingJwtAuthenticationManager.authenticate(new BearerTokenAuthenticationToken("token-c"));
+
+        assertThat(cachingJwtAuthenticationManager.size()).isEqualTo(2);
+        assertThat(meterRegistry.get("security.jwt.cache.size").gauge().value()).isEqualTo(2);
+    }
+
+    private static BearerTokenAuthenticationToken bearerToken(String token, Object details) {
+        BearerTokenAuthenticationToken bearerToken = new BearerTokenAuthenticationToken(token);
+        bearerToken.setDetails(details);
+        return bearerToken;
+    }
+
+    static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.ossant.configuration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ConnectionLimitingDataSourceTest {
+
+    DataSource targetDataSource;
+
+    ConnectionLimitingDataSource connectionLimitingDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        targetDataSource = mock(DataSource.class);
+        given(targetDataSource.getConnection()).will(invocation -> mock(Connection.class));
+        connectionLimitingDataSource = new ConnectionLimitingDataSource(targetDataSource, 2, 50);
+    }
+
+    @Test
+    void testPermitIsReturnedOnClose() throws SQLException {
+        Connection connection = connectionLimitingDataSource.getConnection();
+        assertThat(connectionLimitingDataSource.getAvailablePermits()).isEqualTo(1);
+
+        connection.close();
+        connection.close();
+        assertThat(connectionLimitingDataSource.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void testCallersBeyondThePermitsTimeOut() throws SQLException {
+        connectionLimitingDataSource.getConnection();
+        connectionLimitingDataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, () -> connectionLimitingDataSource.getConnection());
+    }
+
+    @Test
+    void testPermitIsReturnedWhenThePoolFails() throws SQLException {
+        given(targetDataSource.getConnection()).willThrow(new SQLException("pool exhausted"));
+
+        assertThrows(SQLException.class, () -> connectionLimitingDataSource.getConnection());
+        assertThat(connectionLimitingDataSource.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void testCallsAreDelegatedToTheConnection() throws SQLException {
+        Connection pooledConnection = mock(Connection.class);
+        given(targetDataSource.getConnection()).willReturn(pooledConnection);
+
+        connectionLimitingDataSource.getConnection().setAutoCommit(false);
+
+        verify(pooledConnection).setAutoCommit(false);
+    }
+
+}
@@ -0,0 +1,177 @@
+package com.ossant.configuration;
+
+import com.ossant.entities.Beer;
+import com.ossant.model.BeerDTO;
+import com.ossant.model.BeerStyle;
+import com.ossant.services.BeerService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+    Two in-memory H2 databases stand in for the primary and the replica. Hibernate creates the schema on the
+    primary, it is copied to the replica without data, and a beer only the replica has shows where a read went.
+    The lag check is triggered by hand, the scheduled one only runs at startup.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.replica.url=jdbc:h2:mem:replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database=h2",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "spring.datasource.replica.lag-query=select lag_seconds from replica_lag",
+        "spring.datasource.replica.lag-column=",
+        "spring.datasource.replica.lag-check-interval=1h"})
+@ActiveProfiles("read-replica")
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    DataSource replicaDataSource;
+
+    JdbcTemplate primary;
+
+    JdbcTemplate replica;
+
+    UUID replicaBeerId;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+
+        replica.execute("drop all objects");
+        primary.queryForList("script nodata", String.class).stream()
+                .filter(statement -> !statement.startsWith("CREATE USER"))
+                .forEach(replica::execute);
+
+        replicaBeerId = UUID.randomUUID();
+        replica.update("insert into beer (id, version, beer_name, beer_style, upc, price, quantity_on_hand) "
+                        + "values (?, 0, 'Replica Beer', ?, '1234', 9.99, 12)",
+                replicaBeerId.toString(), BeerStyle.IPA.ordinal());
+        replica.execute("create table replica_lag (lag_seconds integer)");
+        replica.update("insert into replica_lag values (0)");
+        replicaLagMonitor.check();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void testReadOnlyServiceMethodsReadFromTheReplica() {
+        assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+        assertThat(beerService.getBeerById(replicaBeerId)).isPresent();
+        assertThat(beerService.listBeers(null, null, false, 1, 25).getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void testWritesGoToThePrimary() {
+        BeerDTO saved = beerService.saveNewBeer(BeerDTO.builder()
+                .beerName("Primary Beer")
+                .beerStyle(BeerStyle.LAGER)
+                .upc("5678")
+                .price(new BigDecimal("8.99"))
+                .build());
+
+        assertThat(countBeers(primary, saved.getId())).isEqualTo(1);
+        assertThat(countBeers(replica, saved.getId())).isZero();
+    }
+
+    @Test
+    void testReadOnlyCallsInAReadWriteTransactionStayOnThePrimary() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        Optional<BeerDTO> beer = readWrite.execute(status -> beerService.getBeerById(replicaBeerId));
+
+        assertThat(beer).isEmpty();
+    }
+
+    @Test
+    void testLaggingReplicaFallsBackToThePrimary() {
+        replica.update("update replica_lag set lag_seconds = 60");
+        replicaLagMonitor.check();
+
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+        assertThat(beerService.getBeerById(replicaBeerId)).isEmpty();
+
+        replica.update("update replica_lag set lag_seconds = 1");
+        replicaLagMonitor.check();
+
+        assertThat(beerService.getBeerById(replicaBeerId)).isPresent();
+    }
+
+    @Test
+    void testStoppedReplicationFallsBackToThePrimary() {
+        replica.update("update replica_lag set lag_seconds = null");
+        replicaLagMonitor.check();
+
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+        assertThat(beerService.getBeerById(replicaBeerId)).isEmpty();
+    }
+
+    @Test
+    void testFailingLagCheckFallsBackToThePrimary() {
+        replica.execute("drop table replica_lag");
+        replicaLagMonitor.check();
+
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+        assertThat(beerService.getBeerById(replicaBeerId)).isEmpty();
+    }
+
+    @Test
+    void testReplicaReadsDoNotFillTheSecondLevelCache() {
+        UUID beerId = UUID.randomUUID();
+        String insert = "insert into beer (id, version, beer_name, beer_style, upc, price, quantity_on_hand) "
+                + "values (?, ?, ?, ?, '4321', 9.99, 12)";
+        primary.update(insert, beerId.toString(), 1, "Fresh Beer", BeerStyle.IPA.ordinal());
+        replica.update(insert, beerId.toString(), 0, "Stale Beer", BeerStyle.IPA.ordinal());
+
+        assertThat(beerService.getBeerById(beerId)).get().extracting(BeerDTO::getBeerName).isEqualTo("Stale Beer");
+        assertThat(entityManagerFactory.getCache().contains(Beer.class, beerId)).isFalse();
+
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        Optional<BeerDTO> beer = readWrite.execute(status -> beerService.getBeerById(beerId));
+
+        assertThat(beer).get().extracting(BeerDTO::getBeerName).isEqualTo("Fresh Beer");
+        assertThat(entityManagerFactory.getCache().contains(Beer.class, beerId)).isTrue();
+        // Replica reads still take what the primary put into the cache
+        assertThat(beerService.getBeerById(beerId)).get().extracting(BeerDTO::getBeerName).isEqualTo("Fresh Beer");
+    }
+
+    private static int countBeers(JdbcTemplate jdbcTemplate, UUID id) {
+        return jdbcTemplate.queryForObject("select count(*) from beer where id = ?", Integer.class, id.toString());
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.ossant.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadConfigTest {
+
+    @Test
+    void testRequestsRunOnVirtualThreadsWhenAvailable() throws Exception {
+        assumeTrue(virtualThreadsAvailable());
+        ExecutorService executor = config(false).requestExecutor();
+        try {
+            assertThat(executor.submit(() -> Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()))
+                    .get()).isEqualTo(true);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testStartupFailsWithoutVirtualThreads() {
+        assumeFalse(virtualThreadsAvailable());
+        VirtualThreadConfig config = config(false);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, config::requestExecutor);
+        assertThat(e.getMessage()).contains("virtual-threads.platform-fallback.enabled");
+    }
+
+    @Test
+    void testPlatformFallbackHasToBeEnabled() {
+        assumeFalse(virtualThreadsAvailable());
+        ExecutorService executor = config(true).requestExecutor();
+        try {
+            assertThat(executor).isInstanceOf(ThreadPoolExecutor.class);
+            assertThat(((ThreadPoolExecutor) executor).getMaximumPoolSize()).isEqualTo(8);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static VirtualThreadConfig config(boolean platformFallback) {
+        VirtualThreadConfig config = new VirtualThreadConfig();
+        ReflectionTestUtils.setField(config, "platformFallback", platformFallback);
+        ReflectionTestUtils.setField(config, "fallbackMaxThreads", 8);
+        return config;
+    }
+
+    private static boolean virtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+}
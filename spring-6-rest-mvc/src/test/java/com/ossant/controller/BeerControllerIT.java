@@ -2,10 +2,19 @@ package com.ossant.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ossant.entities.Beer;
+import com.ossant.entities.Category;
 import com.ossant.mappers.BeerMapper;
 import com.ossant.model.BeerDTO;
+import com.ossant.model.BeerField;
+import com.ossant.model.BeerFilter;
+import com.ossant.model.BeerRepriceDTO;
+import com.ossant.model.BeerRestockDTO;
 import com.ossant.model.BeerStyle;
+import com.ossant.model.CursorPage;
 import com.ossant.repositories.BeerRepository;
+import com.ossant.repositories.CategoryRepository;
+import com.ossant.services.BeerNameIndex;
+import com.ossant.services.BeerService;
 import org.hamcrest.core.IsNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -14,29 +23,46 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.context.WebApplicationContext;
 
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static com.ossant.controller.BeerController.BEER_PATH_ID;
 import static com.ossant.controller.CustomerControllerTest.jwtRequestPostProcessor;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 // Need the authorization server to be up and running
@@ -54,6 +80,18 @@ class BeerControllerIT {
     @Autowired
     BeerMapper beerMapper;
 
+    @Autowired
+    BeerService beerService;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    BeerNameIndex beerNameIndex;
+
+    @Autowired
+    DataSource dataSource;
+
     @Autowired
     WebApplicationContext webApplicationContext;
 
@@ -72,7 +110,7 @@ class BeerControllerIT {
 
     @Test
     void testListBeers() {
-        Page<BeerDTO> beerDTOS = beerController.listBeers(null, null, false, 1, 800);
+        Page<BeerDTO> beerDTOS = beerController.listBeers(BeerFilter.builder().build(), false, 1, 800, webRequest());
         assertThat(beerDTOS.getContent().size()).isEqualTo(800);
     }
 
@@ -81,7 +119,7 @@ class BeerControllerIT {
     @Test
     void testEmptyListBeers() {
         beerRepository.deleteAll();
-        Page<BeerDTO> beerDTOS = beerController.listBeers(null, null, null, 1, 25);
+        Page<BeerDTO> beerDTOS = beerController.listBeers(BeerFilter.builder().build(), null, 1, 25, webRequest());
         assertThat(beerDTOS.getContent().size()).isEqualTo(0);
     }
 
@@ -96,6 +134,94 @@ class BeerControllerIT {
                 .andExpect(jsonPath("$.content.size()", is(336)));
     }
 
+    // Writes the name index doesn't see: a rename and an insert made with plain SQL
+    @Test
+    void testListBeersByNameWithRowsWrittenOutsideTheService() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        BeerDTO renamed = beerService.saveNewBeer(BeerDTO.builder()
+                .beerName("Zymurgy Lager")
+                .beerStyle(BeerStyle.LAGER)
+                .upc("zymurgy-1")
+                .price(BigDecimal.TEN)
+                .build());
+        UUID insertedId = UUID.randomUUID();
+        try {
+            jdbcTemplate.update("update beer set beer_name = 'Zymurgy Stout' where id = ?", renamed.getId().toString());
+            jdbcTemplate.update("insert into beer (id, version, beer_name, beer_style, upc, price) "
+                    + "values (?, 0, 'Zymurgy Porter', ?, 'zymurgy-2', 10)", insertedId.toString(),
+                    BeerStyle.PORTER.ordinal());
+
+            // The index still has the old name, the LIKE on its hits drops it
+            assertThat(listBeerIdsByName("Zymurgy Lager")).isEmpty();
+            // The inserted beer only shows up once the index is rebuilt
+            assertThat(listBeerIdsByName("Zymurgy")).containsExactly(renamed.getId());
+
+            beerNameIndex.rebuild();
+
+            assertThat(listBeerIdsByName("Zymurgy Stout")).containsExactly(renamed.getId());
+            assertThat(listBeerIdsByName("Zymurgy")).containsExactlyInAnyOrder(renamed.getId(), insertedId);
+        } finally {
+            jdbcTemplate.update("delete from beer where id in (?, ?)",
+                    renamed.getId().toString(), insertedId.toString());
+            beerNameIndex.rebuild();
+        }
+    }
+
+    private List<UUID> listBeerIdsByName(String beerName) {
+        return beerController.listBeers(BeerFilter.builder().beerName(beerName).build(), null, 1, 25, webRequest())
+                .map(BeerDTO::getId).getContent();
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void testListBeersByCategoryAndStock() throws Exception {
+        Category category = categoryRepository.save(Category.builder().description("Hazy").build());
+        List<Beer> beers = beerRepository.findAll(PageRequest.of(0, 3, Sort.by("beerName", "id"))).getContent();
+        beers.forEach(beer -> beer.getCategories().add(category));
+        beers.get(0).setQuantityOnHand(0);
+        beerRepository.flush();
+
+        mockMvc.perform(get(BeerController.BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("categoryId", category.getId().toString())
+                        .queryParam("inStock", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(2)))
+                .andExpect(jsonPath("$.content[0].id", is(beers.get(1).getId().toString())));
+    }
+
+    @Test
+    void testListBeersByPriceRange() {
+        BigDecimal minPrice = new BigDecimal("10.00");
+        BigDecimal maxPrice = new BigDecimal("12.00");
+        long inRange = beerRepository.findAll().stream()
+                .filter(beer -> beer.getPrice().compareTo(minPrice) >= 0 && beer.getPrice().compareTo(maxPrice) <= 0)
+                .count();
+        assertThat(inRange).isPositive();
+
+        Page<BeerDTO> beerDTOS = beerController.listBeers(
+                BeerFilter.builder().minPrice(minPrice).maxPrice(maxPrice).build(), true, 1, 1000, webRequest());
+
+        assertThat(beerDTOS.getTotalElements()).isEqualTo(inRange);
+        assertThat(beerDTOS.getContent()).allMatch(beer ->
+                beer.getPrice().compareTo(minPrice) >= 0 && beer.getPrice().compareTo(maxPrice) <= 0);
+    }
+
+    @Test
+    void testListBeersIsTimedByFilterShape() throws Exception {
+        mockMvc.perform(get(BeerController.BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("beerStyle", BeerStyle.IPA.name()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/metrics/service.calls")
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("tag", "method:listBeers", "filter:style", "outcome:success"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[?(@.statistic == 'COUNT')].value").isNotEmpty());
+    }
+
     @Test
     void tesListBeersByBeerStyle() throws Exception {
         mockMvc.perform(get(BeerController.BEER_PATH)
@@ -162,16 +288,109 @@ class BeerControllerIT {
                 .andExpect(jsonPath("$.content[0].quantityOnHand").value(IsNull.nullValue()));
     }
 
+    @Test
+    void testListBeerFields() throws Exception {
+        mockMvc.perform(get(BeerController.BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("beerName", "IPA")
+                        .queryParam("beerStyle", BeerStyle.IPA.name())
+                        .queryParam("fields", "beerName,price")
+                        .queryParam("pageSize", "800"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", is(310)))
+                .andExpect(jsonPath("$.content[0].beerName").value(IsNull.notNullValue()))
+                .andExpect(jsonPath("$.content[0].price").value(IsNull.notNullValue()))
+                .andExpect(jsonPath("$.content[0].id").doesNotExist())
+                .andExpect(jsonPath("$.content[0].upc").doesNotExist());
+    }
+
+    @Test
+    void testListBeerFieldsMatchesFullListing() {
+        Page<BeerDTO> fullPage = beerController.listBeers(BeerFilter.builder().beerName("IPA").build(), true, 2, 50,
+                webRequest());
+        Page<BeerDTO> sparsePage = beerService.listBeerFields(BeerFilter.builder().beerName("IPA").build(),
+                Set.of(BeerField.BEER_NAME, BeerField.QUANTITY_ON_HAND), 2, 50);
+        assertThat(sparsePage.getTotalElements()).isEqualTo(fullPage.getTotalElements());
+        assertThat(sparsePage.getContent()).extracting(BeerDTO::getId, BeerDTO::getQuantityOnHand)
+                .containsExactlyElementsOf(fullPage.getContent().stream()
+                        .map(beer -> tuple(beer.getId(), beer.getQuantityOnHand())).toList());
+        assertThat(sparsePage.getContent()).allMatch(beer -> beer.getUpc() == null && beer.getPrice() == null);
+    }
+
+    @Test
+    void testListBeersByCursorMatchesOffsetPages() {
+        Page<BeerDTO> offsetPage = beerController.listBeers(
+                BeerFilter.builder().beerName("IPA").beerStyle(BeerStyle.IPA).build(), true, 3, 50, webRequest());
+        BeerFilter ipas = BeerFilter.builder().beerName("IPA").beerStyle(BeerStyle.IPA).build();
+        CursorPage<BeerDTO> cursorPage = beerController.listBeersAfter(ipas, true, "", 50, webRequest());
+        cursorPage = beerController.listBeersAfter(ipas, true, cursorPage.getNextCursor(), 50, webRequest());
+        cursorPage = beerController.listBeersAfter(ipas, true, cursorPage.getNextCursor(), 50, webRequest());
+        assertThat(cursorPage.getContent()).extracting(BeerDTO::getId)
+                .containsExactlyElementsOf(offsetPage.getContent().stream().map(BeerDTO::getId).toList());
+    }
+
+    @Test
+    void testListBeerFieldsByCursorMatchesFullCursorPages() {
+        BeerFilter ipas = BeerFilter.builder().beerName("IPA").build();
+        CursorPage<BeerDTO> fullPage = beerService.listBeersAfter(ipas, true, "", 50);
+        fullPage = beerService.listBeersAfter(ipas, true, fullPage.getNextCursor(), 50);
+
+        CursorPage<BeerDTO> sparsePage = beerService.listBeerFieldsAfter(ipas, Set.of(BeerField.PRICE), "", 50);
+        sparsePage = beerService.listBeerFieldsAfter(ipas, Set.of(BeerField.PRICE), sparsePage.getNextCursor(), 50);
+
+        assertThat(sparsePage.getNextCursor()).isEqualTo(fullPage.getNextCursor());
+        assertThat(sparsePage.getContent()).extracting(BeerDTO::getId, BeerDTO::getPrice)
+                .containsExactlyElementsOf(fullPage.getContent().stream()
+                        .map(beer -> tuple(beer.getId(), beer.getPrice())).toList());
+        assertThat(sparsePage.getContent())
+                .allMatch(beer -> beer.getUpc() == null && beer.getQuantityOnHand() == null);
+    }
+
+    @Test
+    void testListBeersByCursorKeepsTheFilters() {
+        BeerFilter beerFilter = BeerFilter.builder()
+                .beerStyle(BeerStyle.IPA)
+                .minPrice(new BigDecimal("10.00"))
+                .maxPrice(new BigDecimal("12.00"))
+                .inStock(true)
+                .build();
+        Page<BeerDTO> offsetPage = beerController.listBeers(beerFilter, true, 1, 1000, webRequest());
+        assertThat(offsetPage.getContent()).isNotEmpty().hasSize((int) offsetPage.getTotalElements());
+
+        List<UUID> cursorIds = new ArrayList<>();
+        String cursor = "";
+        do {
+            CursorPage<BeerDTO> page = beerController.listBeersAfter(beerFilter, true, cursor, 100, webRequest());
+            page.getContent().forEach(beerDTO -> cursorIds.add(beerDTO.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(cursorIds).containsExactlyElementsOf(offsetPage.getContent().stream().map(BeerDTO::getId).toList());
+    }
+
+    @Test
+    void testListBeersByCursorVisitsEveryBeerOnce() {
+        Set<UUID> seen = new HashSet<>();
+        String cursor = "";
+        do {
+            CursorPage<BeerDTO> page = beerController.listBeersAfter(BeerFilter.builder().beerName("IPA").build(), false,
+                    cursor, 100, webRequest());
+            page.getContent().forEach(beerDTO -> assertThat(seen.add(beerDTO.getId())).isTrue());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertThat(seen).hasSize(336);
+    }
+
     @Test
     void testGetBeerById() {
         Beer beer = beerRepository.findAll().get(0);
-        BeerDTO beerDTO = beerController.getBeerById(beer.getId());
+        BeerDTO beerDTO = beerController.getBeerById(beer.getId(), webRequest());
         assertThat(beerDTO).isNotNull();
     }
 
     @Test
     void testGetBeerByIdNotFound() {
-        assertThrows(NotFoundException.class, () -> beerController.getBeerById(UUID.randomUUID()));
+        assertThrows(NotFoundException.class, () -> beerController.getBeerById(UUID.randomUUID(), webRequest()));
     }
 
     @Transactional
@@ -207,6 +426,27 @@ class BeerControllerIT {
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(204));
         Beer updatedBeer = beerRepository.findById(beer.getId()).get();
         assertThat(updatedBeer.getBeerName()).isEqualTo(beerName);
+        assertThat(updatedBeer.getVersion()).isEqualTo(beer.getVersion() + 1);
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void testUpdateBeerStaleVersion() {
+        Beer beer = beerRepository.findAll().get(0);
+        BeerDTO beerDTO = beerMapper.beerToBeerDto(beer);
+        beerDTO.setBeerName("UPDATED");
+        beerController.updateById(beer.getId(), beerDTO);
+
+        // Still carries the version the first write replaced
+        beerDTO.setBeerName("UPDATED AGAIN");
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> beerController.updateById(beer.getId(), beerDTO));
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> beerController.updateBeerPatchById(beer.getId(), beerDTO));
+        Beer updatedBeer = beerRepository.findById(beer.getId()).get();
+        assertThat(updatedBeer.getBeerName()).isEqualTo("UPDATED");
+        assertThat(updatedBeer.getVersion()).isEqualTo(beer.getVersion() + 1);
     }
 
     @Test
@@ -248,6 +488,15 @@ class BeerControllerIT {
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(204));
         Beer patchedBeer = beerRepository.findById(beer.getId()).get();
         assertThat(patchedBeer.getBeerName()).isEqualTo(beerName);
+        assertThat(patchedBeer.getUpc()).isEqualTo(beer.getUpc());
+        assertThat(patchedBeer.getVersion()).isEqualTo(beer.getVersion() + 1);
+    }
+
+    @Test
+    void testBeerPatchByIdNotFound() {
+        assertThrows(NotFoundException.class, () -> {
+            beerController.updateBeerPatchById(UUID.randomUUID(), BeerDTO.builder().beerName("UPDATED").build());
+        });
     }
 
     @Test
@@ -307,4 +556,133 @@ class BeerControllerIT {
                 .andExpect(status().isUnauthorized());
     }
 
-}
\ No newline at end of file
+    @Rollback
+    @Transactional
+    @Test
+    void testCreateBeerBatch() throws Exception {
+        long before = beerRepository.count();
+        List<BeerDTO> beerDTOS = List.of(
+                BeerDTO.builder().beerName("Batch One").beerStyle(BeerStyle.ALE).upc("1001")
+                        .price(new BigDecimal("9.99")).build(),
+                BeerDTO.builder().beerName("").beerStyle(BeerStyle.ALE).upc("1002")
+                        .price(new BigDecimal("9.99")).build(),
+                BeerDTO.builder().beerName("Batch Three").beerStyle(BeerStyle.IPA).upc("1003")
+                        .price(new BigDecimal("12.99")).build());
+
+        mockMvc.perform(post(BeerController.BEER_BATCH_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(beerDTOS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].status", is("CREATED")))
+                .andExpect(jsonPath("$.items[1].status", is("INVALID")))
+                .andExpect(jsonPath("$.items[1].errors[0].beerName").exists())
+                .andExpect(jsonPath("$.items[2].status", is("CREATED")))
+                .andExpect(jsonPath("$.locations.length()", is(2)));
+
+        assertThat(beerRepository.count()).isEqualTo(before + 2);
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void testPatchBeerBatch() throws Exception {
+        List<Beer> beers = beerRepository.findAll().subList(0, 2);
+        List<BeerDTO> beerDTOS = List.of(
+                BeerDTO.builder().id(beers.get(0).getId()).quantityOnHand(999).build(),
+                BeerDTO.builder().id(UUID.randomUUID()).quantityOnHand(999).build(),
+                BeerDTO.builder().id(beers.get(1).getId()).beerName("BATCH PATCHED").build());
+
+        mockMvc.perform(patch(BeerController.BEER_BATCH_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(beerDTOS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].status", is("UPDATED")))
+                .andExpect(jsonPath("$.items[1].status", is("NOT_FOUND")))
+                .andExpect(jsonPath("$.items[2].status", is("UPDATED")))
+                .andExpect(jsonPath("$.locations.length()", is(2)));
+
+        assertThat(beerRepository.findById(beers.get(0).getId()).get().getQuantityOnHand()).isEqualTo(999);
+        assertThat(beerRepository.findById(beers.get(1).getId()).get().getBeerName()).isEqualTo("BATCH PATCHED");
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void testRepriceBeers() throws Exception {
+        Beer ipa = beerRepository.findAll().stream()
+                .filter(beer -> beer.getBeerStyle() == BeerStyle.IPA)
+                .findFirst().orElseThrow();
+        // Puts the beer into the second-level cache, which the update has to evict
+        BeerDTO before = beerController.getBeerById(ipa.getId(), webRequest());
+        long ipas = beerRepository.findAll().stream().filter(beer -> beer.getBeerStyle() == BeerStyle.IPA).count();
+
+        mockMvc.perform(post(BeerController.BEER_REPRICE_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BeerRepriceDTO.builder()
+                                .beerStyle(BeerStyle.IPA)
+                                .percent(new BigDecimal("5"))
+                                .build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated", is((int) ipas)));
+
+        BeerDTO after = beerController.getBeerById(ipa.getId(), webRequest());
+        assertThat(after.getPrice()).isEqualByComparingTo(
+                before.getPrice().multiply(new BigDecimal("1.05")).setScale(2, RoundingMode.HALF_UP));
+        assertThat(after.getVersion()).isEqualTo(before.getVersion() + 1);
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void testRestockBeers() throws Exception {
+        List<Beer> beers = beerRepository.findAll().subList(0, 2);
+        beers.get(1).setQuantityOnHand(null);
+        beerRepository.flush();
+        int quantityBefore = beers.get(0).getQuantityOnHand();
+
+        mockMvc.perform(post(BeerController.BEER_RESTOCK_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BeerRestockDTO.builder()
+                                .upcs(List.of(beers.get(0).getUpc(), beers.get(1).getUpc(), "no such upc"))
+                                .quantity(24)
+                                .build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(IsNull.notNullValue()));
+
+        assertThat(beerRepository.findById(beers.get(0).getId()).get().getQuantityOnHand())
+                .isEqualTo(quantityBefore + 24);
+        assertThat(beerRepository.findById(beers.get(1).getId()).get().getQuantityOnHand()).isEqualTo(24);
+    }
+
+    @Test
+    void testExportBeers() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get(BeerController.BEER_EXPORT_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize((int) beerRepository.count());
+        BeerDTO first = objectMapper.readValue(lines[0], BeerDTO.class);
+        assertThat(first.getId()).isNotNull();
+        assertThat(first.getBeerName()).isNotBlank();
+    }
+
+    // Controllers are called directly here, so there are no conditional headers to evaluate
+    private static WebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest());
+    }
+
+}
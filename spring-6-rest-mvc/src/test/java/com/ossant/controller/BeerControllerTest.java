@@ -1,10 +1,29 @@
 package com.ossant.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ossant.configuration.BeerFieldsFilterConfig;
+import com.ossant.configuration.JacksonBinaryFormatsConfig;
 import com.ossant.configuration.SpringSecurityConfig;
+import com.ossant.model.BeerBatchItemResult;
+import com.ossant.model.BeerBatchItemStatus;
+import com.ossant.model.BeerBatchResult;
+import com.ossant.model.BeerCsvImportJobDTO;
+import com.ossant.model.BeerCsvImportJobStatus;
 import com.ossant.model.BeerDTO;
+import com.ossant.model.BeerField;
+import com.ossant.model.BeerFilter;
+import com.ossant.model.BeerRepriceDTO;
+import com.ossant.model.BeerRestockDTO;
+import com.ossant.model.BeerStyle;
+import com.ossant.model.CursorPage;
+import com.ossant.services.BatchTooLargeException;
+import com.ossant.services.BeerBatchService;
+import com.ossant.services.BeerCsvImportJobService;
+import com.ossant.services.BeerExportService;
 import com.ossant.services.BeerService;
 import com.ossant.services.BeerServiceImpl;
+import com.ossant.services.ImportQueueFullException;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,30 +35,46 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
+import static com.ossant.controller.BeerController.BEER_BATCH_PATH;
+import static com.ossant.controller.BeerController.BEER_IMPORT_PATH;
+import static com.ossant.controller.BeerController.BEER_IMPORT_PATH_ID;
 import static com.ossant.controller.BeerController.BEER_PATH;
 import static com.ossant.controller.BeerController.BEER_PATH_ID;
+import static com.ossant.controller.BeerController.BEER_REPRICE_PATH;
+import static com.ossant.controller.BeerController.BEER_RESTOCK_PATH;
 import static com.ossant.controller.CustomerControllerTest.jwtRequestPostProcessor;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @Slf4j
 @WebMvcTest(BeerController.class)
-@Import(SpringSecurityConfig.class)
+@Import({SpringSecurityConfig.class, JacksonBinaryFormatsConfig.class, BeerFieldsFilterConfig.class})
 @ActiveProfiles("local-mysql")
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 class BeerControllerTest {
@@ -54,9 +89,24 @@ class BeerControllerTest {
     @Autowired
     ObjectMapper objectMapper;
 
+    @Autowired
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter;
+
+    @Autowired
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter;
+
     @MockBean
     BeerService beerService;
 
+    @MockBean
+    BeerBatchService beerBatchService;
+
+    @MockBean
+    BeerExportService beerExportService;
+
+    @MockBean
+    BeerCsvImportJobService beerCsvImportJobService;
+
     @Captor
     ArgumentCaptor<UUID> uuidArgumentCaptor;
 
@@ -93,7 +143,7 @@ class BeerControllerTest {
 
     @Test
     void testListBeers() throws Exception {
-        given(beerService.listBeers(any(), any(), any(), any(), any()))
+        given(beerService.listBeers(any(), any(), any(), any()))
                 .willReturn(beerServiceImpl.listBeers(null, null, false, null, null));
         mockMvc.perform(get(BEER_PATH)
                         //.with(httpBasic(USERNAME, PASSWORD))
@@ -105,9 +155,31 @@ class BeerControllerTest {
     }
 
 
+    @Test
+    void testListBeersBindsTheFilters() throws Exception {
+        given(beerService.listBeers(any(), any(), any(), any())).willReturn(Page.empty());
+        UUID categoryId = UUID.randomUUID();
+        mockMvc.perform(get(BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("beerStyle", BeerStyle.IPA.name())
+                        .queryParam("categoryId", categoryId.toString())
+                        .queryParam("minPrice", "5")
+                        .queryParam("maxPrice", "9.50")
+                        .queryParam("inStock", "true"))
+                .andExpect(status().isOk());
+
+        verify(beerService).listBeers(eq(BeerFilter.builder()
+                .beerStyle(BeerStyle.IPA)
+                .categoryId(categoryId)
+                .minPrice(new BigDecimal("5"))
+                .maxPrice(new BigDecimal("9.50"))
+                .inStock(true)
+                .build()), any(), any(), any());
+    }
+
     @Test
     void testEmptyListBeers() throws Exception {
-        given(beerService.listBeers(any(), any(), any(), any(), any())).willReturn(Page.empty());
+        given(beerService.listBeers(any(), any(), any(), any())).willReturn(Page.empty());
         mockMvc.perform(get(BEER_PATH)
                         //.with(httpBasic(USERNAME, PASSWORD))
                         .with(jwtRequestPostProcessor)
@@ -117,6 +189,129 @@ class BeerControllerTest {
                 .andExpect(jsonPath("$.content.length()", is(0)));
     }
 
+    @Test
+    void testListBeersByCursor() throws Exception {
+        given(beerService.listBeersAfter(any(), any(), any(), any()))
+                .willReturn(beerServiceImpl.listBeersAfter(BeerFilter.builder().build(), null, "", 2));
+        mockMvc.perform(get(BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("cursor", "")
+                        .queryParam("pageSize", "2")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(2)))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void testListBeersByCursorBindsTheFilters() throws Exception {
+        given(beerService.listBeersAfter(any(), any(), any(), any()))
+                .willReturn(CursorPage.<BeerDTO>builder().content(List.of()).build());
+        UUID categoryId = UUID.randomUUID();
+        mockMvc.perform(get(BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("cursor", "")
+                        .queryParam("categoryId", categoryId.toString())
+                        .queryParam("maxPrice", "9.50")
+                        .queryParam("inStock", "true"))
+                .andExpect(status().isOk());
+
+        verify(beerService).listBeersAfter(eq(BeerFilter.builder()
+                .categoryId(categoryId)
+                .maxPrice(new BigDecimal("9.50"))
+                .inStock(true)
+                .build()), any(), eq(""), any());
+    }
+
+    @Test
+    void testListBeersByCursorWalksAllBeers() {
+        BeerFilter noFilter = BeerFilter.builder().build();
+        CursorPage<BeerDTO> firstPage = beerServiceImpl.listBeersAfter(noFilter, null, "", 2);
+        CursorPage<BeerDTO> lastPage = beerServiceImpl.listBeersAfter(noFilter, null, firstPage.getNextCursor(), 2);
+        assertThat(firstPage.getContent()).hasSize(2);
+        assertThat(lastPage.getContent()).hasSize(1);
+        assertThat(lastPage.getNextCursor()).isNull();
+        assertThat(firstPage.getContent()).doesNotContainAnyElementsOf(lastPage.getContent());
+    }
+
+    @Test
+    void testListBeersByInvalidCursor() throws Exception {
+        given(beerService.listBeersAfter(any(), any(), any(), any()))
+                .willAnswer(invocation -> beerServiceImpl.listBeersAfter(BeerFilter.builder().build(), null,
+                        invocation.getArgument(2), 2));
+        mockMvc.perform(get(BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("cursor", "not-a-cursor")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testListBeerFields() throws Exception {
+        Set<BeerField> fields = Set.of(BeerField.ID, BeerField.BEER_NAME, BeerField.PRICE);
+        given(beerService.listBeerFields(any(), eq(fields), any(), any()))
+                .willReturn(beerServiceImpl.listBeerFields(BeerFilter.builder().build(), fields, null, null));
+        mockMvc.perform(get(BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("fields", "id, beerName,price")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(3)))
+                .andExpect(jsonPath("$.content[0].id").exists())
+                .andExpect(jsonPath("$.content[0].beerName").exists())
+                .andExpect(jsonPath("$.content[0].price").exists())
+                .andExpect(jsonPath("$.content[0].version").doesNotExist())
+                .andExpect(jsonPath("$.content[0].upc").doesNotExist())
+                .andExpect(jsonPath("$.totalElements", is(3)));
+    }
+
+    @Test
+    void testListBeerFieldsWithoutInventory() throws Exception {
+        given(beerService.listBeerFields(any(), any(), any(), any())).willReturn(Page.empty());
+        mockMvc.perform(get(BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("fields", "beerName,quantityOnHand")
+                        .queryParam("showInventory", "false")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(beerService).listBeerFields(any(), eq(Set.of(BeerField.BEER_NAME)), any(), any());
+    }
+
+    @Test
+    void testListBeerFieldsByCursor() throws Exception {
+        Set<BeerField> fields = Set.of(BeerField.BEER_NAME, BeerField.PRICE);
+        given(beerService.listBeerFieldsAfter(any(), eq(fields), eq(""), any()))
+                .willReturn(beerServiceImpl.listBeerFieldsAfter(BeerFilter.builder().build(), fields, "", 2));
+        mockMvc.perform(get(BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("fields", "beerName,price")
+                        .queryParam("cursor", "")
+                        .queryParam("pageSize", "2")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(2)))
+                .andExpect(jsonPath("$.content[0].beerName").exists())
+                .andExpect(jsonPath("$.content[0].price").exists())
+                .andExpect(jsonPath("$.content[0].quantityOnHand").doesNotExist())
+                .andExpect(jsonPath("$.content[0].upc").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+
+        verify(beerService, never()).listBeersAfter(any(), any(), any(), any());
+    }
+
+    @Test
+    void testListBeerFieldsUnknownField() throws Exception {
+        mockMvc.perform(get(BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("fields", "beerName,secretRecipe")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(beerService, never()).listBeerFields(any(), any(), any(), any());
+    }
+
     @Test
     void testGetBeerById() throws Exception {
         BeerDTO testBeerDTO = beerServiceImpl.listBeers(null, null, null, 1, 25)
@@ -135,6 +330,96 @@ class BeerControllerTest {
                 .andExpect(jsonPath("$.beerName", is(testBeerDTO.getBeerName())));
     }
 
+    @Test
+    void testListBeersAsCbor() throws Exception {
+        given(beerService.listBeers(any(), any(), any(), any()))
+                .willReturn(beerServiceImpl.listBeers(null, null, false, null, null));
+        byte[] body = mockMvc.perform(get(BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode page = cborHttpMessageConverter.getObjectMapper().readTree(body);
+        assertThat(page.get("content").size()).isEqualTo(3);
+        // Same date representation as the JSON responses
+        assertThat(page.get("content").get(0).get("createdDate").isTextual()).isTrue();
+    }
+
+    @Test
+    void testGetBeerByIdAsSmile() throws Exception {
+        BeerDTO testBeerDTO = beerServiceImpl.listBeers(null, null, null, 1, 25).getContent().get(0);
+        given(beerService.getBeerById(testBeerDTO.getId())).willReturn(Optional.of(testBeerDTO));
+
+        byte[] body = mockMvc.perform(get(BEER_PATH_ID, testBeerDTO.getId())
+                        .with(jwtRequestPostProcessor)
+                        .accept(JacksonBinaryFormatsConfig.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(JacksonBinaryFormatsConfig.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        BeerDTO beerDTO = smileHttpMessageConverter.getObjectMapper().readValue(body, BeerDTO.class);
+        assertThat(beerDTO).isEqualTo(testBeerDTO);
+    }
+
+    @Test
+    void testSaveNewBeerFromCbor() throws Exception {
+        BeerDTO beerDTO = beerServiceImpl.listBeers(null, null, null, 1, 25).getContent().get(0);
+        beerDTO.setId(null);
+        beerDTO.setVersion(null);
+        given(beerService.saveNewBeer(any(BeerDTO.class)))
+                .willReturn(beerServiceImpl.listBeers(null, null, null, 1, 25).getContent().get(1));
+
+        mockMvc.perform(post(BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(cborHttpMessageConverter.getObjectMapper().writeValueAsBytes(beerDTO)))
+                .andExpect(status().isCreated());
+
+        verify(beerService).saveNewBeer(beerArgumentCaptor.capture());
+        assertThat(beerArgumentCaptor.getValue().getBeerName()).isEqualTo(beerDTO.getBeerName());
+    }
+
+    @Test
+    void testGetBeerByIdNotModified() throws Exception {
+        UUID beerId = UUID.randomUUID();
+        given(beerService.getBeerVersion(beerId)).willReturn(Optional.of(2));
+
+        mockMvc.perform(get(BEER_PATH_ID, beerId)
+                        .with(jwtRequestPostProcessor)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"2\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"2\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(content().string(""));
+
+        verify(beerService, never()).getBeerById(any(UUID.class));
+    }
+
+    @Test
+    void testListBeersNotModified() throws Exception {
+        given(beerService.listBeers(any(), any(), any(), any()))
+                .willReturn(beerServiceImpl.listBeers(null, null, false, null, null));
+
+        String etag = mockMvc.perform(get(BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(BEER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(content().string(""));
+    }
+
     @Test
     void testGetBeerByIdNotFound() throws Exception {
         given(beerService.getBeerById(any(UUID.class))).willReturn(Optional.empty());
@@ -194,7 +479,7 @@ class BeerControllerTest {
     void testUpdateBeerById() throws Exception {
         BeerDTO beerDTO = beerServiceImpl.listBeers(null, null, null, 1, 25)
                 .getContent().get(0);
-        given(beerService.updateBeerById(any(), any())).willReturn(Optional.of(beerDTO));
+        given(beerService.updateBeerById(any(), any())).willReturn(true);
         mockMvc.perform(put(BEER_PATH_ID, beerDTO.getId())
                         //.with(httpBasic(USERNAME, PASSWORD))
                         .with(jwtRequestPostProcessor)
@@ -209,7 +494,7 @@ class BeerControllerTest {
     void testUpdateBeerByIdNotFound() throws Exception {
         BeerDTO beerDTO = beerServiceImpl.listBeers(null, null, null, 1, 25)
                 .getContent().get(0);
-        given(beerService.updateBeerById(any(), any())).willReturn(Optional.empty());
+        given(beerService.updateBeerById(any(), any())).willReturn(false);
         mockMvc.perform(put(BEER_PATH_ID, beerDTO.getId())
                         //.with(httpBasic(USERNAME, PASSWORD))
                         .with(jwtRequestPostProcessor)
@@ -220,12 +505,26 @@ class BeerControllerTest {
         verify(beerService).updateBeerById(any(UUID.class), any(BeerDTO.class));
     }
 
+    @Test
+    void testUpdateBeerByIdStaleVersion() throws Exception {
+        BeerDTO beerDTO = beerServiceImpl.listBeers(null, null, null, 1, 25)
+                .getContent().get(0);
+        given(beerService.updateBeerById(any(), any()))
+                .willThrow(new ObjectOptimisticLockingFailureException(BeerDTO.class, beerDTO.getId()));
+        mockMvc.perform(put(BEER_PATH_ID, beerDTO.getId())
+                        .with(jwtRequestPostProcessor)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(beerDTO)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void testUpdateBeerByIdBlankName() throws Exception {
         BeerDTO beerDTO = beerServiceImpl.listBeers(null, null, null, 1, 25)
                 .getContent().get(0);
         beerDTO.setBeerName("");
-        given(beerService.updateBeerById(any(), any())).willReturn(Optional.of(beerDTO));
+        given(beerService.updateBeerById(any(), any())).willReturn(true);
         mockMvc.perform(put(BEER_PATH_ID, beerDTO.getId())
                         //.with(httpBasic(USERNAME, PASSWORD))
                         .with(jwtRequestPostProcessor)
@@ -271,7 +570,7 @@ class BeerControllerTest {
                 .getContent().get(0);
         Map<String, Object> beerMap = new HashMap<>();
         beerMap.put("beerName", "New Name");
-        given(beerService.patchBeerById(any(), any())).willReturn(Optional.of(beerDTO));
+        given(beerService.patchBeerById(any(), any())).willReturn(true);
         mockMvc.perform(patch(BEER_PATH_ID, beerDTO.getId())
                         //.with(httpBasic(USERNAME, PASSWORD))
                         .with(jwtRequestPostProcessor)
@@ -286,6 +585,16 @@ class BeerControllerTest {
         assertThat(beerMap.get("beerName")).isEqualTo(beerArgumentCaptor.getValue().getBeerName());
     }
 
+    @Test
+    void testUpdateBeerPatchByIdNotFound() throws Exception {
+        given(beerService.patchBeerById(any(), any())).willReturn(false);
+        mockMvc.perform(patch(BEER_PATH_ID, UUID.randomUUID())
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("beerName", "New Name"))))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testCreateBeerNullBeerName() throws Exception {
         BeerDTO beerDTO = BeerDTO.builder().build();
@@ -304,4 +613,165 @@ class BeerControllerTest {
         System.out.println(mvcResult.getResponse().getContentAsString());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testCreateBeerBatch() throws Exception {
+        UUID createdId = UUID.randomUUID();
+        given(beerBatchService.createBeers(any())).willReturn(BeerBatchResult.builder()
+                .items(List.of(
+                        BeerBatchItemResult.builder().index(0).id(createdId).status(BeerBatchItemStatus.CREATED).build(),
+                        BeerBatchItemResult.builder().index(1).status(BeerBatchItemStatus.INVALID)
+                                .errors(List.of(Map.of("beerName", "must not be blank"))).build()))
+                .build());
+        List<BeerDTO> beerDTOS = beerServiceImpl.listBeers(null, null, null, 1, 25).getContent().subList(0, 2);
+
+        mockMvc.perform(post(BEER_BATCH_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(beerDTOS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()", is(2)))
+                .andExpect(jsonPath("$.items[0].location", is(BEER_PATH + "/" + createdId)))
+                .andExpect(jsonPath("$.items[1].status", is("INVALID")))
+                .andExpect(jsonPath("$.locations.length()", is(1)));
+    }
+
+    @Test
+    void testCreateBeerBatchTooLarge() throws Exception {
+        given(beerBatchService.createBeers(any())).willThrow(new BatchTooLargeException("too many"));
+        mockMvc.perform(post(BEER_BATCH_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    void testRepriceBeers() throws Exception {
+        given(beerBatchService.repriceBeers(any(), any())).willReturn(12);
+        mockMvc.perform(post(BEER_REPRICE_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BeerRepriceDTO.builder()
+                                .beerStyle(BeerStyle.IPA)
+                                .percent(new BigDecimal("5"))
+                                .build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated", is(12)));
+
+        verify(beerBatchService).repriceBeers(BeerStyle.IPA, new BigDecimal("5"));
+    }
+
+    @Test
+    void testRepriceBeersBelowZero() throws Exception {
+        mockMvc.perform(post(BEER_REPRICE_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BeerRepriceDTO.builder()
+                                .beerStyle(BeerStyle.IPA)
+                                .percent(new BigDecimal("-100"))
+                                .build())))
+                .andExpect(status().isBadRequest());
+
+        verify(beerBatchService, never()).repriceBeers(any(), any());
+    }
+
+    @Test
+    void testRestockBeers() throws Exception {
+        given(beerBatchService.restockBeers(any(), eq(24))).willReturn(2);
+        mockMvc.perform(post(BEER_RESTOCK_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BeerRestockDTO.builder()
+                                .upcs(List.of("0631234200036", "0631234300019"))
+                                .quantity(24)
+                                .build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated", is(2)));
+    }
+
+    @Test
+    void testRestockBeersWithoutUpcs() throws Exception {
+        mockMvc.perform(post(BEER_RESTOCK_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BeerRestockDTO.builder()
+                                .upcs(List.of())
+                                .quantity(24)
+                                .build())))
+                .andExpect(status().isBadRequest());
+
+        verify(beerBatchService, never()).restockBeers(any(), anyInt());
+    }
+
+    @Test
+    void testImportBeers() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        given(beerCsvImportJobService.submitImport(any())).willReturn(BeerCsvImportJobDTO.builder()
+                .id(jobId)
+                .fileName("beers.csv")
+                .status(BeerCsvImportJobStatus.QUEUED)
+                .build());
+
+        mockMvc.perform(multipart(BEER_IMPORT_PATH)
+                        .file(new MockMultipartFile("file", "beers.csv", "text/csv", "row,beer\n1,Crank\n".getBytes()))
+                        .with(jwtRequestPostProcessor))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", BEER_IMPORT_PATH + "/" + jobId))
+                .andExpect(jsonPath("$.status", is("QUEUED")));
+    }
+
+    @Test
+    void testImportBeersQueueFull() throws Exception {
+        given(beerCsvImportJobService.submitImport(any())).willThrow(new ImportQueueFullException("full"));
+        mockMvc.perform(multipart(BEER_IMPORT_PATH)
+                        .file(new MockMultipartFile("file", "beers.csv", "text/csv", new byte[0]))
+                        .with(jwtRequestPostProcessor))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void testGetImportJob() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        given(beerCsvImportJobService.getImportJob(jobId)).willReturn(Optional.of(BeerCsvImportJobDTO.builder()
+                .id(jobId)
+                .status(BeerCsvImportJobStatus.RUNNING)
+                .rowsParsed(1000)
+                .rowsInserted(990)
+                .rowsRejected(10)
+                .rowsPerSecond(4950)
+                .build()));
+
+        mockMvc.perform(get(BEER_IMPORT_PATH_ID, jobId)
+                        .with(jwtRequestPostProcessor)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("RUNNING")))
+                .andExpect(jsonPath("$.rowsInserted", is(990)))
+                .andExpect(jsonPath("$.rowsRejected", is(10)));
+    }
+
+    @Test
+    void testGetImportJobNotFound() throws Exception {
+        given(beerCsvImportJobService.getImportJob(any())).willReturn(Optional.empty());
+        mockMvc.perform(get(BEER_IMPORT_PATH_ID, UUID.randomUUID())
+                        .with(jwtRequestPostProcessor))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCancelImportJob() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        given(beerCsvImportJobService.cancelImportJob(jobId)).willReturn(Optional.of(BeerCsvImportJobDTO.builder()
+                .id(jobId)
+                .status(BeerCsvImportJobStatus.CANCELLED)
+                .build()));
+
+        mockMvc.perform(delete(BEER_IMPORT_PATH_ID, jobId)
+                        .with(jwtRequestPostProcessor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is("CANCELLED")));
+        verify(beerCsvImportJobService).cancelImportJob(jobId);
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.ossant.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ossant.entities.Beer;
+import com.ossant.entities.Customer;
+import com.ossant.model.BeerOrderCreateDTO;
+import com.ossant.model.BeerOrderDTO;
+import com.ossant.model.BeerOrderLineCreateDTO;
+import com.ossant.repositories.BeerRepository;
+import com.ossant.repositories.CustomerRepository;
+import com.ossant.services.BeerOrderService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.ossant.controller.BeerOrderController.BEER_ORDER_PATH;
+import static com.ossant.controller.CustomerControllerTest.jwtRequestPostProcessor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("local-mysql")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BeerOrderControllerIT {
+
+    @Autowired
+    BeerOrderController beerOrderController;
+
+    @Autowired
+    BeerOrderService beerOrderService;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    WebApplicationContext webApplicationContext;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    MockMvc mockMvc;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Transactional
+    @Rollback
+    @Test
+    void testCreateBeerOrder() {
+        BeerOrderCreateDTO createDTO = createOrder(customerRepository.findAll().get(0), beers(3));
+        entityManager.clear();
+        statistics.clear();
+
+        BeerOrderDTO beerOrderDTO = beerOrderService.createBeerOrder(createDTO);
+
+        // customer and beers selects, the order insert and one batch with all lines
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(4);
+        assertThat(beerOrderDTO.getCustomerId()).isEqualTo(createDTO.getCustomerId());
+        assertThat(beerOrderDTO.getBeerOrderLines()).hasSize(3)
+                .allSatisfy(line -> assertThat(line.getBeerName()).isNotBlank());
+    }
+
+    @Transactional
+    @Rollback
+    @Test
+    void testListBeerOrdersUsesAFixedNumberOfQueries() {
+        List<Customer> customers = customerRepository.findAll();
+        List<Beer> beers = beers(4);
+        for (int i = 0; i < 6; i++) {
+            placeOrder(createOrder(customers.get(i % customers.size()), beers));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        Page<BeerOrderDTO> beerOrderPage = beerOrderController.listBeerOrders(1, 5);
+
+        // the page with customers and shipments, its count and the lines with their beers
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(beerOrderPage.getContent()).hasSize(5)
+                .allSatisfy(beerOrder -> assertThat(beerOrder.getBeerOrderLines()).hasSize(4));
+        assertThat(beerOrderPage.getTotalElements()).isEqualTo(6);
+    }
+
+    @Transactional
+    @Rollback
+    @Test
+    void testGetBeerOrderByIdInOneQuery() {
+        BeerOrderDTO saved = placeOrder(createOrder(customerRepository.findAll().get(0), beers(2)));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        BeerOrderDTO beerOrderDTO = beerOrderController.getBeerOrderById(saved.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(beerOrderDTO.getBeerOrderLines()).hasSize(2);
+        assertThat(beerOrderDTO.getCustomerId()).isEqualTo(saved.getCustomerId());
+    }
+
+    @Test
+    void testGetBeerOrderByIdNotFound() {
+        assertThrows(NotFoundException.class,
+                () -> beerOrderController.getBeerOrderById(UUID.randomUUID()));
+    }
+
+    @Test
+    void testCreateBeerOrderUnknownBeer() throws Exception {
+        BeerOrderCreateDTO createDTO = createOrder(customerRepository.findAll().get(0), beers(1));
+        createDTO.getBeerOrderLines().get(0).setBeerId(UUID.randomUUID());
+
+        mockMvc.perform(post(BEER_ORDER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createDTO)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private BeerOrderDTO placeOrder(BeerOrderCreateDTO createDTO) {
+        String location = beerOrderController.createBeerOrder(createDTO).getHeaders().getLocation().toString();
+        UUID beerOrderId = UUID.fromString(location.substring(location.lastIndexOf('/') + 1));
+        return beerOrderController.getBeerOrderById(beerOrderId);
+    }
+
+    private List<Beer> beers(int count) {
+        return beerRepository.findAll().subList(0, count);
+    }
+
+    private static BeerOrderCreateDTO createOrder(Customer customer, List<Beer> beers) {
+        return BeerOrderCreateDTO.builder()
+                .customerId(customer.getId())
+                .customerRef("Test Order")
+                .beerOrderLines(beers.stream()
+                        .map(beer -> BeerOrderLineCreateDTO.builder()
+                                .beerId(beer.getId())
+                                .orderQuantity(6)
+                                .build())
+                        .toList())
+                .build();
+    }
+
+}
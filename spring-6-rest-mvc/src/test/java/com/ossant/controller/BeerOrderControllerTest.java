@@ -0,0 +1,158 @@
+package com.ossant.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ossant.configuration.SpringSecurityConfig;
+import com.ossant.model.BeerOrderCreateDTO;
+import com.ossant.model.BeerOrderDTO;
+import com.ossant.model.BeerOrderLineCreateDTO;
+import com.ossant.model.BeerOrderLineDTO;
+import com.ossant.services.BeerOrderService;
+import com.ossant.services.InvalidBeerOrderException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.ossant.controller.BeerOrderController.BEER_ORDER_PATH;
+import static com.ossant.controller.BeerOrderController.BEER_ORDER_PATH_ID;
+import static com.ossant.controller.CustomerControllerTest.jwtRequestPostProcessor;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BeerOrderController.class)
+@Import(SpringSecurityConfig.class)
+@ActiveProfiles("local-mysql")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BeerOrderControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @MockBean
+    BeerOrderService beerOrderService;
+
+    @Test
+    void testListBeerOrders() throws Exception {
+        given(beerOrderService.listBeerOrders(any(), any()))
+                .willReturn(new PageImpl<>(List.of(beerOrder(), beerOrder())));
+
+        mockMvc.perform(get(BEER_ORDER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("pageNumber", "2")
+                        .queryParam("pageSize", "10")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content.length()", is(2)))
+                .andExpect(jsonPath("$.content[0].beerOrderLines.length()", is(1)));
+
+        verify(beerOrderService).listBeerOrders(2, 10);
+    }
+
+    @Test
+    void testGetBeerOrderById() throws Exception {
+        BeerOrderDTO beerOrderDTO = beerOrder();
+        given(beerOrderService.getBeerOrderById(beerOrderDTO.getId())).willReturn(Optional.of(beerOrderDTO));
+
+        mockMvc.perform(get(BEER_ORDER_PATH_ID, beerOrderDTO.getId())
+                        .with(jwtRequestPostProcessor)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(beerOrderDTO.getId().toString())))
+                .andExpect(jsonPath("$.customerId", is(beerOrderDTO.getCustomerId().toString())))
+                .andExpect(jsonPath("$.beerOrderLines[0].orderQuantity", is(6)));
+    }
+
+    @Test
+    void testGetBeerOrderByIdNotFound() throws Exception {
+        given(beerOrderService.getBeerOrderById(any())).willReturn(Optional.empty());
+
+        mockMvc.perform(get(BEER_ORDER_PATH_ID, UUID.randomUUID())
+                        .with(jwtRequestPostProcessor))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCreateBeerOrder() throws Exception {
+        BeerOrderDTO beerOrderDTO = beerOrder();
+        given(beerOrderService.createBeerOrder(any())).willReturn(beerOrderDTO);
+
+        mockMvc.perform(post(BEER_ORDER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createOrder(UUID.randomUUID(), 6))))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", BEER_ORDER_PATH + "/" + beerOrderDTO.getId()));
+    }
+
+    @Test
+    void testCreateBeerOrderInvalidLine() throws Exception {
+        mockMvc.perform(post(BEER_ORDER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createOrder(null, 0))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.length()", is(2)));
+
+        verify(beerOrderService, never()).createBeerOrder(any());
+    }
+
+    @Test
+    void testCreateBeerOrderUnknownBeer() throws Exception {
+        given(beerOrderService.createBeerOrder(any())).willThrow(new InvalidBeerOrderException("Unknown beers"));
+
+        mockMvc.perform(post(BEER_ORDER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createOrder(UUID.randomUUID(), 1))))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static BeerOrderCreateDTO createOrder(UUID beerId, int orderQuantity) {
+        return BeerOrderCreateDTO.builder()
+                .customerId(UUID.randomUUID())
+                .customerRef("Test Order")
+                .beerOrderLines(List.of(BeerOrderLineCreateDTO.builder()
+                        .beerId(beerId)
+                        .orderQuantity(orderQuantity)
+                        .build()))
+                .build();
+    }
+
+    private static BeerOrderDTO beerOrder() {
+        return BeerOrderDTO.builder()
+                .id(UUID.randomUUID())
+                .version(0L)
+                .customerId(UUID.randomUUID())
+                .customerRef("Test Order")
+                .beerOrderLines(Set.of(BeerOrderLineDTO.builder()
+                        .id(UUID.randomUUID())
+                        .beerId(UUID.randomUUID())
+                        .beerName("Galaxy Cat")
+                        .orderQuantity(6)
+                        .quantityAllocated(0)
+                        .build()))
+                .build();
+    }
+
+}
@@ -1,24 +1,45 @@
 package com.ossant.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ossant.entities.Customer;
 import com.ossant.mappers.CustomerMapper;
+import com.ossant.model.CursorPage;
 import com.ossant.model.CustomerDTO;
 import com.ossant.repositories.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.WebApplicationContext;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+import static com.ossant.controller.CustomerControllerTest.jwtRequestPostProcessor;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @ActiveProfiles("local-mysql")
@@ -34,10 +55,26 @@ class CustomerControllerIT {
     @Autowired
     CustomerMapper customerMapper;
 
+    @Autowired
+    WebApplicationContext webApplicationContext;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+    }
+
     @Test
-    void testListAllCustomers() {
-        List<CustomerDTO> customerDTOS = customerController.listAllCustomers();
-        assertThat(customerDTOS.size()).isEqualTo(3);
+    void testListCustomers() {
+        Page<CustomerDTO> customerDTOS = customerController.listCustomers(null, null, null, null, webRequest());
+        assertThat(customerDTOS.getContent().size()).isEqualTo(3);
+        assertThat(customerDTOS.getTotalElements()).isEqualTo(3);
     }
 
     @Transactional
@@ -45,20 +82,74 @@ class CustomerControllerIT {
     @Test
     void testEmptyCustomersList() {
         customerRepository.deleteAll();
-        List<CustomerDTO> customerDTOS = customerController.listAllCustomers();
-        assertThat(customerDTOS.size()).isEqualTo(0);
+        Page<CustomerDTO> customerDTOS = customerController.listCustomers(null, null, null, null, webRequest());
+        assertThat(customerDTOS.getContent().size()).isEqualTo(0);
+    }
+
+    @Transactional
+    @Rollback
+    @Test
+    void testListCustomersByNameAndEmail() {
+        customerRepository.save(Customer.builder().name("Jane Roe").email("jane@Example.com").build());
+        customerRepository.save(Customer.builder().name("John Roe").email("john@example.org").build());
+
+        assertThat(customerController.listCustomers("roe", null, 1, 25, webRequest()).getContent())
+                .extracting(CustomerDTO::getName).containsExactly("Jane Roe", "John Roe");
+        assertThat(customerController.listCustomers(null, "EXAMPLE.COM", 1, 25, webRequest()).getContent())
+                .extracting(CustomerDTO::getName).containsExactly("Jane Roe");
+        assertThat(customerController.listCustomers("John", "example.com", 1, 25, webRequest()).getContent())
+                .isEmpty();
+    }
+
+    @Transactional
+    @Rollback
+    @Test
+    void testListCustomersByCursorVisitsEveryCustomerOnce() {
+        customerRepository.save(Customer.builder().email("nameless@example.com").build());
+        customerRepository.save(Customer.builder().email("also.nameless@example.com").build());
+        customerRepository.save(Customer.builder().name("").email("empty@example.com").build());
+        List<UUID> offsetOrder = customerController.listCustomers(null, null, 1, 25, webRequest()).getContent()
+                .stream().map(CustomerDTO::getId).toList();
+
+        List<UUID> seen = new ArrayList<>();
+        String cursor = "";
+        do {
+            CursorPage<CustomerDTO> page = customerController.listCustomersAfter(null, null, cursor, 2, webRequest());
+            page.getContent().forEach(customerDTO -> seen.add(customerDTO.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(6).containsExactlyElementsOf(offsetOrder);
+    }
+
+    @Test
+    void testExportCustomers() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get(CustomerController.CUSTOMER_EXPORT_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize((int) customerRepository.count());
+        assertThat(objectMapper.readValue(lines[0], CustomerDTO.class).getId()).isNotNull();
     }
 
     @Test
     void testGetCustomerById() {
         Customer customer = customerRepository.findAll().get(0);
-        CustomerDTO customerDTO = customerController.getCustomerById(customer.getId());
+        CustomerDTO customerDTO = customerController.getCustomerById(customer.getId(), webRequest());
         assertThat(customerDTO).isNotNull();
     }
 
     @Test
     void testGetCustomerByIdNotFound() {
-        assertThrows(NotFoundException.class, () -> customerController.getCustomerById(UUID.randomUUID()));
+        assertThrows(NotFoundException.class, () -> customerController.getCustomerById(UUID.randomUUID(), webRequest()));
     }
 
     @Rollback
@@ -94,6 +185,41 @@ class CustomerControllerIT {
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(204));
         Customer updatedCustomer = customerRepository.findById(customer.getId()).get();
         assertThat(updatedCustomer.getName()).isEqualTo(customerName);
+        assertThat(updatedCustomer.getVersion()).isEqualTo(customer.getVersion() + 1);
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void testUpdateCustomerStaleVersion() {
+        Customer customer = customerRepository.findAll().get(0);
+        CustomerDTO customerDTO = customerMapper.customerToCustomerDto(customer);
+        customerDTO.setName("UPDATED NAME");
+        customerController.updateCustomerByID(customer.getId(), customerDTO);
+
+        customerDTO.setName("UPDATED AGAIN");
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> customerController.updateCustomerByID(customer.getId(), customerDTO));
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> customerController.patchCustomerById(customer.getId(), customerDTO));
+        Customer updatedCustomer = customerRepository.findById(customer.getId()).get();
+        assertThat(updatedCustomer.getName()).isEqualTo("UPDATED NAME");
+        assertThat(updatedCustomer.getVersion()).isEqualTo(customer.getVersion() + 1);
+    }
+
+    @Rollback
+    @Transactional
+    @Test
+    void testPatchCustomerSetsUpdateDateAndSkipsEmptyPatches() {
+        Customer customer = customerRepository.findAll().get(0);
+
+        customerController.patchCustomerById(customer.getId(), CustomerDTO.builder().build());
+        assertThat(customerRepository.findById(customer.getId()).get().getVersion()).isEqualTo(customer.getVersion());
+
+        customerController.patchCustomerById(customer.getId(), CustomerDTO.builder().name("PATCHED").build());
+        Customer patchedCustomer = customerRepository.findById(customer.getId()).get();
+        assertThat(patchedCustomer.getVersion()).isEqualTo(customer.getVersion() + 1);
+        assertThat(patchedCustomer.getUpdateDate()).isAfter(customer.getUpdateDate());
     }
 
     @Test
@@ -133,6 +259,19 @@ class CustomerControllerIT {
         assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(204));
         Customer patchedCustomer = customerRepository.findById(customer.getId()).get();
         assertThat(patchedCustomer.getName()).isEqualTo(customerName);
+        assertThat(patchedCustomer.getVersion()).isEqualTo(customer.getVersion() + 1);
+    }
+
+    @Test
+    void testCustomerPatchByIdNotFound() {
+        assertThrows(NotFoundException.class, () -> {
+            customerController.patchCustomerById(UUID.randomUUID(), CustomerDTO.builder().name("PATCHED").build());
+        });
+    }
+
+    // Controllers are called directly here, so there are no conditional headers to evaluate
+    private static WebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest());
     }
 
-}
\ No newline at end of file
+}
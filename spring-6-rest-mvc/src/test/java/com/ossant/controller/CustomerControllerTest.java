@@ -2,7 +2,9 @@ package com.ossant.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ossant.configuration.SpringSecurityConfig;
+import com.ossant.model.CursorPage;
 import com.ossant.model.CustomerDTO;
+import com.ossant.services.CustomerExportService;
 import com.ossant.services.CustomerService;
 import com.ossant.services.CustomerServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,7 +16,10 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -28,6 +33,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -48,6 +54,9 @@ class CustomerControllerTest {
     @MockBean
     CustomerService customerService;
 
+    @MockBean
+    CustomerExportService customerExportService;
+
     @Captor
     ArgumentCaptor<UUID> uuidArgumentCaptor;
 
@@ -72,33 +81,76 @@ class CustomerControllerTest {
     }
 
     @Test
-    void testListAllCustomers() throws Exception {
-        given(customerService.getAllCustomers()).willReturn(customerServiceImpl.getAllCustomers());
+    void testListCustomers() throws Exception {
+        given(customerService.listCustomers(any(), any(), any(), any()))
+                .willReturn(customerServiceImpl.listCustomers(null, null, 1, 25));
         mockMvc.perform(get(CUSTOMER_PATH)
                         //.with(httpBasic(USERNAME, PASSWORD))
                         .with(jwtRequestPostProcessor)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.length()", is(3)));
+                .andExpect(jsonPath("$.content.length()", is(3)))
+                .andExpect(jsonPath("$.totalElements", is(3)));
     }
 
     @Test
     void testEmptyCustomerList() throws Exception {
-        given(customerService.getAllCustomers()).willReturn(List.of());
+        given(customerService.listCustomers(any(), any(), any(), any())).willReturn(Page.empty());
         mockMvc.perform(get(CUSTOMER_PATH)
                         //.with(httpBasic(USERNAME, PASSWORD))
                         .with(jwtRequestPostProcessor)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.length()", is(0)));
+                .andExpect(jsonPath("$.content.length()", is(0)));
+
+    }
+
+    @Test
+    void testListCustomersPassesTheFilter() throws Exception {
+        given(customerService.listCustomers(any(), any(), any(), any())).willReturn(Page.empty());
+        mockMvc.perform(get(CUSTOMER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("name", "Customer")
+                        .queryParam("email", "example.com")
+                        .queryParam("pageNumber", "2")
+                        .queryParam("pageSize", "10")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(customerService).listCustomers("Customer", "example.com", 2, 10);
+    }
 
+    @Test
+    void testListCustomersByCursor() throws Exception {
+        given(customerService.listCustomersAfter(any(), any(), any(), any()))
+                .willReturn(customerServiceImpl.listCustomersAfter(null, null, "", 2));
+        mockMvc.perform(get(CUSTOMER_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .queryParam("cursor", "")
+                        .queryParam("pageSize", "2")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(2)))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void testListCustomersByCursorWalksAllCustomers() {
+        CursorPage<CustomerDTO> firstPage = customerServiceImpl.listCustomersAfter(null, null, "", 2);
+        CursorPage<CustomerDTO> lastPage = customerServiceImpl.listCustomersAfter(null, null,
+                firstPage.getNextCursor(), 2);
+        assertThat(firstPage.getContent()).hasSize(2);
+        assertThat(lastPage.getContent()).hasSize(1);
+        assertThat(lastPage.getNextCursor()).isNull();
+        assertThat(firstPage.getContent()).doesNotContainAnyElementsOf(lastPage.getContent());
     }
 
     @Test
     void testGetCustomerById() throws Exception {
-        CustomerDTO customerDTO = customerServiceImpl.getAllCustomers().get(0);
+        CustomerDTO customerDTO = customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(0);
         given(customerService.getCustomerById(customerDTO.getId())).willReturn(Optional.of(customerDTO));
         mockMvc.perform(get(CUSTOMER_PATH_ID, customerDTO.getId())
                         //.with(httpBasic(USERNAME, PASSWORD))
@@ -110,6 +162,38 @@ class CustomerControllerTest {
                 .andExpect(jsonPath("$.name", is(customerDTO.getName())));
     }
 
+    @Test
+    void testGetCustomerByIdNotModified() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        given(customerService.getCustomerVersion(customerId)).willReturn(Optional.of(1));
+
+        mockMvc.perform(get(CUSTOMER_PATH_ID, customerId)
+                        .with(jwtRequestPostProcessor)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"1\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(customerService, never()).getCustomerById(any(UUID.class));
+    }
+
+    @Test
+    void testGetCustomerByIdChangedVersion() throws Exception {
+        CustomerDTO customerDTO = customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(0);
+        customerDTO.setVersion(2);
+        given(customerService.getCustomerVersion(customerDTO.getId())).willReturn(Optional.of(2));
+        given(customerService.getCustomerById(customerDTO.getId())).willReturn(Optional.of(customerDTO));
+
+        mockMvc.perform(get(CUSTOMER_PATH_ID, customerDTO.getId())
+                        .with(jwtRequestPostProcessor)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"1\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"2\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(jsonPath("$.id", is(customerDTO.getId().toString())));
+    }
+
     @Test
     void getCustomerByIdNotFound() throws Exception {
         //given(customerService.getCustomerById(any(UUID.class))).willThrow(NotFoundException.class);
@@ -122,11 +206,11 @@ class CustomerControllerTest {
 
     @Test
     void testSaveNewCustomer() throws Exception {
-        CustomerDTO customerDTO = customerServiceImpl.getAllCustomers().get(0);
+        CustomerDTO customerDTO = customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(0);
         customerDTO.setId(null);
         customerDTO.setVersion(null);
         given(customerService.saveNewCustomer(any(CustomerDTO.class)))
-                .willReturn(customerServiceImpl.getAllCustomers().get(1));
+                .willReturn(customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(1));
         mockMvc.perform(post(CUSTOMER_PATH)
                         //.with(httpBasic(USERNAME, PASSWORD))
                         .with(jwtRequestPostProcessor)
@@ -139,8 +223,8 @@ class CustomerControllerTest {
 
     @Test
     void testUpdateCustomerByID() throws Exception {
-        CustomerDTO customerDTO = customerServiceImpl.getAllCustomers().get(0);
-        given(customerService.updateCustomerById(any(), any())).willReturn(Optional.of(customerDTO));
+        CustomerDTO customerDTO = customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(0);
+        given(customerService.updateCustomerById(any(), any())).willReturn(true);
         mockMvc.perform(put(CUSTOMER_PATH_ID, customerDTO.getId())
                         //.with(httpBasic(USERNAME, PASSWORD))
                         .with(jwtRequestPostProcessor)
@@ -153,8 +237,8 @@ class CustomerControllerTest {
 
     @Test
     void testUpdateCustomerByIdNotFound() throws Exception {
-        CustomerDTO customerDTO = customerServiceImpl.getAllCustomers().get(0);
-        given(customerService.updateCustomerById(any(), any())).willReturn(Optional.empty());
+        CustomerDTO customerDTO = customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(0);
+        given(customerService.updateCustomerById(any(), any())).willReturn(false);
         mockMvc.perform(put(CUSTOMER_PATH_ID, customerDTO.getId())
                         //.with(httpBasic(USERNAME, PASSWORD))
                         .with(jwtRequestPostProcessor)
@@ -165,9 +249,22 @@ class CustomerControllerTest {
         verify(customerService).updateCustomerById(any(UUID.class), any(CustomerDTO.class));
     }
 
+    @Test
+    void testUpdateCustomerByIdStaleVersion() throws Exception {
+        CustomerDTO customerDTO = customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(0);
+        given(customerService.updateCustomerById(any(), any()))
+                .willThrow(new ObjectOptimisticLockingFailureException(CustomerDTO.class, customerDTO.getId()));
+        mockMvc.perform(put(CUSTOMER_PATH_ID, customerDTO.getId())
+                        .with(jwtRequestPostProcessor)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(customerDTO)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void testDeleteCustomerById() throws Exception {
-        CustomerDTO customerDTO = customerServiceImpl.getAllCustomers().get(0);
+        CustomerDTO customerDTO = customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(0);
         given(customerService.deleteCustomerById(any())).willReturn(true);
         mockMvc.perform(delete(CUSTOMER_PATH_ID, customerDTO.getId())
                         //.with(httpBasic(USERNAME, PASSWORD))
@@ -181,7 +278,7 @@ class CustomerControllerTest {
 
     @Test
     void testDeleteCustomerByIdNotFound() throws Exception {
-        CustomerDTO customerDTO = customerServiceImpl.getAllCustomers().get(0);
+        CustomerDTO customerDTO = customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(0);
         given(customerService.deleteCustomerById(any())).willReturn(false);
         mockMvc.perform(delete(CUSTOMER_PATH_ID, customerDTO.getId())
                         //.with(httpBasic(USERNAME, PASSWORD))
@@ -195,10 +292,10 @@ class CustomerControllerTest {
 
     @Test
     void testPatchCustomerById() throws Exception {
-        CustomerDTO customerDTO = customerServiceImpl.getAllCustomers().get(0);
+        CustomerDTO customerDTO = customerServiceImpl.listCustomers(null, null, 1, 25).getContent().get(0);
         Map<String, Object> customerMap = new HashMap<>();
         customerMap.put("name", "New Name");
-        given(customerService.patchCustomerById(any(), any())).willReturn(Optional.of(customerDTO));
+        given(customerService.patchCustomerById(any(), any())).willReturn(true);
         mockMvc.perform(patch(CUSTOMER_PATH_ID, customerDTO.getId())
                         //.with(httpBasic(USERNAME, PASSWORD))
                         .with(jwtRequestPostProcessor)
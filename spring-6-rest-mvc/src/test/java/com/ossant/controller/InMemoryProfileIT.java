@@ -0,0 +1,108 @@
+package com.ossant.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ossant.model.BeerDTO;
+import com.ossant.model.BeerRestockDTO;
+import com.ossant.model.BeerStyle;
+import com.ossant.services.BeerService;
+import com.ossant.services.BeerServiceImpl;
+import com.ossant.services.CustomerService;
+import com.ossant.services.CustomerServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static com.ossant.controller.CustomerControllerTest.jwtRequestPostProcessor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+    The in-memory profile runs without a database: the beer and customer APIs are served from the in-memory
+    services and the database-only endpoints answer 501 (or 404 for the order controller, which doesn't exist).
+ */
+@SpringBootTest
+@ActiveProfiles("in-memory")
+class InMemoryProfileIT {
+
+    @Autowired
+    WebApplicationContext webApplicationContext;
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void testNoDatabaseIsConfigured() {
+        assertThat(applicationContext.getBeansOfType(DataSource.class)).isEmpty();
+        // Behind the metrics proxies
+        assertThat(AopUtils.getTargetClass(applicationContext.getBean(BeerService.class)))
+                .isEqualTo(BeerServiceImpl.class);
+        assertThat(applicationContext.getBeansOfType(CustomerService.class).values())
+                .singleElement().extracting(AopUtils::getTargetClass).isEqualTo(CustomerServiceImpl.class);
+    }
+
+    @Test
+    void testBeersAndCustomersAreServed() throws Exception {
+        mockMvc.perform(get(BeerController.BEER_PATH).with(jwtRequestPostProcessor))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(CustomerController.CUSTOMER_PATH).with(jwtRequestPostProcessor))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testDatabaseOnlyEndpointsAreNotAvailable() throws Exception {
+        BeerDTO beerDTO = BeerDTO.builder()
+                .beerName("Batch Beer")
+                .beerStyle(BeerStyle.IPA)
+                .upc("123456")
+                .price(BigDecimal.TEN)
+                .build();
+        mockMvc.perform(post(BeerController.BEER_BATCH_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(beerDTO))))
+                .andExpect(status().isNotImplemented());
+        mockMvc.perform(post(BeerController.BEER_RESTOCK_PATH)
+                        .with(jwtRequestPostProcessor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BeerRestockDTO.builder()
+                                .upcs(List.of("123456")).quantity(24).build())))
+                .andExpect(status().isNotImplemented());
+        mockMvc.perform(get(BeerController.BEER_EXPORT_PATH).with(jwtRequestPostProcessor))
+                .andExpect(status().isNotImplemented());
+        mockMvc.perform(get(BeerController.BEER_IMPORT_PATH_ID, UUID.randomUUID()).with(jwtRequestPostProcessor))
+                .andExpect(status().isNotImplemented());
+        mockMvc.perform(get(CustomerController.CUSTOMER_EXPORT_PATH).with(jwtRequestPostProcessor))
+                .andExpect(status().isNotImplemented());
+        mockMvc.perform(get(BeerOrderController.BEER_ORDER_PATH).with(jwtRequestPostProcessor))
+                .andExpect(status().isNotFound());
+    }
+
+}
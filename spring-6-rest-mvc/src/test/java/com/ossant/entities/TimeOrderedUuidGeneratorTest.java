@@ -0,0 +1,34 @@
+package com.ossant.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    void testVersionAndVariant() {
+        UUID id = TimeOrderedUuidGenerator.next();
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+    }
+
+    @Test
+    void testLeadingBitsAreTheTimestamp() {
+        long now = System.currentTimeMillis();
+        assertThat(TimeOrderedUuidGenerator.next(now).getMostSignificantBits() >>> 16).isEqualTo(now);
+    }
+
+    @Test
+    void testLaterIdsSortAfterEarlierOnesAsText() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 1000; i++) {
+            String earlier = TimeOrderedUuidGenerator.next(now + i).toString();
+            String later = TimeOrderedUuidGenerator.next(now + i + 1).toString();
+            assertThat(later).isGreaterThan(earlier);
+        }
+    }
+
+}
@@ -2,15 +2,23 @@ package com.ossant.repositories;
 
 import com.ossant.entities.Beer;
 import com.ossant.model.BeerStyle;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
 import jakarta.validation.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -58,21 +66,69 @@ class BeerRepositoryTest {
 
     @Test
     void testGetBeerListByName() {
-        Page<Beer> list = beerRepository.findAllByBeerNameIsLikeIgnoreCase("%IPA%", null);
+        Page<Tuple> list = beerRepository.findAllProjected(new BeerSearch().beerNameLike("%IPA%"), List.of("id"),
+                Pageable.unpaged());
         assertThat(list.getContent().size()).isEqualTo(336);
     }
 
     @Test
     void testGetBeerListByBeerStyle() {
-        Page<Beer> list = beerRepository.findAllByBeerStyle(BeerStyle.IPA, null);
+        Page<Tuple> list = beerRepository.findAllProjected(new BeerSearch().beerStyle(BeerStyle.IPA), List.of("id"),
+                Pageable.unpaged());
         assertThat(list.getContent().size()).isEqualTo(548);
     }
 
     @Test
     void testGetBeerListByBeerNameAndBeerStyle() {
-        Page<Beer> list = beerRepository
-                .findAllByBeerNameIsLikeIgnoreCaseAndBeerStyle("%IPA%", BeerStyle.IPA, null);
+        Page<Tuple> list = beerRepository.findAllProjected(
+                new BeerSearch().beerNameLike("%IPA%").beerStyle(BeerStyle.IPA), List.of("id"), Pageable.unpaged());
         assertThat(list.getContent().size()).isEqualTo(310);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testProjectedListingsOnlyReadTheRequestedColumns() {
+        beerRepository.saveAndFlush(Beer.builder()
+                .beerName("MyBeer")
+                .beerStyle(BeerStyle.PALE_ALE)
+                .upc("2222")
+                .quantityOnHand(12)
+                .price(new BigDecimal("11.99"))
+                .build());
+        PageRequest pageRequest = PageRequest.of(0, 10);
+
+        Tuple withInventory = beerRepository.findAllProjected(new BeerSearch().beerStyle(BeerStyle.PALE_ALE),
+                List.of("beerName", "quantityOnHand"), pageRequest).getContent().get(0);
+        Tuple withoutInventory = beerRepository.findAllProjected(new BeerSearch().beerStyle(BeerStyle.PALE_ALE),
+                List.of("beerName"), pageRequest).getContent().get(0);
+
+        assertThat(withInventory.get("quantityOnHand")).isEqualTo(12);
+        assertThat(withoutInventory.getElements()).extracting(TupleElement::getAlias).containsExactly("beerName");
+        assertThat(withoutInventory.get("beerName")).isEqualTo("MyBeer");
+    }
+
+    @Test
+    void testKeysetSlicesContinueAfterTheCursorRow() {
+        for (String beerName : List.of("Beer A", "Beer B", "Beer C")) {
+            beerRepository.save(Beer.builder()
+                    .beerName(beerName)
+                    .beerStyle(BeerStyle.PALE_ALE)
+                    .upc("2222")
+                    .price(new BigDecimal("11.99"))
+                    .build());
+        }
+        beerRepository.flush();
+        PageRequest pageRequest = PageRequest.of(0, 1, Sort.by(Sort.Order.asc("beerName"), Sort.Order.asc("id")));
+
+        Slice<Tuple> first = beerRepository.findSliceProjected(
+                new BeerSearch().beerStyle(BeerStyle.PALE_ALE).after("", new UUID(0, 0)), List.of("id", "beerName"),
+                pageRequest);
+        Tuple row = first.getContent().get(0);
+        Slice<Tuple> second = beerRepository.findSliceProjected(new BeerSearch().beerStyle(BeerStyle.PALE_ALE)
+                .after(row.get("beerName", String.class), row.get("id", UUID.class)), List.of("id", "beerName"),
+                pageRequest);
+
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).extracting(tuple -> tuple.get("beerName")).containsExactly("Beer B");
+    }
+
+}
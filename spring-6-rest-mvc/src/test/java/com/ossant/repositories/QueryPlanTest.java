@@ -0,0 +1,342 @@
+package com.ossant.repositories;
+
+import com.ossant.entities.Beer;
+import com.ossant.entities.BeerOrder;
+import com.ossant.entities.BeerOrderLine;
+import com.ossant.entities.BeerOrderShipment;
+import com.ossant.entities.Category;
+import com.ossant.entities.Customer;
+import com.ossant.model.BeerField;
+import com.ossant.model.BeerStyle;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+    Runs the repository queries against an embedded H2 database, explains every statement they send and fails
+    when a table is read with a full scan. The seeded rows give the optimizer realistic row counts; on empty
+    tables H2 would rather scan than use an index.
+
+    H2 marks a full scan as "tableScan" in the plan. A count over a whole table is answered from the table's row
+    count instead ("direct lookup"), which is fine. Queries meant to read every row (streamAllBeerNames for the
+    name index rebuild) aren't checked.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.ossant.repositories.QueryPlanTest$CapturedStatements")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+class QueryPlanTest {
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* [\\w.]+\\.tableScan \\*/");
+
+    // What the beer listing selects when all fields are shown
+    private static final List<String> LISTING_ATTRIBUTES = Arrays.stream(BeerField.values())
+            .map(BeerField::getProperty)
+            .toList();
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    BeerOrderRepository beerOrderRepository;
+
+    @Autowired
+    CustomerRepository customerRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    Beer beer;
+
+    BeerOrder beerOrder;
+
+    Customer customer;
+
+    @BeforeEach
+    void setup() {
+        List<Beer> beers = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            beers.add(Beer.builder()
+                    .beerName("Beer " + i)
+                    .beerStyle(BeerStyle.values()[i % BeerStyle.values().length])
+                    .upc("upc" + i)
+                    .price(new BigDecimal("9.99"))
+                    .quantityOnHand(i)
+                    .build());
+        }
+        beerRepository.saveAll(beers);
+        beer = beers.get(0);
+
+        customer = customerRepository.save(Customer.builder().name("Customer").build());
+        for (int i = 0; i < 200; i++) {
+            customerRepository.save(Customer.builder().name(i % 10 == 0 ? null : "Customer " + i).build());
+        }
+        for (int i = 0; i < 200; i++) {
+            BeerOrder order = BeerOrder.builder()
+                    .customerRef("Order " + i)
+                    .customer(customer)
+                    .beerOrderShipment(BeerOrderShipment.builder().trackingNumber("T" + i).build())
+                    .build();
+            entityManager.persist(order);
+            for (int line = 0; line < 3; line++) {
+                entityManager.persist(BeerOrderLine.builder()
+                        .beerOrder(order)
+                        .beer(beers.get((i + line) % beers.size()))
+                        .orderQuantity(1)
+                        .build());
+            }
+            beerOrder = order;
+        }
+        entityManager.flush();
+        entityManager.clear();
+        CapturedStatements.STATEMENTS.clear();
+    }
+
+    @Test
+    void testFindAllProjectedUnfiltered() {
+        beerRepository.findAllProjected(new BeerSearch(), LISTING_ATTRIBUTES, listingPage());
+        assertNoTableScans();
+    }
+
+    @Test
+    void testFindAllProjectedByBeerName() {
+        beerRepository.findAllProjected(new BeerSearch().beerNameLike("%Beer 1%"), LISTING_ATTRIBUTES, listingPage());
+        assertNoTableScans();
+    }
+
+    @Test
+    void testFindAllProjectedByBeerStyle() {
+        beerRepository.findAllProjected(new BeerSearch().beerStyle(BeerStyle.IPA), LISTING_ATTRIBUTES, listingPage());
+        assertNoTableScans();
+    }
+
+    @Test
+    void testFindAllProjectedByIdIn() {
+        beerRepository.findAllProjected(new BeerSearch().idIn(Set.of(beer.getId(), UUID.randomUUID())),
+                LISTING_ATTRIBUTES, listingPage());
+        assertNoTableScans();
+    }
+
+    @Test
+    void testFindAllProjectedByIdInAndBeerStyle() {
+        beerRepository.findAllProjected(new BeerSearch().idIn(Set.of(beer.getId(), UUID.randomUUID()))
+                .beerStyle(BeerStyle.IPA), LISTING_ATTRIBUTES, listingPage());
+        assertNoTableScans();
+    }
+
+    @Test
+    void testFindSliceProjectedAfter() {
+        beerRepository.findSliceProjected(new BeerSearch().after("Beer 1", beer.getId()), LISTING_ATTRIBUTES,
+                seekPage());
+        assertNoTableScans();
+    }
+
+    @Test
+    void testFindSliceProjectedByBeerNameAfter() {
+        beerRepository.findSliceProjected(new BeerSearch().beerNameLike("%Beer 1%").after("Beer 1", beer.getId()),
+                LISTING_ATTRIBUTES, seekPage());
+        assertNoTableScans();
+    }
+
+    @Test
+    void testFindSliceProjectedByBeerStyleAfter() {
+        beerRepository.findSliceProjected(new BeerSearch().beerStyle(BeerStyle.IPA).after("Beer 1", beer.getId()),
+                LISTING_ATTRIBUTES, seekPage());
+        assertNoTableScans();
+    }
+
+    @Test
+    void testFindSliceProjectedByIdInAfter() {
+        beerRepository.findSliceProjected(new BeerSearch().idIn(Set.of(beer.getId(), UUID.randomUUID()))
+                .after("Beer 1", beer.getId()), LISTING_ATTRIBUTES, seekPage());
+        assertNoTableScans();
+    }
+
+    @Test
+    void testFindSliceProjectedByBeerNameAndBeerStyleAfter() {
+        beerRepository.findSliceProjected(new BeerSearch().beerNameLike("%Beer 1%").beerStyle(BeerStyle.IPA)
+                .after("Beer 1", beer.getId()), LISTING_ATTRIBUTES, seekPage());
+        assertNoTableScans();
+    }
+
+    @Test
+    void testFindSliceProjectedByIdInAndBeerStyleAfter() {
+        beerRepository.findSliceProjected(new BeerSearch().idIn(Set.of(beer.getId(), UUID.randomUUID()))
+                .beerStyle(BeerStyle.IPA).after("Beer 1", beer.getId()), LISTING_ATTRIBUTES, seekPage());
+        assertNoTableScans();
+    }
+
+    @Test
+    void testFindSliceProjectedByPriceAndStockAfter() {
+        beerRepository.findSliceProjected(new BeerSearch().minPrice(new BigDecimal("5")).inStock()
+                .after("Beer 1", beer.getId()), LISTING_ATTRIBUTES, seekPage());
+        assertNoTableScans();
+    }
+
+    @Test
+    void testFindAllProjected() {
+        beerRepository.findAllProjected(new BeerSearch().beerStyle(BeerStyle.IPA).beerNameLike("%Beer 1%"),
+                List.of("id", "version", "beerName", "price"), listingPage());
+        assertNoTableScans();
+        // The select list holds the requested columns only
+        assertThat(CapturedStatements.STATEMENTS.get(0)).doesNotContain("upc", "quantity_on_hand", "created_date");
+    }
+
+    @Test
+    void testFindAllProjectedByCategoryPriceAndStock() {
+        Category category = new Category();
+        category.setDescription("Hoppy");
+        entityManager.persist(category);
+        entityManager.flush();
+        CapturedStatements.STATEMENTS.clear();
+
+        beerRepository.findAllProjected(new BeerSearch().beerStyle(BeerStyle.IPA).category(category.getId())
+                        .minPrice(new BigDecimal("5")).maxPrice(new BigDecimal("10")).inStock(),
+                List.of("id", "version", "beerName"), listingPage());
+        assertNoTableScans();
+        assertThat(CapturedStatements.STATEMENTS.get(0)).contains("exists").doesNotContain(" join ");
+    }
+
+    // Equal filters give one query string whatever their values and the order they were added in
+    @Test
+    void testSearchesWithTheSameFiltersShareTheirPlan() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        beerRepository.findAllProjected(new BeerSearch().beerStyle(BeerStyle.IPA).minPrice(BigDecimal.ONE),
+                List.of("id", "version", "beerName"), listingPage());
+        long planCacheHits = statistics.getQueryPlanCacheHitCount();
+
+        beerRepository.findAllProjected(new BeerSearch().minPrice(BigDecimal.TEN).beerStyle(BeerStyle.ALE),
+                List.of("id", "version", "beerName"), listingPage());
+
+        assertThat(CapturedStatements.STATEMENTS).hasSize(4);
+        assertThat(CapturedStatements.STATEMENTS.get(2)).isEqualTo(CapturedStatements.STATEMENTS.get(0));
+        assertThat(CapturedStatements.STATEMENTS.get(3)).isEqualTo(CapturedStatements.STATEMENTS.get(1));
+        assertThat(statistics.getQueryPlanCacheHitCount()).isGreaterThan(planCacheHits);
+    }
+
+    @Test
+    void testFindVersionById() {
+        beerRepository.findVersionById(beer.getId());
+        assertNoTableScans();
+    }
+
+    @Test
+    void testRepriceBeers() {
+        assertThat(beerRepository.repriceBeers(BeerStyle.IPA, new BigDecimal("1.05"), LocalDateTime.now()))
+                .isPositive();
+        assertNoTableScans();
+    }
+
+    @Test
+    void testRestockBeers() {
+        assertThat(beerRepository.restockBeers(Set.of("upc1", "upc2", "upc3"), 10, LocalDateTime.now()))
+                .isEqualTo(3);
+        assertNoTableScans();
+    }
+
+    @Test
+    void testStreamAllOrderedByBeerName() {
+        try (var beers = beerRepository.streamAllOrderedByBeerName()) {
+            assertThat(beers.limit(10).count()).isEqualTo(10);
+        }
+        assertNoTableScans();
+    }
+
+    @Test
+    void testCustomerListingAfter() {
+        customerRepository.findAllByFilterAfter(null, null, "Customer 1", customer.getId(), PageRequest.of(0, 25));
+        assertNoTableScans();
+    }
+
+    @Test
+    void testCustomerListingAfterNameless() {
+        customerRepository.findAllByFilterAfterNameless(null, null, customer.getId(), PageRequest.of(0, 25));
+        assertNoTableScans();
+    }
+
+    @Test
+    void testBeerOrderFindWithLinesById() {
+        assertThat(beerOrderRepository.findWithLinesById(beerOrder.getId())).isPresent();
+        assertNoTableScans();
+    }
+
+    @Test
+    void testBeerOrderListing() {
+        var page = beerOrderRepository.findAllWithCustomerAndShipment(PageRequest.of(1, 25,
+                Sort.by(Sort.Order.desc("createdDate"), Sort.Order.asc("id"))));
+        beerOrderRepository.fetchLines(page.getContent());
+        assertNoTableScans();
+    }
+
+    private static PageRequest listingPage() {
+        return PageRequest.of(1, 25, Sort.by(Sort.Order.asc("beerName"), Sort.Order.asc("id")));
+    }
+
+    private static PageRequest seekPage() {
+        return PageRequest.of(0, 25, Sort.by(Sort.Order.asc("beerName"), Sort.Order.asc("id")));
+    }
+
+    private void assertNoTableScans() {
+        List<String> statements = List.copyOf(CapturedStatements.STATEMENTS);
+        assertThat(statements).isNotEmpty();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            Matcher tableScan = TABLE_SCAN.matcher(plan);
+            if (tableScan.find() && !plan.contains("/* direct lookup */")) {
+                throw new AssertionError("Full scan (" + tableScan.group() + ") in the plan of\n" + plan);
+            }
+        }
+    }
+
+    // Plans are made at prepare time, so the parameters only need a value, not a meaningful one
+    private String explain(String sql) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                    statement.setNull(i, Types.NULL);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(1);
+                }
+            }
+        });
+    }
+
+    public static class CapturedStatements implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.ossant.repositories;
+
+import com.ossant.configuration.SecondLevelCacheMetricsConfig;
+import com.ossant.entities.Beer;
+import com.ossant.entities.Category;
+import com.ossant.model.BeerStyle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Tuple;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+    Every repository call runs in its own transaction here, so entries reach the second-level cache on commit the
+    way they do in the application. Prepared statement counts show whether a read went to the database.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Statistics statistics;
+
+    Beer beer;
+
+    Category category;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        category = categoryRepository.save(Category.builder().description("Cached").build());
+        Beer newBeer = Beer.builder()
+                .beerName("Cached Beer")
+                .beerStyle(BeerStyle.GOSE)
+                .upc("4321")
+                .price(new BigDecimal("7.99"))
+                .quantityOnHand(10)
+                .build();
+        newBeer.getCategories().add(category);
+        beer = beerRepository.save(newBeer);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        beerRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void testBeerIsReadFromTheSecondLevelCache() {
+        assertThat(beerRepository.findById(beer.getId())).isPresent();
+        assertThat(beerRepository.findById(beer.getId())).isPresent();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getCacheRegionStatistics(Beer.class.getName()).getHitCount()).isEqualTo(2);
+    }
+
+    // Collections are cached when first loaded, not when inserted
+    @Test
+    void testBeerCategoriesAreReadFromTheSecondLevelCache() {
+        assertThat(loadCategoryCount()).isEqualTo(1);
+        long statementsAfterFirstLoad = statistics.getPrepareStatementCount();
+
+        assertThat(loadCategoryCount()).isEqualTo(1);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirstLoad);
+        assertThat(statistics.getCacheRegionStatistics(Beer.class.getName() + ".categories").getHitCount())
+                .isEqualTo(1);
+        assertThat(statistics.getCacheRegionStatistics(Category.class.getName()).getHitCount()).isPositive();
+    }
+
+    @Test
+    void testStylePagesAreReadFromTheQueryCache() {
+        assertThat(styleNames()).containsExactly("Cached Beer");
+        long statementsAfterFirstPage = statistics.getPrepareStatementCount();
+
+        assertThat(styleNames()).containsExactly("Cached Beer");
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirstPage);
+        assertThat(statistics.getQueryCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void testBulkUpdatesInvalidateTheCachedBeerAndPages() {
+        beerRepository.findById(beer.getId());
+        styleNames();
+
+        beerRepository.patchBeer(beer.getId(), null, "Renamed Beer", null, null, null, null, LocalDateTime.now());
+
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getBeerName()).isEqualTo("Renamed Beer");
+        assertThat(styleNames()).containsExactly("Renamed Beer");
+    }
+
+    @Test
+    void testHitRatioGauges() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new SecondLevelCacheMetricsConfig().secondLevelCacheHitRatio(entityManagerFactory).bindTo(registry);
+
+        beerRepository.findById(beer.getId());
+        styleNames();
+        styleNames();
+
+        assertThat(registry.get("hibernate.second.level.cache.hit.ratio")
+                .tag("region", Beer.class.getName()).gauge().value()).isEqualTo(1.0);
+        assertThat(registry.get("hibernate.query.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    private Integer loadCategoryCount() {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                beerRepository.findById(beer.getId()).orElseThrow().getCategories().size());
+    }
+
+    private List<String> styleNames() {
+        Page<Tuple> page = beerRepository.findAllProjected(new BeerSearch().beerStyle(BeerStyle.GOSE),
+                List.of("id", "version", "beerName"),
+                PageRequest.of(0, 25, Sort.by(Sort.Order.asc("beerName"), Sort.Order.asc("id"))));
+        return page.map(tuple -> tuple.get("beerName", String.class)).getContent();
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.ossant.services;
+
+import com.ossant.model.BeerCsvImportJobDTO;
+import com.ossant.model.BeerCsvImportJobStatus;
+import com.ossant.model.BeerCsvImportResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class BeerCsvImportJobServiceImplTest {
+
+    static final String CSV = "row,count.x,beer,style\n1,12,Crank,American IPA\n2,3,,American IPA\n";
+
+    BeerCsvImportService beerCsvImportService;
+
+    BeerCsvImportJobServiceImpl beerCsvImportJobService;
+
+    CountDownLatch importStarted;
+
+    CountDownLatch releaseImport;
+
+    @BeforeEach
+    void setUp() {
+        beerCsvImportService = mock(BeerCsvImportService.class);
+        beerCsvImportJobService = new BeerCsvImportJobServiceImpl(beerCsvImportService);
+        beerCsvImportJobService.start();
+        importStarted = new CountDownLatch(1);
+        releaseImport = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseImport.countDown();
+        beerCsvImportJobService.stop();
+    }
+
+    @Test
+    void testImportRunsInTheBackground() throws Exception {
+        ArgumentCaptor<File> spooled = ArgumentCaptor.forClass(File.class);
+        given(beerCsvImportService.importCsv(spooled.capture(), any())).willAnswer(invocation -> {
+            assertThat(Files.readString(invocation.getArgument(0, File.class).toPath())).isEqualTo(CSV);
+            invocation.getArgument(1, BeerCsvImportProgress.class).update(2, 1, 1);
+            return BeerCsvImportResult.builder().rowsRead(2).rowsInserted(1).rowsSkipped(1).build();
+        });
+
+        BeerCsvImportJobDTO submitted = beerCsvImportJobService.submitImport(upload());
+        BeerCsvImportJobDTO finished = awaitFinished(submitted.getId());
+
+        assertThat(submitted.getFileName()).isEqualTo("beers.csv");
+        assertThat(finished.getStatus()).isEqualTo(BeerCsvImportJobStatus.COMPLETED);
+        assertThat(finished.getRowsParsed()).isEqualTo(2);
+        assertThat(finished.getRowsInserted()).isEqualTo(1);
+        assertThat(finished.getRowsRejected()).isEqualTo(1);
+        assertThat(finished.getRowsPerSecond()).isPositive();
+        assertThat(finished.getStartedDate()).isNotNull();
+        assertThat(finished.getFinishedDate()).isNotNull();
+        assertThat(spooled.getValue()).doesNotExist();
+    }
+
+    @Test
+    void testRunningImportStopsWhenCancelled() throws Exception {
+        given(beerCsvImportService.importCsv(any(), any())).willAnswer(invocation -> {
+            BeerCsvImportProgress progress = invocation.getArgument(1);
+            importStarted.countDown();
+            while (!progress.isCancelled()) {
+                Thread.sleep(5);
+            }
+            return BeerCsvImportResult.builder().cancelled(true).build();
+        });
+
+        UUID jobId = beerCsvImportJobService.submitImport(upload()).getId();
+        assertThat(importStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(beerCsvImportJobService.cancelImportJob(jobId).orElseThrow().getStatus())
+                .isEqualTo(BeerCsvImportJobStatus.RUNNING);
+        assertThat(awaitFinished(jobId).getStatus()).isEqualTo(BeerCsvImportJobStatus.CANCELLED);
+    }
+
+    @Test
+    void testQueuedImportIsCancelledRightAway() throws Exception {
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        given(beerCsvImportService.importCsv(any(), any())).willAnswer(invocation -> {
+            bothRunning.countDown();
+            return blockingImport();
+        });
+
+        beerCsvImportJobService.submitImport(upload());
+        beerCsvImportJobService.submitImport(upload());
+        // Otherwise stop() could cancel the second import before a thread picks it up
+        assertThat(bothRunning.await(5, TimeUnit.SECONDS)).isTrue();
+        UUID queuedId = beerCsvImportJobService.submitImport(upload()).getId();
+
+        assertThat(beerCsvImportJobService.cancelImportJob(queuedId).orElseThrow().getStatus())
+                .isEqualTo(BeerCsvImportJobStatus.CANCELLED);
+
+        releaseImport.countDown();
+        beerCsvImportJobService.stop();
+        verify(beerCsvImportService, times(2)).importCsv(any(), any());
+    }
+
+    @Test
+    void testFullQueueRejectsTheUpload() throws Exception {
+        given(beerCsvImportService.importCsv(any(), any())).willAnswer(invocation -> blockingImport());
+
+        // Two running, ten queued
+        for (int i = 0; i < 12; i++) {
+            beerCsvImportJobService.submitImport(upload());
+        }
+
+        assertThrows(ImportQueueFullException.class, () -> beerCsvImportJobService.submitImport(upload()));
+    }
+
+    @Test
+    void testFailedImport() throws Exception {
+        given(beerCsvImportService.importCsv(any(), any())).willThrow(new IllegalStateException("Broken file"));
+
+        BeerCsvImportJobDTO finished = awaitFinished(beerCsvImportJobService.submitImport(upload()).getId());
+
+        assertThat(finished.getStatus()).isEqualTo(BeerCsvImportJobStatus.FAILED);
+        assertThat(finished.getError()).isEqualTo("Broken file");
+    }
+
+    @Test
+    void testUnknownJob() {
+        assertThat(beerCsvImportJobService.getImportJob(UUID.randomUUID())).isEmpty();
+        assertThat(beerCsvImportJobService.cancelImportJob(UUID.randomUUID())).isEmpty();
+    }
+
+    private BeerCsvImportResult blockingImport() throws InterruptedException {
+        importStarted.countDown();
+        releaseImport.await(5, TimeUnit.SECONDS);
+        return BeerCsvImportResult.builder().build();
+    }
+
+    private BeerCsvImportJobDTO awaitFinished(UUID jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        BeerCsvImportJobDTO job = beerCsvImportJobService.getImportJob(jobId).orElseThrow();
+        while (job.getFinishedDate() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            job = beerCsvImportJobService.getImportJob(jobId).orElseThrow();
+        }
+        return job;
+    }
+
+    private static MockMultipartFile upload() {
+        return new MockMultipartFile("file", "beers.csv", "text/csv", CSV.getBytes());
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.ossant.services;
+
+import com.ossant.entities.Beer;
+import com.ossant.model.BeerCsvImportResult;
+import com.ossant.repositories.BeerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/*
+    Chunks of two rows, each committed on its own like a startup or background import: the test itself runs
+    without a transaction, otherwise every chunk would join it.
+ */
+@DataJpaTest(properties = "beer.csv.import.chunk-size=2")
+@Import({BeerCsvImportServiceImpl.class, BeerCsvServiceImpl.class, BeerNameIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BeerCsvImportServiceImplTest {
+
+    static final String HEADER = "\"row\",\"count.x\",\"beer\",\"style\"";
+
+    @Autowired
+    BeerCsvImportService beerCsvImportService;
+
+    @Autowired
+    BeerRepository beerRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("alter table beer drop constraint if exists no_failing_beer");
+        beerRepository.deleteAll();
+    }
+
+    @Test
+    void testImportSkipsBadRows() throws IOException {
+        File csvFile = csv(
+                "\"1\",10,\"Alpha\",\"American IPA\"",
+                "\"2\",20,\"Bravo\",\"Oatmeal Stout\"",
+                "\"3\",30,\"\",\"American IPA\"",
+                "\"4\",lots,\"Malformed\",\"American IPA\"",
+                "\"5\",50,\"Charlie\",\"Unknown Style\"",
+                "\"6\",60,\"Delta\",\"American Porter\"",
+                "\"7\",70,\"Echo\",\"Saison / Farmhouse Ale\"");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long cachePuts = statistics.getSecondLevelCachePutCount();
+
+        BeerCsvImportResult result = beerCsvImportService.importCsv(csvFile);
+
+        // Imports stay out of the second-level cache
+        assertThat(statistics.getSecondLevelCachePutCount()).isEqualTo(cachePuts);
+
+        assertThat(result.getRowsRead()).isEqualTo(7);
+        assertThat(result.getRowsInserted()).isEqualTo(5);
+        assertThat(result.getRowsSkipped()).isEqualTo(2);
+        assertThat(result.isCancelled()).isFalse();
+        assertThat(result.getRowsPerSecond()).isPositive().isEqualTo(result.getElapsedMillis() == 0
+                ? 5d : 5 * 1000d / result.getElapsedMillis());
+
+        assertThat(beerRepository.findAll()).extracting(Beer::getBeerName)
+                .containsExactlyInAnyOrder("Alpha", "Bravo", "Charlie", "Delta", "Echo");
+    }
+
+    @Test
+    void testFailingChunkKeepsTheChunksCommittedBeforeIt() throws IOException {
+        jdbcTemplate.execute("alter table beer add constraint no_failing_beer check (beer_name <> 'Failing')");
+        File csvFile = csv(
+                "\"1\",10,\"Alpha\",\"American IPA\"",
+                "\"2\",20,\"Bravo\",\"American IPA\"",
+                "\"3\",30,\"Charlie\",\"American IPA\"",
+                "\"4\",40,\"Delta\",\"American IPA\"",
+                "\"5\",50,\"Failing\",\"American IPA\"",
+                "\"6\",60,\"Foxtrot\",\"American IPA\"");
+
+        assertThrows(PersistenceException.class, () -> beerCsvImportService.importCsv(csvFile));
+
+        assertThat(beerRepository.findAll()).extracting(Beer::getBeerName)
+                .containsExactlyInAnyOrder("Alpha", "Bravo", "Charlie", "Delta");
+    }
+
+    private File csv(String... lines) throws IOException {
+        Path csvFile = tempDir.resolve("beers.csv");
+        Files.writeString(csvFile, HEADER + "\n" + String.join("\n", lines) + "\n");
+        return csvFile.toFile();
+    }
+
+}
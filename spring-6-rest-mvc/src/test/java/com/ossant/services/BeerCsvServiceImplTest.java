@@ -7,6 +7,8 @@ import org.springframework.util.ResourceUtils;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -22,4 +24,14 @@ class BeerCsvServiceImplTest {
         assertThat(recs.size()).isGreaterThan(0);
     }
 
-}
\ No newline at end of file
+    @Test
+    void streamCSV() throws FileNotFoundException {
+        File file = ResourceUtils.getFile("classpath:csvdata/beers.csv");
+        AtomicInteger rejected = new AtomicInteger();
+        try (Stream<BeerCSVRecord> records = beerCsvService.streamCSV(file, e -> rejected.incrementAndGet())) {
+            assertThat(records.count()).isEqualTo(beerCsvService.convertCSV(file).size());
+        }
+        assertThat(rejected.get()).isEqualTo(0);
+    }
+
+}
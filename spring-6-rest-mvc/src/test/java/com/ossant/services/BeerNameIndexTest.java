@@ -0,0 +1,124 @@
+package com.ossant.services;
+
+import com.ossant.repositories.BeerNameView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerNameIndexTest {
+
+    BeerNameIndex beerNameIndex;
+
+    UUID galaxyCat = UUID.randomUUID();
+
+    UUID crank = UUID.randomUUID();
+
+    UUID sunshineCity = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        beerNameIndex = new BeerNameIndex(null, null);
+        beerNameIndex.load(Stream.of(
+                beerName(galaxyCat, "Galaxy Cat"),
+                beerName(crank, "Crank"),
+                beerName(sunshineCity, "Sunshine City IPA")));
+    }
+
+    @Test
+    void testSearchIsCaseInsensitiveSubstring() {
+        assertThat(beerNameIndex.search("ipa")).contains(Set.of(sunshineCity));
+        assertThat(beerNameIndex.search("AXY C")).contains(Set.of(galaxyCat));
+    }
+
+    @Test
+    void testSearchIgnoresAccentsLikeTheDatabaseCollation() {
+        beerNameIndex.index(crank, "Crème Brûlée Stout");
+        assertThat(beerNameIndex.search("creme brulee")).contains(Set.of(crank));
+        assertThat(beerNameIndex.search("BRÛLÉE")).contains(Set.of(crank));
+    }
+
+    @Test
+    void testSearchDropsTrigramFalsePositives() {
+        // "tatat" only has the trigrams "tat" and "ata", both of which "Tata" has too
+        beerNameIndex.index(crank, "Tata");
+        assertThat(beerNameIndex.search("tatat")).contains(Set.of());
+        assertThat(beerNameIndex.search("tata")).contains(Set.of(crank));
+    }
+
+    @Test
+    void testSearchFallsBackForShortOrWildcardFragments() {
+        assertThat(beerNameIndex.search("Ca")).isEmpty();
+        assertThat(beerNameIndex.search("Ga%Cat")).isEmpty();
+    }
+
+    @Test
+    void testIndexAndRemoveKeepTheIndexInSync() {
+        beerNameIndex.index(crank, "Crank Lager");
+        assertThat(beerNameIndex.search("lager")).contains(Set.of(crank));
+
+        beerNameIndex.remove(crank);
+        assertThat(beerNameIndex.search("crank")).contains(Set.of());
+    }
+
+    @Test
+    void testChangesInsideATransactionWaitForTheCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            beerNameIndex.indexAfterCommit(crank, "Crank Lager");
+            beerNameIndex.removeAfterCommit(galaxyCat);
+            assertThat(beerNameIndex.search("lager")).contains(Set.of());
+            assertThat(beerNameIndex.search("galaxy")).contains(Set.of(galaxyCat));
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            assertThat(beerNameIndex.search("lager")).contains(Set.of(crank));
+            assertThat(beerNameIndex.search("galaxy")).contains(Set.of());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testChangesOfARolledBackTransactionAreDropped() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            beerNameIndex.indexAfterCommit(crank, "Crank Lager");
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(beerNameIndex.search("lager")).contains(Set.of());
+        assertThat(beerNameIndex.search("crank")).contains(Set.of(crank));
+    }
+
+    @Test
+    void testMemoryCapDisablesTheIndex() {
+        ReflectionTestUtils.setField(beerNameIndex, "maxMemoryMb", 0L);
+        beerNameIndex.load(Stream.of(beerName(crank, "Crank")));
+        assertThat(beerNameIndex.isReady()).isFalse();
+        assertThat(beerNameIndex.search("crank")).isEmpty();
+    }
+
+    private static BeerNameView beerName(UUID id, String name) {
+        return new BeerNameView() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public String getBeerName() {
+                return name;
+            }
+        };
+    }
+
+}
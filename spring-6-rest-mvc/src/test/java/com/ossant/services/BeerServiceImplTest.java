@@ -0,0 +1,180 @@
+package com.ossant.services;
+
+import com.ossant.model.BeerDTO;
+import com.ossant.model.BeerFilter;
+import com.ossant.model.BeerStyle;
+import com.ossant.model.CursorPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BeerServiceImplTest {
+
+    BeerServiceImpl beerService;
+
+    @BeforeEach
+    void setUp() {
+        beerService = new BeerServiceImpl();
+        for (int i = 0; i < 20; i++) {
+            beerService.saveNewBeer(beer("Hop Nation " + i, i % 2 == 0 ? BeerStyle.IPA : BeerStyle.STOUT));
+        }
+    }
+
+    @Test
+    void testListBeersFiltersAndPages() {
+        Page<BeerDTO> page = beerService.listBeers("hop nation", BeerStyle.IPA, true, 2, 4);
+
+        assertThat(page.getTotalElements()).isEqualTo(10);
+        assertThat(page.getTotalPages()).isEqualTo(3);
+        assertThat(page.getContent()).hasSize(4)
+                .allMatch(beer -> beer.getBeerStyle() == BeerStyle.IPA && beer.getBeerName().startsWith("Hop Nation"));
+        assertThat(page.getContent()).extracting(BeerDTO::getBeerName).isSorted();
+        assertThat(beerService.listBeers(null, null, null, 1, 100).getTotalElements()).isEqualTo(23);
+    }
+
+    @Test
+    void testStaleVersionsAreRejected() {
+        BeerDTO beer = beerService.saveNewBeer(beer("Versioned", BeerStyle.IPA));
+        beer.setBeerName("Renamed");
+        assertThat(beerService.updateBeerById(beer.getId(), beer)).isTrue();
+
+        beer.setBeerName("Renamed Again");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> beerService.updateBeerById(beer.getId(), beer));
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> beerService.patchBeerById(beer.getId(), beer));
+        assertThat(beerService.getBeerById(beer.getId())).get()
+                .extracting(BeerDTO::getBeerName, BeerDTO::getVersion)
+                .containsExactly("Renamed", beer.getVersion() + 1);
+    }
+
+    @Test
+    void testListBeersHidesInventoryUnlessAsked() {
+        assertThat(beerService.listBeers(null, null, false, 1, 25).getContent())
+                .allMatch(beer -> beer.getQuantityOnHand() == null);
+        assertThat(beerService.listBeers(null, null, true, 1, 25).getContent())
+                .allMatch(beer -> beer.getQuantityOnHand() != null);
+    }
+
+    @Test
+    void testListBeersByPriceStockAndCategory() {
+        BeerDTO soldOut = beer("Sold Out", BeerStyle.IPA);
+        soldOut.setQuantityOnHand(0);
+        beerService.saveNewBeer(soldOut);
+
+        assertThat(beerService.listBeers(BeerFilter.builder().minPrice(new BigDecimal("12")).build(), true, 1, 100)
+                .getContent()).extracting(BeerDTO::getPrice)
+                .containsExactlyInAnyOrder(new BigDecimal("12.99"), new BigDecimal("13.99"));
+        assertThat(beerService.listBeers(BeerFilter.builder().maxPrice(new BigDecimal("10")).build(), true, 1, 100)
+                .getTotalElements()).isEqualTo(21);
+        assertThat(beerService.listBeers(BeerFilter.builder().beerStyle(BeerStyle.IPA).inStock(true).build(), true,
+                1, 100).getContent()).hasSize(11).noneMatch(beer -> beer.getBeerName().equals("Sold Out"));
+        // Nothing here belongs to a category
+        assertThat(beerService.listBeers(BeerFilter.builder().categoryId(UUID.randomUUID()).build(), true, 1, 100)
+                .getContent()).isEmpty();
+    }
+
+    @Test
+    void testListBeersByCursorMatchesOffsetPages() {
+        BeerFilter stouts = BeerFilter.builder().beerStyle(BeerStyle.STOUT).build();
+        CursorPage<BeerDTO> cursorPage = beerService.listBeersAfter(stouts, true, "", 3);
+        cursorPage = beerService.listBeersAfter(stouts, true, cursorPage.getNextCursor(), 3);
+        Page<BeerDTO> offsetPage = beerService.listBeers(null, BeerStyle.STOUT, true, 2, 3);
+
+        assertThat(cursorPage.getContent()).extracting(BeerDTO::getId)
+                .containsExactlyElementsOf(offsetPage.getContent().stream().map(BeerDTO::getId).toList());
+    }
+
+    @Test
+    void testGetBeerByIdMiss() {
+        assertThat(beerService.getBeerById(UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    void testReadsAndWritesDontShareState() {
+        BeerDTO input = beer("Galaxy Cat Reserve", BeerStyle.PALE_ALE);
+        BeerDTO saved = beerService.saveNewBeer(input);
+        input.setBeerName("changed after save");
+        saved.setBeerName("changed on the returned copy");
+        beerService.getBeerById(saved.getId()).get().setPrice(BigDecimal.ZERO);
+
+        BeerDTO stored = beerService.getBeerById(saved.getId()).get();
+        assertThat(stored.getBeerName()).isEqualTo("Galaxy Cat Reserve");
+        assertThat(stored.getPrice()).isEqualByComparingTo("9.99");
+    }
+
+    @Test
+    void testWritesMoveBeersBetweenIndexes() {
+        BeerDTO saved = beerService.saveNewBeer(beer("Aardvark Ale", BeerStyle.ALE));
+
+        assertThat(beerService.patchBeerById(saved.getId(), BeerDTO.builder().beerStyle(BeerStyle.PORTER).build()))
+                .isTrue();
+        assertThat(beerService.listBeers(null, BeerStyle.ALE, null, 1, 25).getContent()).isEmpty();
+        assertThat(beerService.listBeers(null, BeerStyle.PORTER, null, 1, 25).getContent())
+                .extracting(BeerDTO::getId).containsExactly(saved.getId());
+        assertThat(beerService.getBeerVersion(saved.getId())).contains(2);
+
+        assertThat(beerService.deleteById(saved.getId())).isTrue();
+        assertThat(beerService.deleteById(saved.getId())).isFalse();
+        assertThat(beerService.listBeers("Aardvark", null, null, 1, 25).getContent()).isEmpty();
+    }
+
+    @Test
+    void testConcurrentWritersKeepIndexesConsistent() throws Exception {
+        List<UUID> ids = beerService.listBeers(null, null, true, 1, 100).getContent().stream()
+                .map(BeerDTO::getId).toList();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int seed = thread;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        UUID id = ids.get((seed + i) % ids.size());
+                        BeerStyle style = BeerStyle.values()[(seed * 31 + i) % BeerStyle.values().length];
+                        beerService.patchBeerById(id, BeerDTO.builder()
+                                .beerName("Renamed " + seed + "-" + i)
+                                .beerStyle(style)
+                                .build());
+                        beerService.listBeers(null, style, true, 1, 10);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Page<BeerDTO> all = beerService.listBeers(null, null, true, 1, 100);
+        assertThat(all.getTotalElements()).isEqualTo(ids.size());
+        assertThat(all.getContent()).extracting(BeerDTO::getId).containsExactlyInAnyOrderElementsOf(ids);
+        long perStyle = 0;
+        for (BeerStyle style : BeerStyle.values()) {
+            perStyle += beerService.listBeers(null, style, true, 1, 100).getTotalElements();
+        }
+        assertThat(perStyle).isEqualTo(ids.size());
+    }
+
+    BeerDTO beer(String beerName, BeerStyle beerStyle) {
+        return BeerDTO.builder()
+                .beerName(beerName)
+                .beerStyle(beerStyle)
+                .upc("123456")
+                .quantityOnHand(12)
+                .price(new BigDecimal("9.99"))
+                .build();
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.ossant.services;
+
+import com.ossant.model.BeerFilter;
+import com.ossant.model.BeerStyle;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.domain.Page;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class ServiceMetricsInterceptorTest {
+
+    SimpleMeterRegistry meterRegistry;
+
+    BeerService target;
+
+    BeerService beerService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        target = mock(BeerService.class);
+        given(target.listBeers(any(), any(), any(), any(), any())).willReturn(Page.empty());
+        given(target.listBeers(any(), any(), any(), any())).willReturn(Page.empty());
+        given(target.getBeerById(any())).willReturn(Optional.empty());
+
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addInterface(BeerService.class);
+        proxyFactory.addAdvice(new ServiceMetricsInterceptor(() -> meterRegistry,
+                Duration.ofMillis(1), Duration.ofSeconds(10)));
+        beerService = (BeerService) proxyFactory.getProxy();
+    }
+
+    @Test
+    void testListBeersIsTaggedByFilterShape() {
+        beerService.listBeers(null, null, false, 1, 25);
+        beerService.listBeers("IPA", null, false, 1, 25);
+        beerService.listBeers("", BeerStyle.IPA, false, 1, 25);
+        beerService.listBeers("IPA", BeerStyle.IPA, false, 1, 25);
+        beerService.listBeers("Cat", BeerStyle.ALE, false, 1, 25);
+
+        assertThat(timer("listBeers", "none").count()).isEqualTo(1);
+        assertThat(timer("listBeers", "name").count()).isEqualTo(1);
+        assertThat(timer("listBeers", "style").count()).isEqualTo(1);
+        assertThat(timer("listBeers", "both").count()).isEqualTo(2);
+    }
+
+    @Test
+    void testFilteredListBeersIsTaggedByTheFiltersSet() {
+        beerService.listBeers(BeerFilter.builder().build(), false, 1, 25);
+        beerService.listBeers(BeerFilter.builder().beerStyle(BeerStyle.IPA).maxPrice(BigDecimal.TEN).build(),
+                false, 1, 25);
+        beerService.listBeers(BeerFilter.builder().beerName("IPA").categoryId(UUID.randomUUID()).inStock(true)
+                .build(), false, 1, 25);
+
+        assertThat(timer("listBeers", "none").count()).isEqualTo(1);
+        assertThat(timer("listBeers", "style+price").count()).isEqualTo(1);
+        assertThat(timer("listBeers", "name+category+stock").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testCustomerListingsAreTaggedByFilterShape() throws Exception {
+        Method listCustomers = CustomerService.class.getMethod("listCustomers",
+                String.class, String.class, Integer.class, Integer.class);
+
+        assertThat(ServiceMetricsInterceptor.filterShape(listCustomers, new Object[]{null, "", 1, 25}))
+                .isEqualTo("none");
+        assertThat(ServiceMetricsInterceptor.filterShape(listCustomers, new Object[]{null, "example.com", 1, 25}))
+                .isEqualTo("email");
+        assertThat(ServiceMetricsInterceptor.filterShape(listCustomers, new Object[]{"Jane", "example.com", 1, 25}))
+                .isEqualTo("both");
+    }
+
+    @Test
+    void testOtherMethodsAreNotTaggedWithAFilter() {
+        beerService.getBeerById(UUID.randomUUID());
+
+        Timer timer = timer("getBeerById", "n/a");
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.getId().getTag("service")).isEqualTo("BeerService");
+        assertThat(timer.getId().getTag("exception")).isEqualTo("none");
+    }
+
+    @Test
+    void testFailuresAreRecordedAsErrorsAndRethrown() {
+        given(target.getBeerById(any())).willThrow(new IllegalStateException("boom"));
+
+        assertThrows(IllegalStateException.class, () -> beerService.getBeerById(UUID.randomUUID()));
+
+        Timer errors = meterRegistry.get(ServiceMetricsInterceptor.METRIC_NAME)
+                .tags("method", "getBeerById", "outcome", "error", "exception", "IllegalStateException")
+                .timer();
+        assertThat(errors.count()).isEqualTo(1);
+        assertThat(meterRegistry.find(ServiceMetricsInterceptor.METRIC_NAME)
+                .tags("method", "getBeerById", "outcome", "success").timer()).isNull();
+    }
+
+    Timer timer(String method, String filter) {
+        return meterRegistry.get(ServiceMetricsInterceptor.METRIC_NAME)
+                .tags("method", method, "filter", filter, "outcome", "success")
+                .timer();
+    }
+
+}
@@ -0,0 +1,273 @@
+package com.ossant.services;
+
+import com.ossant.configuration.ServiceCoalescingConfig.BeerServiceCopier;
+import com.ossant.mappers.BeerMapper;
+import com.ossant.model.BeerDTO;
+import com.ossant.model.BeerFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class SingleFlightInterceptorTest {
+
+    static final int CALLERS = 8;
+
+    SimpleMeterRegistry meterRegistry;
+
+    SingleFlightInterceptor interceptor;
+
+    BeerService target;
+
+    BeerService beerService;
+
+    ExecutorService executor;
+
+    CountDownLatch loadStarted;
+
+    CountDownLatch releaseLoad;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        target = mock(BeerService.class);
+        loadStarted = new CountDownLatch(1);
+        releaseLoad = new CountDownLatch(1);
+        executor = Executors.newFixedThreadPool(CALLERS);
+
+        interceptor = new SingleFlightInterceptor(() -> meterRegistry, Set.of("getBeerById", "listBeers"),
+                new BeerServiceCopier(() -> Mappers.getMapper(BeerMapper.class)));
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addInterface(BeerService.class);
+        proxyFactory.addAdvice(interceptor);
+        beerService = (BeerService) proxyFactory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentIdenticalCallsShareOneLoad() throws Exception {
+        UUID beerId = UUID.randomUUID();
+        BeerDTO beer = BeerDTO.builder().id(beerId).beerName("Galaxy Cat").build();
+        given(target.getBeerById(beerId)).willAnswer(invocation -> blockingLoad(Optional.of(beer)));
+
+        List<Future<Optional<BeerDTO>>> results = callConcurrently(() -> beerService.getBeerById(beerId));
+
+        for (Future<Optional<BeerDTO>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).contains(beer);
+        }
+        verify(target, times(1)).getBeerById(beerId);
+        assertThat(coalesced("getBeerById").count()).isEqualTo(CALLERS - 1);
+        assertThat(interceptor.inFlightCount()).isZero();
+    }
+
+    @Test
+    void testIdenticalListingsShareOneLoad() throws Exception {
+        given(target.listBeers(any(), any(), any(), any(), any())).willAnswer(invocation -> blockingLoad(Page.empty()));
+
+        List<Future<Page<BeerDTO>>> results = callConcurrently(() -> beerService.listBeers("Cat", null, null, 1, 25));
+
+        for (Future<Page<BeerDTO>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEmpty();
+        }
+        verify(target, times(1)).listBeers("Cat", null, null, 1, 25);
+        assertThat(coalesced("listBeers").count()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void testEveryCallerGetsItsOwnCopy() throws Exception {
+        UUID beerId = UUID.randomUUID();
+        BeerDTO beer = BeerDTO.builder().id(beerId).beerName("Galaxy Cat").build();
+        given(target.getBeerById(beerId)).willAnswer(invocation -> blockingLoad(Optional.of(beer)));
+
+        List<Future<Optional<BeerDTO>>> results = callConcurrently(() -> {
+            Optional<BeerDTO> result = beerService.getBeerById(beerId);
+            result.get().setBeerName("changed by " + Thread.currentThread().getName());
+            return result;
+        });
+
+        Set<BeerDTO> copies = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Future<Optional<BeerDTO>> result : results) {
+            copies.add(result.get(5, TimeUnit.SECONDS).get());
+        }
+        assertThat(copies).hasSize(CALLERS).doesNotContain(beer);
+        assertThat(beer.getBeerName()).isEqualTo("Galaxy Cat");
+    }
+
+    @Test
+    void testFlightsMatchTheArgumentsAsTheyWereCalled() throws Exception {
+        given(target.listBeers(any(BeerFilter.class), any(), any(), any())).willReturn(Page.empty());
+        given(target.listBeers(argThat(filter -> "Cat".equals(filter.getBeerName())), any(), any(), any()))
+                .willAnswer(invocation -> blockingLoad(Page.empty()));
+        BeerFilter beerFilter = BeerFilter.builder().beerName("Cat").build();
+
+        Future<Page<BeerDTO>> first = executor.submit(() -> beerService.listBeers(beerFilter, null, 1, 25));
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        beerFilter.setBeerName("Dog");
+        Future<Page<BeerDTO>> second = executor.submit(() ->
+                beerService.listBeers(BeerFilter.builder().beerName("Dog").build(), null, 1, 25));
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEmpty();
+        releaseLoad.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEmpty();
+        verify(target, times(2)).listBeers(any(BeerFilter.class), any(), any(), any());
+    }
+
+    @Test
+    void testFailureReachesEveryCaller() throws Exception {
+        UUID beerId = UUID.randomUUID();
+        given(target.getBeerById(beerId)).willAnswer(invocation -> {
+            blockingLoad(null);
+            throw new QueryTimeoutException("timed out");
+        });
+
+        List<Future<Optional<BeerDTO>>> results = callConcurrently(() -> beerService.getBeerById(beerId));
+
+        for (Future<Optional<BeerDTO>> result : results) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertThat(e.getCause()).isInstanceOf(QueryTimeoutException.class);
+        }
+        verify(target, times(1)).getBeerById(beerId);
+    }
+
+    @Test
+    void testEveryJoinedCallerGetsItsOwnException() throws Exception {
+        UUID beerId = UUID.randomUUID();
+        QueryTimeoutException failure = new QueryTimeoutException("timed out");
+        given(target.getBeerById(beerId)).willAnswer(invocation -> {
+            blockingLoad(null);
+            throw failure;
+        });
+
+        List<Future<Optional<BeerDTO>>> results = callConcurrently(() -> beerService.getBeerById(beerId));
+
+        Set<Throwable> thrown = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Future<Optional<BeerDTO>> result : results) {
+            thrown.add(assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS)).getCause());
+        }
+        assertThat(thrown).hasSize(CALLERS).contains(failure)
+                .allSatisfy(e -> assertThat(e).isInstanceOf(QueryTimeoutException.class).hasMessage("timed out"));
+        assertThat(thrown).filteredOn(e -> e != failure).hasSize(CALLERS - 1)
+                .allSatisfy(e -> assertThat(e.getCause()).isSameAs(failure));
+    }
+
+    @Test
+    void testFailuresWithoutACopyConstructorAreWrapped() throws Exception {
+        UUID beerId = UUID.randomUUID();
+        ArithmeticException failure = new ArithmeticException("no copy");
+        given(target.getBeerById(beerId)).willAnswer(invocation -> {
+            blockingLoad(null);
+            throw failure;
+        });
+
+        List<Future<Optional<BeerDTO>>> results = callConcurrently(() -> beerService.getBeerById(beerId));
+
+        List<Throwable> thrown = new ArrayList<>();
+        for (Future<Optional<BeerDTO>> result : results) {
+            thrown.add(assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS)).getCause());
+        }
+        assertThat(thrown).filteredOn(e -> e == failure).hasSize(1);
+        assertThat(thrown).filteredOn(e -> e != failure).hasSize(CALLERS - 1)
+                .allSatisfy(e -> assertThat(e).isInstanceOf(CoalescedCallException.class).hasCause(failure));
+    }
+
+    @Test
+    void testSequentialCallsLoadAgain() {
+        UUID beerId = UUID.randomUUID();
+        given(target.getBeerById(beerId)).willReturn(Optional.empty());
+
+        beerService.getBeerById(beerId);
+        beerService.getBeerById(beerId);
+
+        verify(target, times(2)).getBeerById(beerId);
+        assertThat(meterRegistry.find(SingleFlightInterceptor.METRIC_NAME).counter()).isNull();
+    }
+
+    @Test
+    void testDifferentArgumentsAreNotCoalesced() throws Exception {
+        UUID slowBeerId = UUID.randomUUID();
+        given(target.getBeerById(any())).willReturn(Optional.empty());
+        given(target.getBeerById(slowBeerId)).willAnswer(invocation -> blockingLoad(Optional.empty()));
+
+        Future<Optional<BeerDTO>> first = executor.submit(() -> beerService.getBeerById(slowBeerId));
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(beerService.getBeerById(UUID.randomUUID())).isEmpty();
+        releaseLoad.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEmpty();
+        verify(target, times(2)).getBeerById(any());
+    }
+
+    @Test
+    void testOtherMethodsPassThrough() {
+        UUID beerId = UUID.randomUUID();
+        given(target.getBeerVersion(beerId)).willReturn(Optional.of(3));
+
+        assertThat(beerService.getBeerVersion(beerId)).contains(3);
+        assertThat(interceptor.inFlightCount()).isZero();
+    }
+
+    private <T> T blockingLoad(T result) throws InterruptedException {
+        loadStarted.countDown();
+        assertThat(releaseLoad.await(5, TimeUnit.SECONDS)).isTrue();
+        return result;
+    }
+
+    // Starts the callers, waits until one is loading and all others joined it, then lets the load finish
+    private <T> List<Future<T>> callConcurrently(Callable<T> call) throws Exception {
+        List<Future<T>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(call));
+        }
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (joined() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        releaseLoad.countDown();
+        return results;
+    }
+
+    private double joined() {
+        return meterRegistry.find(SingleFlightInterceptor.METRIC_NAME).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private Counter coalesced(String method) {
+        return meterRegistry.get(SingleFlightInterceptor.METRIC_NAME).tag("method", method).counter();
+    }
+
+}
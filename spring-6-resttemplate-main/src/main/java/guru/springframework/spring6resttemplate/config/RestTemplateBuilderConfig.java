@@ -1,10 +1,15 @@
 package guru.springframework.spring6resttemplate.config;
 
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.web.client.RestTemplateBuilderConfigurer;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
@@ -12,6 +17,9 @@ import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /* Rest Template needs to use an authenticated JWT token */
 @Configuration
 public class RestTemplateBuilderConfig {
@@ -25,6 +33,9 @@ public class RestTemplateBuilderConfig {
     @Value("${rest.template.baseUrl}")
     String baseUrl;
 
+    @Value("${rest.template.smile:true}")
+    boolean smile;
+
     /*
         Authorized Client Manager:
 
@@ -71,9 +82,38 @@ public class RestTemplateBuilderConfig {
         */
         assert baseUrl != null;
 
-        return restTemplateBuilderConfigurer.configure(new RestTemplateBuilder())
+        RestTemplateBuilder builder = restTemplateBuilderConfigurer.configure(new RestTemplateBuilder())
                 //.basicAuthentication(username, password)
                 .additionalInterceptors(interceptor)
                 .uriTemplateHandler(new DefaultUriBuilderFactory(baseUrl));
+
+        return smile ? builder.additionalInterceptors(smileFirstInterceptor()) : builder;
+    }
+
+    /*
+        Smile instead of JSON:
+
+            The Accept header lists the media types of every converter able to read the response, JSON first.
+            This interceptor moves application/x-jackson-smile to the front, so the server answers with Smile when
+            it can and with JSON otherwise. Request bodies are still written as JSON. Smile came out smallest, and
+            faster than JSON, for a page of beers in SerializationFormatBenchmark.
+            Set rest.template.smile=false to go back to plain JSON.
+     */
+    private static ClientHttpRequestInterceptor smileFirstInterceptor() {
+        MediaType applicationSmile = new MediaType("application", "x-jackson-smile");
+        return (request, body, execution) -> {
+            List<MediaType> accept = new ArrayList<>(request.getHeaders().getAccept());
+            if (accept.remove(applicationSmile)) {
+                accept.add(0, applicationSmile);
+                request.getHeaders().setAccept(accept);
+            }
+            return execution.execute(request, body);
+        };
+    }
+
+    // Replaces the default Smile converter, so Smile is read with the same settings as JSON
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
     }
 }
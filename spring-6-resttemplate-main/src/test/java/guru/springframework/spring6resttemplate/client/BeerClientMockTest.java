@@ -20,7 +20,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.security.oauth2.client.InMemoryOAuth2AuthorizedClientService;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
@@ -43,6 +45,7 @@ import java.util.Collections;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
@@ -67,6 +70,9 @@ public class BeerClientMockTest {
     @Autowired
     ClientRegistrationRepository clientRegistrationRepository;
 
+    @Autowired
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter;
+
     @Mock
     RestTemplateBuilder mockRestTemplateBuilder =
             new RestTemplateBuilder(new MockServerRestTemplateCustomizer());
@@ -197,6 +203,19 @@ public class BeerClientMockTest {
         assertThat(beerDtoResponseObj.getId()).isEqualTo(dto.getId());
     }
 
+    @Test
+    void testGetBeerByIdAsSmile() throws JsonProcessingException {
+        byte[] payload = smileHttpMessageConverter.getObjectMapper().writeValueAsBytes(dto);
+
+        server.expect(method(HttpMethod.GET))
+                .andExpect(requestToUriTemplate(URL + BeerClientImpl.GET_BEER_BY_ID_PATH, dto.getId()))
+                .andExpect(header(HttpHeaders.ACCEPT, startsWith("application/x-jackson-smile, application/json")))
+                .andRespond(withSuccess(payload, new MediaType("application", "x-jackson-smile")));
+
+        BeerDTO beerDtoResponseObj = beerClient.getBeerById(dto.getId());
+        assertThat(beerDtoResponseObj).isEqualTo(dto);
+    }
+
     @Test
     void testCreateBeer() {
         URI uri = UriComponentsBuilder.fromPath(BeerClientImpl.GET_BEER_BY_ID_PATH)
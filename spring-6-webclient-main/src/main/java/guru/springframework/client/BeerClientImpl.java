@@ -2,6 +2,8 @@ package guru.springframework.client;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import guru.springframework.model.BeerDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
@@ -12,14 +14,21 @@ import java.util.Objects;
 
 import static guru.springframework.app.ApplicationConstants.BEER_PATH;
 import static guru.springframework.app.ApplicationConstants.BEER_PATH_ID;
+import static guru.springframework.config.WebClientConfig.APPLICATION_SMILE;
 
 @Service
 public class BeerClientImpl implements BeerClient {
 
     private final WebClient webClient;
 
-    public BeerClientImpl(WebClient.Builder webClientBuilder) {
+    // Accept header of the BeerDTO calls, the String, Map and JsonNode ones stay on JSON
+    private final MediaType[] dtoMediaTypes;
+
+    public BeerClientImpl(WebClient.Builder webClientBuilder, @Value("${webclient.smile:true}") boolean smile) {
         this.webClient = webClientBuilder.build();
+        this.dtoMediaTypes = smile
+                ? new MediaType[]{APPLICATION_SMILE, MediaType.APPLICATION_JSON}
+                : new MediaType[]{MediaType.APPLICATION_JSON};
     }
 
     @Override
@@ -39,13 +48,14 @@ public class BeerClientImpl implements BeerClient {
 
     @Override
     public Flux<BeerDTO> listBeerDtos() {
-        return webClient.get().uri(BEER_PATH).retrieve().bodyToFlux(BeerDTO.class);
+        return webClient.get().uri(BEER_PATH).accept(dtoMediaTypes).retrieve().bodyToFlux(BeerDTO.class);
     }
 
     @Override
     public Mono<BeerDTO> getBeerById(String id) {
         return webClient.get()
                 .uri(uriBuilder -> uriBuilder.path(BEER_PATH_ID).build(id))
+                .accept(dtoMediaTypes)
                 .retrieve()
                 .bodyToMono(BeerDTO.class);
     }
@@ -55,6 +65,7 @@ public class BeerClientImpl implements BeerClient {
         return webClient.get().uri(uriBuilder -> uriBuilder
                         .path(BEER_PATH)
                         .queryParam("beerStyle", beerStyle).build())
+                .accept(dtoMediaTypes)
                 .retrieve()
                 .bodyToFlux(BeerDTO.class);
     }
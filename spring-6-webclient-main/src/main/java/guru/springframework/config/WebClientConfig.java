@@ -1,24 +1,40 @@
 package guru.springframework.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.security.oauth2.client.ReactiveOAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.client.web.reactive.function.client.ServerOAuth2AuthorizedClientExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 
+/*
+    The beer DTO calls ask for Smile ahead of JSON (webclient.smile), see BeerClientImpl. The Smile codecs
+    replace the default ones so they use a mapper from Boot's builder, configured like the JSON one.
+ */
 @Configuration
 public class WebClientConfig implements WebClientCustomizer {
 
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
     private final String rootUrl;
 
     private final ReactiveOAuth2AuthorizedClientManager authorizedClientManager;
 
+    private final ObjectMapper smileMapper;
+
     public WebClientConfig(
             @Value("${webclient.rooturl}") String rootUrl,
-            ReactiveOAuth2AuthorizedClientManager authorizedClientManager) {
+            ReactiveOAuth2AuthorizedClientManager authorizedClientManager,
+            Jackson2ObjectMapperBuilder objectMapperBuilder) {
         this.rootUrl = rootUrl;
         this.authorizedClientManager = authorizedClientManager;
+        this.smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
     }
 
     @Override
@@ -28,7 +44,14 @@ public class WebClientConfig implements WebClientCustomizer {
         oAuth2AuthorizedClientExchangeFilterFunction.setDefaultClientRegistrationId("springauth");
         webClientBuilder
                 .filter(oAuth2AuthorizedClientExchangeFilterFunction)
-                .baseUrl(rootUrl);
+                .baseUrl(rootUrl)
+                // Given only a mapper the codecs would claim the JSON media types
+                .codecs(configurer -> {
+                    configurer.defaultCodecs().jackson2SmileDecoder(
+                            new Jackson2SmileDecoder(smileMapper, APPLICATION_SMILE));
+                    configurer.defaultCodecs().jackson2SmileEncoder(
+                            new Jackson2SmileEncoder(smileMapper, APPLICATION_SMILE));
+                });
     }
 
 }